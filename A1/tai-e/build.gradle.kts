@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("application")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -13,6 +14,19 @@ dependencies {
     testImplementation("junit:junit:4.13")
 }
 
+sourceSets {
+    main {
+        // sources shared by several assignments
+        java.srcDir("../../common/util/src/main/java")
+    }
+    test {
+        java.srcDir("../../common/util/src/test/java")
+    }
+    named("jmh") {
+        java.srcDir("../../common/dataflow/src/jmh/java")
+    }
+}
+
 application {
     mainClass.set("pascal.taie.Assignment")
 }
@@ -25,6 +39,12 @@ tasks.test {
     maxHeapSize = "4G"
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
@@ -26,11 +26,21 @@ import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Metrics;
 
 class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
 
-    public IterativeSolver(DataflowAnalysis<Node, Fact> analysis) {
-        super(analysis);
+    private final Metrics.Counter iterations;
+
+    private final Metrics.Counter changedNodes;
+
+    private final Metrics.PhaseTimer transferNodeTimer;
+
+    public IterativeSolver(DataflowAnalysis<Node, Fact> analysis, Metrics metrics) {
+        super(analysis, metrics);
+        iterations = metrics.counter("iterations");
+        changedNodes = metrics.counter("changed-nodes");
+        transferNodeTimer = metrics.timer("transfer-node");
     }
 
     @Override
@@ -44,6 +54,7 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
         boolean change = true;
         while (change) {
             change = false;
+            iterations.increase();
             for (Node node : cfg) {
                 if (cfg.isExit(node)) continue;
                 for (var suc : cfg.getSuccsOf(node)) {
@@ -52,7 +63,12 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
                     }
                     analysis.meetInto(result.getInFact(suc), result.getOutFact(node));
                 }
-                if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) {
+                boolean changed;
+                try (var ignored = transferNodeTimer.start()) {
+                    changed = analysis.transferNode(node, result.getInFact(node), result.getOutFact(node));
+                }
+                if (changed) {
+                    changedNodes.increase();
                     change = true;
                 }
 
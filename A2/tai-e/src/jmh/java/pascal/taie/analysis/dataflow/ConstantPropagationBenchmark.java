@@ -0,0 +1,94 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.Main;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of constant propagation (solved by {@code WorkListSolver}) over all application methods of
+ * the test programs and of the synthetic programs with large CFGs.
+ * The world and the CFGs are built once per trial, thus only the
+ * solving is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xss512m", "-Xmx4G"})
+public class ConstantPropagationBenchmark {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop";
+
+    @Param({
+            "Assign",
+            "BranchConstant",
+            "Interprocedural",
+            "SimpleBinary",
+            "SimpleBranch",
+            "SimpleChar",
+            "SimpleConstant",
+            BenchmarkPrograms.DEEP_LOOPS,
+            BenchmarkPrograms.HUGE_SWITCH,
+    })
+    public String program;
+
+    private ConstantPropagation analysis;
+
+    private List<IR> irs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String classPath = BenchmarkPrograms.getClassPath(program, CLASS_PATH);
+        Main.main(new String[]{"-pp", "-cp", classPath, "-m", program,
+                "-a", ConstantPropagation.ID + "=edge-refine:false"});
+        analysis = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false));
+        irs = BenchmarkPrograms.getApplicationIRs();
+    }
+
+    @Benchmark
+    public void analyze(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(analysis.analyze(ir));
+        }
+    }
+}
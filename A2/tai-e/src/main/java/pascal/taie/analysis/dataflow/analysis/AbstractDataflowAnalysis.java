@@ -30,6 +30,7 @@ import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
+import pascal.taie.util.Metrics;
 
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
@@ -39,7 +40,7 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
 
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solver = Solver.makeSolver(this, Metrics.of(getId(), getOptions()));
     }
 
     @Override
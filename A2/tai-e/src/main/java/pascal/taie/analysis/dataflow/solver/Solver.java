@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Metrics;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -37,16 +38,28 @@ public abstract class Solver<Node, Fact> {
 
     protected final DataflowAnalysis<Node, Fact> analysis;
 
-    protected Solver(DataflowAnalysis<Node, Fact> analysis) {
+    protected final Metrics metrics;
+
+    private final Metrics.Counter solvedCFGs;
+
+    private final Metrics.PhaseTimer solveTimer;
+
+    protected Solver(DataflowAnalysis<Node, Fact> analysis, Metrics metrics) {
         this.analysis = analysis;
+        this.metrics = metrics;
+        solvedCFGs = metrics.counter("solved-cfgs");
+        solveTimer = metrics.timer("solve");
+        // the solver is run once per method without a finishing point,
+        // thus the metrics are dumped when the JVM exits
+        metrics.dumpOnExit();
     }
 
     /**
      * Static factory method to create a new solver for given analysis.
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
-            DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+            DataflowAnalysis<Node, Fact> analysis, Metrics metrics) {
+        return new WorkListSolver<>(analysis, metrics);
     }
 
     /**
@@ -56,8 +69,12 @@ public abstract class Solver<Node, Fact> {
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = initialize(cfg);
-        doSolve(cfg, result);
+        DataflowResult<Node, Fact> result;
+        try (var ignored = solveTimer.start()) {
+            result = initialize(cfg);
+            doSolve(cfg, result);
+        }
+        solvedCFGs.increase();
         return result;
     }
 
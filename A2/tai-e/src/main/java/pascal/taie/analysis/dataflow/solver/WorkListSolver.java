@@ -25,14 +25,24 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Metrics;
 
 import java.util.LinkedList;
 import java.util.Queue;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
-    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
-        super(analysis);
+    private final Metrics.Counter workListPops;
+
+    private final Metrics.Counter changedNodes;
+
+    private final Metrics.PhaseTimer transferNodeTimer;
+
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis, Metrics metrics) {
+        super(analysis, metrics);
+        workListPops = metrics.counter("worklist-pops");
+        changedNodes = metrics.counter("changed-nodes");
+        transferNodeTimer = metrics.timer("transfer-node");
     }
 
     @Override
@@ -41,11 +51,17 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         Queue<Node> queue = new LinkedList<>(cfg.getNodes());
         while (!queue.isEmpty()) {
             Node node = queue.poll();
+            workListPops.increase();
             if (cfg.isEntry(node)) continue;
             for (var pre : cfg.getPredsOf(node)) {
                 analysis.meetInto(result.getOutFact(pre), result.getInFact(node));
             }
-            if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) {
+            boolean changed;
+            try (var ignored = transferNodeTimer.start()) {
+                changed = analysis.transferNode(node, result.getInFact(node), result.getOutFact(node));
+            }
+            if (changed) {
+                changedNodes.increase();
                 queue.addAll(cfg.getSuccsOf(node));
             }
         }
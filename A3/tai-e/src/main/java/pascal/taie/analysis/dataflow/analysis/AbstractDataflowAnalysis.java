@@ -23,6 +23,7 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.cache.MethodResultCache;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.solver.Solver;
 import pascal.taie.analysis.graph.cfg.CFG;
@@ -30,6 +31,7 @@ import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
+import pascal.taie.util.Metrics;
 
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
@@ -37,13 +39,30 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
 
     private final Solver<Node, Fact> solver;
 
+    /**
+     * Cache of the analysis results, null if the cache is disabled.
+     */
+    private final MethodResultCache<DataflowResult<Node, Fact>> cache;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
+        this(config, null);
+    }
+
+    protected AbstractDataflowAnalysis(
+            AnalysisConfig config,
+            MethodResultCache<DataflowResult<Node, Fact>> cache) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solver = Solver.makeSolver(this, Metrics.of(getId(), getOptions()));
+        this.cache = cache;
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
+        return cache != null ?
+                cache.computeIfAbsent(ir, this::solve) : solve(ir);
+    }
+
+    private DataflowResult<Node, Fact> solve(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
         return solver.solve(cfg);
     }
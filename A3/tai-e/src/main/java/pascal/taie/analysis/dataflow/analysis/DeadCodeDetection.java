@@ -23,6 +23,9 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.cache.DataflowResultCodec;
+import pascal.taie.analysis.dataflow.cache.MethodResultCache;
+import pascal.taie.analysis.dataflow.cache.ResultCodec;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
@@ -42,18 +45,38 @@ import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.SwitchStmt;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
     public static final String ID = "deadcode";
 
+    /**
+     * Cache of the detected dead code, null if the cache is disabled.
+     * As dead code is derived from the results of constant propagation
+     * and live variable analysis, they are part of the cache keys.
+     */
+    private final MethodResultCache<Set<Stmt>> cache;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        MethodResultCache<Set<Stmt>> cache =
+                MethodResultCache.make(config, new DeadCodeCodec());
+        this.cache = cache == null ? null : cache
+                .dependsOn(ConstantPropagation.ID, DataflowResultCodec.ofCPFact())
+                .dependsOn(LiveVariableAnalysis.ID, DataflowResultCodec.ofVarSet());
     }
 
     @Override
     public Set<Stmt> analyze(IR ir) {
+        return cache != null ?
+                cache.computeIfAbsent(ir, this::detect) : detect(ir);
+    }
+
+    private Set<Stmt> detect(IR ir) {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
         // obtain result of constant propagation
@@ -98,6 +121,30 @@ public class DeadCodeDetection extends MethodAnalysis {
         return deadCode;
     }
 
+    /**
+     * Codec for dead code, which is encoded as the indexes of statements.
+     */
+    private static class DeadCodeCodec implements ResultCodec<Set<Stmt>> {
+
+        @Override
+        public void write(Set<Stmt> deadCode, IR ir, DataOutput out)
+                throws IOException {
+            out.writeInt(deadCode.size());
+            for (Stmt stmt : deadCode) {
+                out.writeInt(stmt.getIndex());
+            }
+        }
+
+        @Override
+        public Set<Stmt> read(IR ir, DataInput in) throws IOException {
+            Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+            for (int i = in.readInt(); i > 0; --i) {
+                deadCode.add(ir.getStmt(in.readInt()));
+            }
+            return deadCode;
+        }
+    }
+
     /**
      * @return true if given RValue has no side effect, otherwise false.
      */
@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.cache.DataflowResultCodec;
+import pascal.taie.analysis.dataflow.cache.MethodResultCache;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
@@ -37,7 +39,8 @@ public class LiveVariableAnalysis extends
     public static final String ID = "livevar";
 
     public LiveVariableAnalysis(AnalysisConfig config) {
-        super(config);
+        super(config, MethodResultCache.make(
+                config, DataflowResultCodec.ofVarSet(), "strongly"));
     }
 
     @Override
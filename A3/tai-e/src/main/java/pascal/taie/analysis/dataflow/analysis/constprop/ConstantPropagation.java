@@ -23,6 +23,8 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.cache.DataflowResultCodec;
+import pascal.taie.analysis.dataflow.cache.MethodResultCache;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
@@ -46,7 +48,8 @@ public class ConstantPropagation extends
     public static final String ID = "constprop";
 
     public ConstantPropagation(AnalysisConfig config) {
-        super(config);
+        super(config, MethodResultCache.make(
+                config, DataflowResultCodec.ofCPFact(), "edge-refine"));
     }
 
     @Override
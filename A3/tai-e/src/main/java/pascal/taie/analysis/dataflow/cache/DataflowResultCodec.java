@@ -0,0 +1,176 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.cache;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Codec for data-flow results on statement-level CFGs.
+ * The entry and exit nodes of the CFG, which are not in the IR,
+ * are referred to by {@link #ENTRY} and {@link #EXIT}.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public abstract class DataflowResultCodec<Fact>
+        implements ResultCodec<DataflowResult<Stmt, Fact>> {
+
+    private static final int ENTRY = -1;
+
+    private static final int EXIT = -2;
+
+    private static final byte UNDEF = 0;
+
+    private static final byte CONSTANT = 1;
+
+    private static final byte NAC = 2;
+
+    /**
+     * @return codec for results of analyses whose facts are sets of variables,
+     * e.g., live variable analysis.
+     */
+    public static DataflowResultCodec<SetFact<Var>> ofVarSet() {
+        return new DataflowResultCodec<>() {
+            @Override
+            protected void writeFact(SetFact<Var> fact, DataOutput out)
+                    throws IOException {
+                out.writeInt(fact.size());
+                for (Var var : (Iterable<Var>) fact.stream()::iterator) {
+                    out.writeInt(var.getIndex());
+                }
+            }
+
+            @Override
+            protected SetFact<Var> readFact(IR ir, DataInput in)
+                    throws IOException {
+                SetFact<Var> fact = new SetFact<>();
+                for (int i = in.readInt(); i > 0; --i) {
+                    fact.add(ir.getVar(in.readInt()));
+                }
+                return fact;
+            }
+        };
+    }
+
+    /**
+     * @return codec for results of constant propagation.
+     */
+    public static DataflowResultCodec<CPFact> ofCPFact() {
+        return new DataflowResultCodec<>() {
+            @Override
+            protected void writeFact(CPFact fact, DataOutput out)
+                    throws IOException {
+                out.writeInt(fact.keySet().size());
+                for (Var var : fact.keySet()) {
+                    out.writeInt(var.getIndex());
+                    Value value = fact.get(var);
+                    if (value.isConstant()) {
+                        out.writeByte(CONSTANT);
+                        out.writeInt(value.getConstant());
+                    } else {
+                        out.writeByte(value.isNAC() ? NAC : UNDEF);
+                    }
+                }
+            }
+
+            @Override
+            protected CPFact readFact(IR ir, DataInput in) throws IOException {
+                CPFact fact = new CPFact();
+                for (int i = in.readInt(); i > 0; --i) {
+                    Var var = ir.getVar(in.readInt());
+                    Value value = switch (in.readByte()) {
+                        case UNDEF -> Value.getUndef();
+                        case CONSTANT -> Value.makeConstant(in.readInt());
+                        case NAC -> Value.getNAC();
+                        default -> throw new IOException("Invalid value kind");
+                    };
+                    fact.update(var, value);
+                }
+                return fact;
+            }
+        };
+    }
+
+    @Override
+    public void write(DataflowResult<Stmt, Fact> result, IR ir, DataOutput out)
+            throws IOException {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        out.writeInt(cfg.getNumberOfNodes());
+        for (Stmt node : cfg) {
+            out.writeInt(cfg.isEntry(node) ? ENTRY :
+                    cfg.isExit(node) ? EXIT : node.getIndex());
+            writeNullableFact(result.getInFact(node), out);
+            writeNullableFact(result.getOutFact(node), out);
+        }
+    }
+
+    @Override
+    public DataflowResult<Stmt, Fact> read(IR ir, DataInput in)
+            throws IOException {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, Fact> result = new DataflowResult<>();
+        for (int i = in.readInt(); i > 0; --i) {
+            int id = in.readInt();
+            Stmt node = switch (id) {
+                case ENTRY -> cfg.getEntry();
+                case EXIT -> cfg.getExit();
+                default -> ir.getStmt(id);
+            };
+            if (!cfg.hasNode(node)) {
+                throw new IOException(node + " is not in CFG of "
+                        + ir.getMethod());
+            }
+            if (in.readBoolean()) {
+                result.setInFact(node, readFact(ir, in));
+            }
+            if (in.readBoolean()) {
+                result.setOutFact(node, readFact(ir, in));
+            }
+        }
+        return result;
+    }
+
+    private void writeNullableFact(Fact fact, DataOutput out)
+            throws IOException {
+        out.writeBoolean(fact != null);
+        if (fact != null) {
+            writeFact(fact, out);
+        }
+    }
+
+    protected abstract void writeFact(Fact fact, DataOutput out)
+            throws IOException;
+
+    protected abstract Fact readFact(IR ir, DataInput in) throws IOException;
+}
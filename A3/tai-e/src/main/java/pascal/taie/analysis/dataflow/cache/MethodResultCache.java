@@ -0,0 +1,425 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * On-disk cache of the results of a method analysis.
+ * <p>
+ * Each result is keyed by the hash of the analysis ID, the options
+ * that affect the result, the IR and CFG of the method, and the results
+ * of the analyses it depends on, so that the cached result is reused
+ * only if the method is unchanged since it was computed.
+ * The cache is enabled by option "cache" of the analysis, which specifies
+ * the cache directory. Different analyses may share the same directory,
+ * whose size is bounded by option "cache-size" (in MB), and the least
+ * recently used results are evicted when the bound is exceeded.
+ * <p>
+ * The cache can be used by concurrent analyses. Each result is read,
+ * computed and written under a lock of its own key, so that the same
+ * result is computed only once, while different results are processed
+ * in parallel. The shared bookkeeping of the cache directory is the only
+ * state guarded by a common lock, which is never held during I/O.
+ *
+ * @param <R> type of the results
+ */
+public class MethodResultCache<R> {
+
+    private static final Logger logger = LogManager.getLogger(MethodResultCache.class);
+
+    private static final int MAGIC = 0x54414943; // "TAIC"
+
+    /**
+     * Version of the cache format, which should be increased whenever
+     * the format or the encoded results change.
+     */
+    private static final int VERSION = 1;
+
+    private static final String SUFFIX = ".bin";
+
+    private static final long DEFAULT_CACHE_SIZE = 512; // MB
+
+    /**
+     * Stores of the cache directories, shared by all analyses.
+     */
+    private static final Map<File, Store> stores = new HashMap<>();
+
+    private final AnalysisConfig config;
+
+    private final ResultCodec<R> codec;
+
+    private final List<String> optionKeys;
+
+    private final Map<String, ResultCodec<?>> dependencies = new LinkedHashMap<>();
+
+    private final Store store;
+
+    private MethodResultCache(AnalysisConfig config, ResultCodec<R> codec,
+                              List<String> optionKeys, Store store) {
+        this.config = config;
+        this.codec = codec;
+        this.optionKeys = optionKeys;
+        this.store = store;
+    }
+
+    /**
+     * Creates the cache for the analysis of given config.
+     *
+     * @param optionKeys keys of the options that affect the analysis results
+     * @return the cache, or null if option "cache" is not specified.
+     */
+    @Nullable
+    public static <R> MethodResultCache<R> make(
+            AnalysisConfig config, ResultCodec<R> codec, String... optionKeys) {
+        AnalysisOptions options = config.getOptions();
+        String dir = options.getString("cache");
+        if (dir == null) {
+            return null;
+        }
+        long size = options.get("cache-size") instanceof Number n ?
+                n.longValue() : DEFAULT_CACHE_SIZE;
+        Store store;
+        synchronized (stores) {
+            store = stores.computeIfAbsent(
+                    new File(dir).getAbsoluteFile(), Store::new);
+        }
+        store.setMaxSize(size * 1024 * 1024);
+        return new MethodResultCache<>(config, codec, List.of(optionKeys), store);
+    }
+
+    /**
+     * Declares that the results also depend on the results of another
+     * analysis, which are encoded by given codec into the keys.
+     */
+    public MethodResultCache<R> dependsOn(String id, ResultCodec<?> codec) {
+        dependencies.put(id, codec);
+        return this;
+    }
+
+    /**
+     * Returns the cached result of given IR, or computes the result
+     * by the analysis and stores it in the cache.
+     */
+    public R computeIfAbsent(IR ir, Function<IR, R> analysis) {
+        return computeIfAbsent(computeKey(ir), ir, analysis);
+    }
+
+    /**
+     * Returns the cached result of given key, or computes the result
+     * by the analysis and stores it in the cache.
+     */
+    R computeIfAbsent(String key, IR ir, Function<IR, R> analysis) {
+        String name = key + SUFFIX;
+        Object lock = store.lock(name);
+        try {
+            synchronized (lock) {
+                R result = store.read(name, ir, codec);
+                if (result == null) {
+                    result = analysis.apply(ir);
+                    store.write(name, result, ir, codec);
+                }
+                return result;
+            }
+        } finally {
+            store.unlock(name, lock);
+        }
+    }
+
+    private String computeKey(IR ir) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            out.writeInt(VERSION);
+            out.writeUTF(config.getId());
+            AnalysisOptions options = config.getOptions();
+            for (String key : optionKeys) {
+                out.writeUTF(key + '=' + options.get(key));
+            }
+            writeIR(ir, out);
+            for (var entry : dependencies.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeResult(ir.getResult(entry.getKey()), ir,
+                        entry.getValue(), out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Writes the contents of given IR and its CFG which may affect
+     * the analysis results.
+     */
+    private static void writeIR(IR ir, DataOutputStream out) throws IOException {
+        out.writeUTF(ir.getMethod().getSignature());
+        out.writeInt(ir.getVars().size());
+        for (Var var : ir.getVars()) {
+            out.writeUTF(var.getName());
+            out.writeUTF(var.getType().getName());
+        }
+        out.writeInt(ir.getStmts().size());
+        for (Stmt stmt : ir) {
+            out.writeInt(stmt.getLineNumber());
+            out.writeUTF(stmt.toString());
+        }
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        List<Stmt> nodes = new ArrayList<>(ir.getStmts());
+        nodes.add(cfg.getEntry());
+        nodes.add(cfg.getExit());
+        for (Stmt node : nodes) {
+            List<String> edges = new ArrayList<>();
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                edges.add(edge.getKind() + "->" + nodeId(cfg, edge.getTarget())
+                        + (edge.isSwitchCase() ? ":" + edge.getCaseValue() : "")
+                        + (edge.isExceptional() ? ":" + edge.getExceptions() : ""));
+            }
+            edges.sort(Comparator.naturalOrder());
+            out.writeInt(edges.size());
+            for (String edge : edges) {
+                out.writeUTF(edge);
+            }
+        }
+    }
+
+    private static String nodeId(CFG<Stmt> cfg, Stmt node) {
+        return cfg.isEntry(node) ? "entry" :
+                cfg.isExit(node) ? "exit" : Integer.toString(node.getIndex());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void writeResult(Object result, IR ir,
+            ResultCodec<T> codec, DataOutputStream out) throws IOException {
+        codec.write((T) result, ir, out);
+    }
+
+    /**
+     * Cache directory, which keeps track of the sizes of cached files
+     * in least-recently-used order. The order is persisted across runs
+     * by the last-modified time of the files.
+     * <p>
+     * A file is read and written only by the holder of its lock
+     * (see {@link #lock(String)}), and the monitor of the store only
+     * guards the bookkeeping of the files.
+     */
+    private static class Store {
+
+        private final File dir;
+
+        /**
+         * Map from names of cached files to their sizes, in access order.
+         */
+        private final LinkedHashMap<String, Long> files =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        private long size;
+
+        private long maxSize;
+
+        /**
+         * Locks of the files that are being processed.
+         */
+        private final ConcurrentMap<String, Object> locks =
+                new ConcurrentHashMap<>();
+
+        private Store(File dir) {
+            this.dir = dir;
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new UncheckedIOException(
+                        new IOException("Failed to create cache directory " + dir));
+            }
+            File[] cached = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+            if (cached != null) {
+                List<File> sorted = new ArrayList<>(List.of(cached));
+                sorted.sort(Comparator.comparingLong(File::lastModified));
+                for (File file : sorted) {
+                    files.put(file.getName(), file.length());
+                    size += file.length();
+                }
+            }
+            logger.info("Loaded result cache {} ({} results, {} KB)",
+                    dir, files.size(), size / 1024);
+        }
+
+        private void setMaxSize(long maxSize) {
+            List<String> evicted;
+            synchronized (this) {
+                this.maxSize = maxSize;
+                evicted = evict();
+            }
+            delete(evicted);
+        }
+
+        /**
+         * Returns the lock of the file of given name. Each call must be
+         * followed by {@link #unlock(String, Object)}.
+         */
+        private Object lock(String name) {
+            return locks.computeIfAbsent(name, n -> new Object());
+        }
+
+        private void unlock(String name, Object lock) {
+            // threads that are still waiting for the lock hold it by
+            // themselves, and late comers simply get a new lock and see
+            // the file which has been written
+            locks.remove(name, lock);
+        }
+
+        /**
+         * Reads the file of given name, which must be locked by the caller.
+         */
+        @Nullable
+        private <R> R read(String name, IR ir, ResultCodec<R> codec) {
+            synchronized (this) {
+                if (files.get(name) == null) { // also marks the file as accessed
+                    return null;
+                }
+            }
+            File file = new File(dir, name);
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Unknown format");
+                }
+                R result = codec.read(ir, in);
+                file.setLastModified(System.currentTimeMillis());
+                return result;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to read cached result of {} from {}: {}",
+                        ir.getMethod(), file, e.getMessage());
+                remove(name);
+                return null;
+            }
+        }
+
+        /**
+         * Writes the file of given name, which must be locked by the caller.
+         */
+        private <R> void write(String name, R result, IR ir, ResultCodec<R> codec) {
+            Path target = new File(dir, name).toPath();
+            try {
+                Path temp = Files.createTempFile(dir.toPath(), name, ".tmp");
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    codec.write(result, ir, out);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                long fileSize = Files.size(target);
+                List<String> evicted;
+                synchronized (this) {
+                    Long oldSize = files.put(name, fileSize);
+                    size += fileSize - (oldSize != null ? oldSize : 0);
+                    evicted = evict();
+                }
+                delete(evicted);
+            } catch (IOException e) {
+                logger.warn("Failed to cache result of {}: {}",
+                        ir.getMethod(), e.getMessage());
+            }
+        }
+
+        /**
+         * Removes least recently used files from the bookkeeping until
+         * the size of the cache does not exceed the bound. The files
+         * in use are skipped.
+         *
+         * @return names of the removed files, which should be deleted
+         * by the caller after releasing the monitor.
+         */
+        private List<String> evict() {
+            List<String> evicted = new ArrayList<>();
+            Iterator<Map.Entry<String, Long>> it = files.entrySet().iterator();
+            while (size > maxSize && it.hasNext()) {
+                Map.Entry<String, Long> entry = it.next();
+                if (!locks.containsKey(entry.getKey())) {
+                    it.remove();
+                    size -= entry.getValue();
+                    evicted.add(entry.getKey());
+                }
+            }
+            return evicted;
+        }
+
+        /**
+         * Removes the file of given name, which must be locked by the caller.
+         */
+        private void remove(String name) {
+            synchronized (this) {
+                Long fileSize = files.remove(name);
+                if (fileSize != null) {
+                    size -= fileSize;
+                }
+            }
+            new File(dir, name).delete();
+        }
+
+        private void delete(List<String> names) {
+            names.forEach(name -> new File(dir, name).delete());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.cache;
+
+import pascal.taie.ir.IR;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodes and decodes the analysis results of a method.
+ * Elements of the results are referred to by their indexes in the IR,
+ * thus the results must be decoded with an IR identical to
+ * the one they were encoded with.
+ *
+ * @param <R> type of the results
+ */
+public interface ResultCodec<R> {
+
+    /**
+     * Writes the result of given IR to out.
+     */
+    void write(R result, IR ir, DataOutput out) throws IOException;
+
+    /**
+     * Reads a result of given IR from in.
+     */
+    R read(IR ir, DataInput in) throws IOException;
+}
@@ -25,11 +25,12 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Metrics;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
-    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
-        super(analysis);
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis, Metrics metrics) {
+        super(analysis, metrics);
     }
 
     @Override
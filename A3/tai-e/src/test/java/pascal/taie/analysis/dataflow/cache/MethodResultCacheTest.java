@@ -0,0 +1,166 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+public class MethodResultCacheTest {
+
+    /**
+     * The tests use their own keys, thus the IR is never inspected.
+     */
+    private static final IR IR = (IR) Proxy.newProxyInstance(
+            IR.class.getClassLoader(), new Class<?>[]{ IR.class },
+            (proxy, method, args) -> null);
+
+    private static final ResultCodec<Integer> CODEC = new ResultCodec<>() {
+        @Override
+        public void write(Integer result, IR ir, DataOutput out)
+                throws IOException {
+            out.writeInt(result);
+        }
+
+        @Override
+        public Integer read(IR ir, DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    private File dir;
+
+    @Before
+    public void createCacheDir() throws IOException {
+        dir = Files.createTempDirectory("cache").toFile();
+    }
+
+    @After
+    public void deleteCacheDir() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    private MethodResultCache<Integer> makeCache() {
+        return MethodResultCache.make(
+                new AnalysisConfig("test", "cache", dir.getPath()), CODEC);
+    }
+
+    /**
+     * @return an analysis which returns given result and counts its runs.
+     */
+    private static Function<IR, Integer> analysis(int result, AtomicInteger runs) {
+        return ir -> {
+            runs.incrementAndGet();
+            return result;
+        };
+    }
+
+    @Test
+    public void testMiss() {
+        MethodResultCache<Integer> cache = makeCache();
+        AtomicInteger runs = new AtomicInteger();
+        assertEquals(1, (int) cache.computeIfAbsent("miss", IR, analysis(1, runs)));
+        assertEquals(1, runs.get());
+        assertEquals(1, cachedFiles().size());
+    }
+
+    @Test
+    public void testHit() {
+        AtomicInteger runs = new AtomicInteger();
+        makeCache().computeIfAbsent("hit", IR, analysis(1, runs));
+        // the result is reused even if the analysis would compute another one
+        MethodResultCache<Integer> cache = makeCache();
+        assertEquals(1, (int) cache.computeIfAbsent("hit", IR, analysis(2, runs)));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testInvalidation() {
+        AtomicInteger runs = new AtomicInteger();
+        MethodResultCache<Integer> cache = makeCache();
+        cache.computeIfAbsent("v1", IR, analysis(1, runs));
+        // changed method gets a new key, and the stale result is not reused
+        assertEquals(2, (int) cache.computeIfAbsent("v2", IR, analysis(2, runs)));
+        assertEquals(2, runs.get());
+        assertEquals(2, cachedFiles().size());
+    }
+
+    @Test
+    public void testCorruptedFile() throws IOException {
+        AtomicInteger runs = new AtomicInteger();
+        MethodResultCache<Integer> cache = makeCache();
+        cache.computeIfAbsent("corrupted", IR, analysis(1, runs));
+        File file = cachedFiles().get(0);
+        Files.write(file.toPath(), new byte[]{ 1, 2, 3 });
+        // the corrupted file is discarded and the result is recomputed
+        assertEquals(2, (int) cache.computeIfAbsent("corrupted", IR, analysis(2, runs)));
+        assertEquals(2, runs.get());
+        assertEquals(2, (int) cache.computeIfAbsent("corrupted", IR, analysis(3, runs)));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testConcurrentComputation() throws Exception {
+        MethodResultCache<Integer> cache = makeCache();
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> futures = executor.invokeAll(
+                    Collections.nCopies(32, () ->
+                            cache.computeIfAbsent("shared", IR, analysis(1, runs))));
+            for (Future<Integer> future : futures) {
+                assertEquals(1, (int) future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // the result of the same key is computed only once
+        assertEquals(1, runs.get());
+    }
+
+    private List<File> cachedFiles() {
+        return List.of(dir.listFiles((d, name) -> name.endsWith(".bin")));
+    }
+}
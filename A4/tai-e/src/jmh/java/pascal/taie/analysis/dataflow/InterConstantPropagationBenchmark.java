@@ -0,0 +1,85 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.Main;
+import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.config.AnalysisConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of inter-procedural constant propagation (solved by
+ * {@code InterSolver}) over the test programs and the synthetic programs
+ * with large CFGs. The world and the ICFG (over CHA call graph) are built
+ * once per trial, thus only the solving is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xss512m", "-Xmx4G"})
+public class InterConstantPropagationBenchmark {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    @Param({
+            "Example",
+            "Fibonacci",
+            "MultiIntArgs",
+            "Reference",
+            BenchmarkPrograms.DEEP_LOOPS,
+            BenchmarkPrograms.HUGE_SWITCH,
+    })
+    public String program;
+
+    private AnalysisConfig config;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String classPath = BenchmarkPrograms.getClassPath(program, CLASS_PATH);
+        Main.main(new String[]{"-pp", "-cp", classPath, "-m", program,
+                "-a", InterConstantPropagation.ID + "=edge-refine:false;alias-aware:false",
+                "-a", "cg=algorithm:cha"});
+        config = new AnalysisConfig(InterConstantPropagation.ID,
+                "edge-refine", false, "alias-aware", false);
+    }
+
+    @Benchmark
+    public Object solve() {
+        return new InterConstantPropagation(config).analyze();
+    }
+}
@@ -26,6 +26,7 @@ import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.Metrics;
 import pascal.taie.util.collection.SetQueue;
 
 import java.util.LinkedList;
@@ -48,16 +49,33 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    private final Metrics metrics;
+
+    private final Metrics.Counter workListPops;
+
+    private final Metrics.Counter changedNodes;
+
+    private final Metrics.PhaseTimer transferNodeTimer;
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
-                ICFG<Method, Node> icfg) {
+                ICFG<Method, Node> icfg, Metrics metrics) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.metrics = metrics;
+        workListPops = metrics.counter("worklist-pops");
+        changedNodes = metrics.counter("changed-nodes");
+        transferNodeTimer = metrics.timer("transfer-node");
     }
 
     DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
-        initialize();
-        doSolve();
+        try (var ignored = metrics.timer("initialize").start()) {
+            initialize();
+        }
+        try (var ignored = metrics.timer("solve").start()) {
+            doSolve();
+        }
+        metrics.dump();
         return result;
     }
 
@@ -80,12 +98,18 @@ class InterSolver<Method, Node, Fact> {
         Queue<Node> workList = new LinkedList<>(icfg.getNodes());
         while(!workList.isEmpty()){
             Node node = workList.remove();
+            workListPops.increase();
             CPFact in = new CPFact();
             CPFact out = (CPFact) result.getOutFact(node);
             for(ICFGEdge<Node> edge : icfg.getInEdgesOf(node)){
                 analysis.meetInto(analysis.transferEdge(edge, result.getOutFact(edge.getSource())), (Fact) in);
             }
-            if(analysis.transferNode(node, (Fact) in, (Fact) out)){
+            boolean changed;
+            try (var ignored = transferNodeTimer.start()) {
+                changed = analysis.transferNode(node, (Fact) in, (Fact) out);
+            }
+            if(changed){
+                changedNodes.increase();
                 icfg.getSuccsOf(node).forEach(workList::offer);
             }
             result.setInFact(node, (Fact) in);
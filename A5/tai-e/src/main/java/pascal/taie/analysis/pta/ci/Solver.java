@@ -45,6 +45,7 @@ import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Metrics;
 import pascal.taie.language.type.Type;
 
 import java.util.List;
@@ -65,16 +66,26 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    private final Metrics metrics;
+
+    Solver(HeapModel heapModel, Metrics metrics) {
         this.heapModel = heapModel;
+        this.metrics = metrics;
     }
 
     /**
      * Runs pointer analysis algorithm.
      */
     void solve() {
-        initialize();
-        analyze();
+        try (var ignored = metrics.timer("initialize").start()) {
+            initialize();
+        }
+        try (var ignored = metrics.timer("analyze").start()) {
+            analyze();
+        }
+        metrics.counter("reachable-methods").add(callGraph.getNumberOfMethods());
+        metrics.counter("call-edges").add(callGraph.getNumberOfEdges());
+        metrics.dump();
     }
 
     /**
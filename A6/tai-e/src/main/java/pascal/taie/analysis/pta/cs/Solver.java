@@ -55,6 +55,7 @@ import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.Metrics;
 
 class Solver {
 
@@ -76,16 +77,49 @@ class Solver {
 
     private PointerAnalysisResult result;
 
+    private final Metrics metrics;
+
+    private final Metrics.Counter workListPops;
+
+    private final Metrics.Counter objectsPropagated;
+
+    private final Metrics.Counter pfgEdges;
+
+    private final Metrics.Counter callEdges;
+
+    private final Metrics.Counter csMethods;
+
+    private final Metrics.PhaseTimer propagateTimer;
+
+    private final Metrics.PhaseTimer processCallTimer;
+
+    private final Metrics.PhaseTimer addReachableTimer;
+
+    private final Metrics.PhaseTimer contextTimer;
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
+        metrics = Metrics.of(CSPTA.ID, options);
+        workListPops = metrics.counter("worklist-pops");
+        objectsPropagated = metrics.counter("objects-propagated");
+        pfgEdges = metrics.counter("pfg-edges");
+        callEdges = metrics.counter("call-edges");
+        csMethods = metrics.counter("cs-methods");
+        propagateTimer = metrics.timer("propagate");
+        processCallTimer = metrics.timer("process-call");
+        addReachableTimer = metrics.timer("add-reachable");
+        contextTimer = metrics.timer("context-selection");
     }
 
     void solve() {
-        initialize();
-        analyze();
+        try (var ignored = metrics.timer("solve").start()) {
+            initialize();
+            analyze();
+        }
+        metrics.dump();
     }
 
     private void initialize() {
@@ -106,9 +140,13 @@ class Solver {
         while (!workList.isEmpty()) {
             // pick top task and propagate
             var entry = workList.pollEntry();
+            workListPops.increase();
             var pointer = entry.pointer();
             var pts = entry.pointsToSet();
-            var delta = propagate(pointer, pts);
+            PointsToSet delta;
+            try (var ignored = propagateTimer.start()) {
+                delta = propagate(pointer, pts);
+            }
 
             // if pointer is var then process it
             if (!(pointer instanceof  CSVar)) continue;
@@ -139,7 +177,9 @@ class Solver {
                             csManager.getArrayIndex(csobj)
                     );
                 }
-                processCall((CSVar)pointer, csobj);
+                try (var ignored = processCallTimer.start()) {
+                    processCall((CSVar)pointer, csobj);
+                }
             }
         }
     }
@@ -152,13 +192,16 @@ class Solver {
         if (callGraph.contains(csMethod)) {
             return;
         }
-        callGraph.addReachableMethod(csMethod);
-
-        // process statements in new method, e.g. new and copy
-        var processor = new StmtProcessor(csMethod);
-        csMethod.getMethod().getIR().getStmts().forEach(stmt -> {
-            stmt.accept(processor);
-        });
+        try (var ignored = addReachableTimer.start()) {
+            callGraph.addReachableMethod(csMethod);
+            csMethods.increase();
+
+            // process statements in new method, e.g. new and copy
+            var processor = new StmtProcessor(csMethod);
+            csMethod.getMethod().getIR().getStmts().forEach(stmt -> {
+                stmt.accept(processor);
+            });
+        }
     }
 
     /**
@@ -183,9 +226,13 @@ class Solver {
             }
             JMethod method = resolveCallee(null, stmt);
             CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
-            Context ct = contextSelector.selectContext(csCallSite, method);
+            Context ct;
+            try (var ignored = contextTimer.start()) {
+                ct = contextSelector.selectContext(csCallSite, method);
+            }
             CSMethod tarMethod = csManager.getCSMethod(ct, method);
             if (callGraph.addEdge(new Edge<>(CallKind.STATIC, csCallSite, tarMethod))) {
+                callEdges.increase();
                 addReachable(tarMethod);
                 for (int i = 0; i < method.getParamCount(); i++) {
                     CSVar param = csManager.getCSVar(context, stmt.getRValue().getArg(i));
@@ -207,7 +254,10 @@ class Solver {
         public Void visit(New stmt) {
             CSVar csVar = csManager.getCSVar(context, stmt.getLValue());
             Obj obj = heapModel.getObj(stmt);
-            Context heapContext = contextSelector.selectHeapContext(csMethod, obj);
+            Context heapContext;
+            try (var ignored = contextTimer.start()) {
+                heapContext = contextSelector.selectHeapContext(csMethod, obj);
+            }
             var csObj = csManager.getCSObj(heapContext, obj);
             var pts = PointsToSetFactory.make(csObj);
             workList.addEntry(csVar, pts);
@@ -252,9 +302,11 @@ class Solver {
      */
     private void addPFGEdge(Pointer source, Pointer target) {
         if (pointerFlowGraph.getSuccsOf(source).contains(target)) return ;
-        if (pointerFlowGraph.addEdge(source, target)
-                && !source.getPointsToSet().isEmpty()) {
-            workList.addEntry(target, source.getPointsToSet());
+        if (pointerFlowGraph.addEdge(source, target)) {
+            pfgEdges.increase();
+            if (!source.getPointsToSet().isEmpty()) {
+                workList.addEntry(target, source.getPointsToSet());
+            }
         }
     }
 
@@ -269,6 +321,7 @@ class Solver {
                 .filter(csObj -> !pointer.getPointsToSet().contains(csObj))
                 .forEach(delta::addObject);
         if (!delta.isEmpty()) {
+            objectsPropagated.add(delta.size());
             pointer.getPointsToSet().addAll(delta);
             pointerFlowGraph.getSuccsOf(pointer).forEach(suc -> {
                 workList.addEntry(suc, delta);
@@ -288,7 +341,10 @@ class Solver {
             // Generate context for target method
             JMethod method = resolveCallee(recvObj, invoke);
             CSCallSite csCallSite = csManager.getCSCallSite(recv.getContext(), invoke);
-            Context ct = contextSelector.selectContext(csCallSite, recvObj, method);
+            Context ct;
+            try (var ignored = contextTimer.start()) {
+                ct = contextSelector.selectContext(csCallSite, recvObj, method);
+            }
 
             // Get this pointer of context method
             CSMethod targetMethod = csManager.getCSMethod(ct, method);
@@ -298,6 +354,7 @@ class Solver {
             workList.addEntry(thisPointer, PointsToSetFactory.make(recvObj));
             Edge<CSCallSite, CSMethod> edge = getCsCallSiteCSMethodEdge(invoke, csCallSite, targetMethod);
             if (callGraph.addEdge(edge)) {
+                callEdges.increase();
                 addReachable(targetMethod);
                 // add edges from actual params to ref params
                 for (int i = 0; i < method.getParamCount(); i++) {
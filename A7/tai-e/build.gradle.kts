@@ -13,6 +13,17 @@ dependencies {
     testImplementation("junit:junit:4.13")
 }
 
+sourceSets {
+    main {
+        // sources shared by several assignments
+        java.srcDir("../../common/pta/src/main/java")
+        java.srcDir("../../common/util/src/main/java")
+    }
+    test {
+        java.srcDir("../../common/util/src/test/java")
+    }
+}
+
 application {
     mainClass.set("pascal.taie.Assignment")
 }
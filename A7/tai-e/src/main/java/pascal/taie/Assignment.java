@@ -22,6 +22,8 @@
 
 package pascal.taie;
 
+import pascal.taie.analysis.PlanRunner;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -36,7 +38,7 @@ public class Assignment {
             List<String> argList = new ArrayList<>();
             Collections.addAll(argList, "-pp", "-p", "plan.yml");
             Collections.addAll(argList, args);
-            Main.main(argList.toArray(new String[0]));
+            PlanRunner.main(argList.toArray(new String[0]));
         } else {
             System.out.println("Usage: -cp <CLASS_PATH> -m <CLASS_NAME>");
         }
@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import pascal.taie.Main;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisPlanner;
+import pascal.taie.config.ConfigManager;
+import pascal.taie.config.Configs;
+import pascal.taie.config.Options;
+import pascal.taie.config.PlanConfig;
+import pascal.taie.util.Timer;
+
+import java.util.List;
+
+/**
+ * Executes an analysis plan by {@link AnalysisManager}, recording
+ * an {@link AnalysisEvent} for each analysis in the plan.
+ */
+public class PlanRunner {
+
+    private final AnalysisManager manager = new AnalysisManager();
+
+    /**
+     * Counterpart of {@link Main#main(String...)}, which executes
+     * the analysis plan by a {@link PlanRunner}.
+     */
+    public static void main(String... args) {
+        Options options = Options.parse(args);
+        List<AnalysisConfig> plan = options.isPrintHelp() || options.isOnlyGenPlan() ?
+                List.of() : makePlan(options);
+        if (plan.isEmpty()) {
+            // let Main print help, generate the plan or report
+            // that no analyses are given
+            Main.main(args);
+            return;
+        }
+        Timer.runAndCount(() -> {
+            Main.buildWorld(args);
+            new PlanRunner().execute(plan);
+        }, "Tai-e");
+    }
+
+    /**
+     * Makes the analysis plan given by the options, as {@link Main} does.
+     */
+    private static List<AnalysisConfig> makePlan(Options options) {
+        ConfigManager configManager = new ConfigManager(
+                AnalysisConfig.parseConfigs(Configs.getAnalysisConfig()));
+        AnalysisPlanner planner = new AnalysisPlanner(configManager);
+        boolean reachableScope = options.getScope().equals("reachable");
+        if (!options.getAnalyses().isEmpty()) {
+            List<PlanConfig> planConfigs = PlanConfig.readConfigs(options);
+            configManager.overwriteOptions(planConfigs);
+            return planner.expandPlan(planConfigs, reachableScope);
+        } else if (options.getPlanFile() != null) {
+            List<PlanConfig> planConfigs = PlanConfig.readConfigs(options.getPlanFile());
+            configManager.overwriteOptions(planConfigs);
+            return planner.makePlan(planConfigs, reachableScope);
+        } else {
+            return List.of();
+        }
+    }
+
+    public void execute(List<AnalysisConfig> plan) {
+        plan.forEach(this::runAnalysis);
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        AnalysisEvent event = new AnalysisEvent(config.getId());
+        event.begin();
+        try {
+            manager.execute(List.of(config));
+        } finally {
+            event.commit();
+        }
+    }
+}
@@ -79,13 +79,9 @@ public class InterConstantPropagation extends
         aliasCollection = new HashMap<>();
         fields = new HashMap<>();
         staticLoadFields = new HashMap<>();
-        for (var obj : pta.getObjects()) {
-            for (Var var : pta.getVars()) {
-                if (pta.getPointsToSet(var).contains(obj)) {
-                    Set<Var> vars = aliasCollection.getOrDefault(obj, new HashSet<>());
-                    vars.add(var);
-                    aliasCollection.put(obj, vars);
-                }
+        for (Var var : pta.getVars()) {
+            for (Obj obj : pta.getPointsToSet(var)) {
+                aliasCollection.computeIfAbsent(obj, o -> new HashSet<>()).add(var);
             }
         }
         for (var stmt : icfg) {
@@ -26,6 +26,7 @@ import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Metrics;
 import pascal.taie.util.collection.SetQueue;
 
 import java.util.LinkedList;
@@ -48,16 +49,33 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    private final Metrics metrics;
+
+    private final Metrics.Counter workListPops;
+
+    private final Metrics.Counter changedNodes;
+
+    private final Metrics.PhaseTimer transferNodeTimer;
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
-                ICFG<Method, Node> icfg) {
+                ICFG<Method, Node> icfg, Metrics metrics) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.metrics = metrics;
+        workListPops = metrics.counter("worklist-pops");
+        changedNodes = metrics.counter("changed-nodes");
+        transferNodeTimer = metrics.timer("transfer-node");
     }
 
     DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
-        initialize();
-        doSolve();
+        try (var ignored = metrics.timer("initialize").start()) {
+            initialize();
+        }
+        try (var ignored = metrics.timer("solve").start()) {
+            doSolve();
+        }
+        metrics.dump();
         return result;
     }
 
@@ -83,6 +101,7 @@ class InterSolver<Method, Node, Fact> {
         if (!(analysis instanceof InterConstantPropagation constantAnalysis)) return;
         while (!workList.isEmpty()) {
             Node node = workList.poll();
+            workListPops.increase();
             CPFact in = (CPFact) result.getInFact(node);
             icfg.getInEdgesOf(node).forEach(edge -> {
                 constantAnalysis.meetInto(
@@ -91,7 +110,12 @@ class InterSolver<Method, Node, Fact> {
             });
             constantAnalysis.processStoreField((Stmt) node, in);
             constantAnalysis.processStoreArray((Stmt) node, in);
-            if(analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) {
+            boolean changed;
+            try (var ignored = transferNodeTimer.start()) {
+                changed = analysis.transferNode(node, result.getInFact(node), result.getOutFact(node));
+            }
+            if (changed) {
+                changedNodes.increase();
                 icfg.getSuccsOf(node).forEach(workList::offer);
             }
         }
@@ -0,0 +1,632 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.ConstantObj;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MergedObj;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads and writes pointer analysis results in a versioned binary format,
+ * so that later analyses and runs on the same program can reuse
+ * the results without re-running pointer analysis.
+ * <p>
+ * The file contains the context-sensitive call graph and the points-to
+ * sets of all context-sensitive variables, static fields, instance fields
+ * and array indexes. Program elements are referred to by their signatures
+ * and IR indexes, so the result must be read on the same program as it
+ * was written. Abstract objects are recovered through a heap model with
+ * the same merge options: allocated objects by their allocation sites,
+ * constant objects by their values, and merged objects by any object they
+ * represent. Mock objects are re-created from their description,
+ * allocation, type and container method.
+ * Each element is written in full on its first occurrence and by index
+ * afterwards.
+ */
+public class PointerAnalysisResultIO {
+
+    private static final int MAGIC = 0x54414950; // "TAIP"
+
+    /**
+     * Version of the format, which should be increased whenever
+     * the format changes.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * Options of heap model, which determine the abstract objects.
+     */
+    private static final List<String> HEAP_OPTIONS = List.of(
+            "merge-string-constants", "merge-string-objects",
+            "merge-string-builders", "merge-exception-objects");
+
+    /**
+     * Marks the first occurrence of an element.
+     */
+    private static final int NEW_ELEMENT = -1;
+
+    private static final byte CALL_SITE_ELEMENT = 0;
+
+    private static final byte OBJ_ELEMENT = 1;
+
+    private static final byte TYPE_ELEMENT = 2;
+
+    // kinds of abstract objects
+
+    private static final byte NEW_OBJ = 0;
+
+    private static final byte MERGED_OBJ = 1;
+
+    private static final byte CONSTANT_OBJ = 2;
+
+    private static final byte MOCK_OBJ = 3;
+
+    // kinds of constant values
+
+    private static final byte STRING_CONSTANT = 0;
+
+    private static final byte CLASS_CONSTANT = 1;
+
+    private static final byte METHOD_TYPE_CONSTANT = 2;
+
+    // kinds of the allocations of mock objects
+
+    private static final byte NULL_ALLOC = 0;
+
+    private static final byte STRING_ALLOC = 1;
+
+    private static final byte TYPE_ALLOC = 2;
+
+    private static final byte METHOD_ALLOC = 3;
+
+    private static final byte CALL_SITE_ALLOC = 4;
+
+    private static final byte OBJ_ALLOC = 5;
+
+    private PointerAnalysisResultIO() {
+    }
+
+    /**
+     * Writes the pointer analysis result to given file.
+     *
+     * @param options the options of the pointer analysis
+     */
+    public static void write(PointerAnalysisResult result,
+                             AnalysisOptions options, File file) {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            new Writer(out, result).write(options);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a pointer analysis result of the current world from given file.
+     */
+    public static PointerAnalysisResult read(File file) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            return new Reader(in).read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Writer {
+
+        private final DataOutputStream out;
+
+        private final PointerAnalysisResult result;
+
+        private final Map<Object, Integer> indexes = Maps.newMap();
+
+        private Writer(DataOutputStream out, PointerAnalysisResult result) {
+            this.out = out;
+            this.result = result;
+        }
+
+        private void write(AnalysisOptions options) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (String option : HEAP_OPTIONS) {
+                out.writeBoolean(options.getBoolean(option));
+            }
+            out.writeUTF(World.get().getMainMethod().getSignature());
+            // call graph
+            CallGraph<CSCallSite, CSMethod> callGraph = result.getCSCallGraph();
+            writeAll(callGraph.entryMethods().toList(), this::writeCSMethod);
+            writeAll(callGraph.reachableMethods().toList(), this::writeCSMethod);
+            writeAll(callGraph.edges().toList(), edge -> {
+                out.writeByte(edge.getKind().ordinal());
+                writeCSCallSite(edge.getCallSite());
+                writeCSMethod(edge.getCallee());
+            });
+            // points-to sets
+            writeAll(result.getCSVars(), csVar -> {
+                writeContext(csVar.getContext());
+                writeVar(csVar.getVar());
+                writePointsToSet(csVar);
+            });
+            writeAll(result.getStaticFields(), staticField -> {
+                writeField(staticField.getField());
+                writePointsToSet(staticField);
+            });
+            writeAll(result.getInstanceFields(), instanceField -> {
+                writeCSObj(instanceField.getBase());
+                writeField(instanceField.getField());
+                writePointsToSet(instanceField);
+            });
+            writeAll(result.getArrayIndexes(), arrayIndex -> {
+                writeCSObj(arrayIndex.getArray());
+                writePointsToSet(arrayIndex);
+            });
+        }
+
+        private <T> void writeAll(Collection<T> elements,
+                                  ElementWriter<T> writer) throws IOException {
+            out.writeInt(elements.size());
+            for (T element : elements) {
+                writer.write(element);
+            }
+        }
+
+        private void writePointsToSet(Pointer pointer) throws IOException {
+            writeAll(pointer.getPointsToSet().getObjects(), this::writeCSObj);
+        }
+
+        /**
+         * Writes the index of given element if it has been written,
+         * otherwise writes the element by given writer.
+         */
+        private <T> void writeRef(T element, ElementWriter<T> writer)
+                throws IOException {
+            Integer index = indexes.get(element);
+            if (index != null) {
+                out.writeInt(index);
+            } else {
+                out.writeInt(NEW_ELEMENT);
+                writer.write(element);
+                indexes.put(element, indexes.size());
+            }
+        }
+
+        private void writeMethod(JMethod method) throws IOException {
+            writeRef(method, m -> out.writeUTF(m.getSignature()));
+        }
+
+        private void writeField(JField field) throws IOException {
+            writeRef(field, f -> out.writeUTF(f.getSignature()));
+        }
+
+        private void writeType(Type type) throws IOException {
+            writeRef(type, t -> out.writeUTF(t.getName()));
+        }
+
+        private void writeVar(Var var) throws IOException {
+            writeMethod(var.getMethod());
+            out.writeInt(var.getIndex());
+        }
+
+        private void writeInvoke(Invoke invoke) throws IOException {
+            writeMethod(invoke.getContainer());
+            out.writeInt(invoke.getIndex());
+        }
+
+        private void writeObj(Obj obj) throws IOException {
+            writeRef(obj, o -> {
+                if (o instanceof NewObj newObj) {
+                    out.writeByte(NEW_OBJ);
+                    New allocSite = newObj.getAllocation();
+                    writeMethod(allocSite.getContainer());
+                    out.writeInt(allocSite.getIndex());
+                } else if (o instanceof MergedObj mergedObj) {
+                    // the heap model maps each represented object
+                    // to the merged object
+                    out.writeByte(MERGED_OBJ);
+                    Obj represented = mergedObj.getAllocation()
+                            .stream()
+                            .findFirst()
+                            .orElseThrow(() -> new AnalysisException(
+                                    "Merged object represents no objects: " + o));
+                    writeObj(represented);
+                } else if (o instanceof ConstantObj constantObj) {
+                    out.writeByte(CONSTANT_OBJ);
+                    writeConstant(constantObj.getAllocation());
+                } else if (o instanceof MockObj mockObj) {
+                    out.writeByte(MOCK_OBJ);
+                    out.writeUTF(mockObj.getDescription());
+                    writeAllocation(mockObj.getAllocation());
+                    writeType(mockObj.getType());
+                    JMethod container = mockObj.getContainerMethod().orElse(null);
+                    out.writeBoolean(container != null);
+                    if (container != null) {
+                        writeMethod(container);
+                    }
+                } else {
+                    throw new AnalysisException("Unsupported object: " + o +
+                            " (" + o.getClass().getName() + ")");
+                }
+            });
+        }
+
+        private void writeConstant(ReferenceLiteral value) throws IOException {
+            if (value instanceof StringLiteral string) {
+                out.writeByte(STRING_CONSTANT);
+                out.writeUTF(string.getString());
+            } else if (value instanceof ClassLiteral klass) {
+                out.writeByte(CLASS_CONSTANT);
+                writeType(klass.getTypeValue());
+            } else if (value instanceof MethodType methodType) {
+                out.writeByte(METHOD_TYPE_CONSTANT);
+                writeAll(methodType.getParamTypes(), this::writeType);
+                writeType(methodType.getReturnType());
+            } else {
+                throw new AnalysisException("Unsupported constant: " + value);
+            }
+        }
+
+        private void writeAllocation(Object alloc) throws IOException {
+            if (alloc == null) {
+                out.writeByte(NULL_ALLOC);
+            } else if (alloc instanceof String string) {
+                out.writeByte(STRING_ALLOC);
+                out.writeUTF(string);
+            } else if (alloc instanceof Type type) {
+                out.writeByte(TYPE_ALLOC);
+                writeType(type);
+            } else if (alloc instanceof JMethod method) {
+                out.writeByte(METHOD_ALLOC);
+                writeMethod(method);
+            } else if (alloc instanceof Invoke invoke) {
+                out.writeByte(CALL_SITE_ALLOC);
+                writeInvoke(invoke);
+            } else if (alloc instanceof Obj obj) {
+                out.writeByte(OBJ_ALLOC);
+                writeObj(obj);
+            } else {
+                throw new AnalysisException("Unsupported allocation of mock object: " +
+                        alloc + " (" + alloc.getClass().getName() + ")");
+            }
+        }
+
+        private void writeContext(Context context) throws IOException {
+            writeRef(context, ctx -> {
+                out.writeInt(ctx.getLength());
+                for (int i = 0; i < ctx.getLength(); ++i) {
+                    Object elem = ctx.getElementAt(i);
+                    if (elem instanceof Invoke invoke) {
+                        out.writeByte(CALL_SITE_ELEMENT);
+                        writeInvoke(invoke);
+                    } else if (elem instanceof Obj obj) {
+                        out.writeByte(OBJ_ELEMENT);
+                        writeObj(obj);
+                    } else if (elem instanceof Type type) {
+                        out.writeByte(TYPE_ELEMENT);
+                        writeType(type);
+                    } else {
+                        throw new AnalysisException(
+                                "Unsupported context element: " + elem);
+                    }
+                }
+            });
+        }
+
+        private void writeCSObj(CSObj csObj) throws IOException {
+            writeRef(csObj, o -> {
+                writeContext(o.getContext());
+                writeObj(o.getObject());
+            });
+        }
+
+        private void writeCSMethod(CSMethod csMethod) throws IOException {
+            writeRef(csMethod, m -> {
+                writeContext(m.getContext());
+                writeMethod(m.getMethod());
+            });
+        }
+
+        private void writeCSCallSite(CSCallSite csCallSite) throws IOException {
+            writeContext(csCallSite.getContext());
+            writeInvoke(csCallSite.getCallSite());
+        }
+    }
+
+    private static class Reader {
+
+        private final DataInputStream in;
+
+        private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+        private final CSManager csManager = new MapBasedCSManager();
+
+        private final List<Object> elements = new ArrayList<>();
+
+        private HeapModel heapModel;
+
+        private Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        private PointerAnalysisResult read() throws IOException {
+            if (in.readInt() != MAGIC) {
+                throw new AnalysisException("Not a pointer analysis result file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new AnalysisException("Unsupported version of pointer " +
+                        "analysis result: " + version + ", expected: " + VERSION);
+            }
+            Map<String, Object> options = Maps.newMap();
+            for (String option : HEAP_OPTIONS) {
+                options.put(option, in.readBoolean());
+            }
+            heapModel = new AllocationSiteBasedModel(new AnalysisOptions(options));
+            String main = in.readUTF();
+            if (!main.equals(World.get().getMainMethod().getSignature())) {
+                throw new AnalysisException("Pointer analysis result of " + main +
+                        " does not match current program");
+            }
+            // call graph
+            CSCallGraph callGraph = new CSCallGraph(csManager);
+            readAll(() -> callGraph.addEntryMethod(readCSMethod()));
+            readAll(() -> callGraph.addReachableMethod(readCSMethod()));
+            CallKind[] kinds = CallKind.values();
+            readAll(() -> {
+                CallKind kind = kinds[in.readByte()];
+                callGraph.addEdge(new Edge<>(kind, readCSCallSite(), readCSMethod()));
+            });
+            // points-to sets
+            readAll(() -> {
+                Context context = readContext();
+                readPointsToSet(csManager.getCSVar(context, readVar()));
+            });
+            readAll(() -> readPointsToSet(csManager.getStaticField(readField())));
+            readAll(() -> {
+                CSObj base = readCSObj();
+                readPointsToSet(csManager.getInstanceField(base, readField()));
+            });
+            readAll(() -> readPointsToSet(csManager.getArrayIndex(readCSObj())));
+            return new CachedPointerAnalysisResult(csManager, callGraph);
+        }
+
+        private void readAll(ElementReader reader) throws IOException {
+            int size = in.readInt();
+            for (int i = 0; i < size; ++i) {
+                reader.read();
+            }
+        }
+
+        private void readPointsToSet(Pointer pointer) throws IOException {
+            PointsToSet pts = pointer.getPointsToSet();
+            readAll(() -> pts.addObject(readCSObj()));
+        }
+
+        /**
+         * Reads an element written by {@link Writer#writeRef}.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> T readRef(ElementFactory<T> factory) throws IOException {
+            int index = in.readInt();
+            if (index == NEW_ELEMENT) {
+                T element = factory.read();
+                elements.add(element);
+                return element;
+            } else {
+                return (T) elements.get(index);
+            }
+        }
+
+        private JMethod readMethod() throws IOException {
+            return readRef(() -> resolve(in.readUTF(), hierarchy::getMethod));
+        }
+
+        private JField readField() throws IOException {
+            return readRef(() -> resolve(in.readUTF(), hierarchy::getField));
+        }
+
+        private Type readType() throws IOException {
+            return readRef(() -> resolve(in.readUTF(),
+                    World.get().getTypeSystem()::getType));
+        }
+
+        private static <T> T resolve(String signature, Function<String, T> resolver) {
+            T element = resolver.apply(signature);
+            if (element == null) {
+                throw new AnalysisException("Cannot find " + signature);
+            }
+            return element;
+        }
+
+        private Var readVar() throws IOException {
+            JMethod method = readMethod();
+            return method.getIR().getVar(in.readInt());
+        }
+
+        private Invoke readInvoke() throws IOException {
+            JMethod method = readMethod();
+            return (Invoke) method.getIR().getStmt(in.readInt());
+        }
+
+        private Obj readObj() throws IOException {
+            return readRef(() -> {
+                byte kind = in.readByte();
+                return switch (kind) {
+                    case NEW_OBJ -> {
+                        JMethod method = readMethod();
+                        yield heapModel.getObj((New) method.getIR().getStmt(in.readInt()));
+                    }
+                    case MERGED_OBJ -> {
+                        Obj obj = readObj();
+                        if (!(obj instanceof MergedObj)) {
+                            throw new AnalysisException("Expected merged object, " +
+                                    "but heap model gives " + obj);
+                        }
+                        yield obj;
+                    }
+                    case CONSTANT_OBJ -> heapModel.getConstantObj(readConstant());
+                    case MOCK_OBJ -> {
+                        String desc = in.readUTF();
+                        Object alloc = readAllocation();
+                        Type type = readType();
+                        JMethod container = in.readBoolean() ? readMethod() : null;
+                        yield new MockObj(desc, alloc, type, container);
+                    }
+                    default -> throw new AnalysisException(
+                            "Unknown kind of object: " + kind);
+                };
+            });
+        }
+
+        private ReferenceLiteral readConstant() throws IOException {
+            byte kind = in.readByte();
+            return switch (kind) {
+                case STRING_CONSTANT -> StringLiteral.get(in.readUTF());
+                case CLASS_CONSTANT -> ClassLiteral.get(readType());
+                case METHOD_TYPE_CONSTANT -> {
+                    List<Type> paramTypes = new ArrayList<>();
+                    readAll(() -> paramTypes.add(readType()));
+                    yield MethodType.get(paramTypes, readType());
+                }
+                default -> throw new AnalysisException(
+                        "Unknown kind of constant: " + kind);
+            };
+        }
+
+        private Object readAllocation() throws IOException {
+            byte kind = in.readByte();
+            return switch (kind) {
+                case NULL_ALLOC -> null;
+                case STRING_ALLOC -> in.readUTF();
+                case TYPE_ALLOC -> readType();
+                case METHOD_ALLOC -> readMethod();
+                case CALL_SITE_ALLOC -> readInvoke();
+                case OBJ_ALLOC -> readObj();
+                default -> throw new AnalysisException(
+                        "Unknown kind of allocation: " + kind);
+            };
+        }
+
+        private Context readContext() throws IOException {
+            return readRef(() -> {
+                Object[] elems = new Object[in.readInt()];
+                for (int i = 0; i < elems.length; ++i) {
+                    byte kind = in.readByte();
+                    elems[i] = switch (kind) {
+                        case CALL_SITE_ELEMENT -> readInvoke();
+                        case OBJ_ELEMENT -> readObj();
+                        case TYPE_ELEMENT -> readType();
+                        default -> throw new AnalysisException(
+                                "Unknown kind of context element: " + kind);
+                    };
+                }
+                return ListContext.make(elems);
+            });
+        }
+
+        private CSObj readCSObj() throws IOException {
+            return readRef(() -> {
+                Context context = readContext();
+                return csManager.getCSObj(context, readObj());
+            });
+        }
+
+        private CSMethod readCSMethod() throws IOException {
+            return readRef(() -> {
+                Context context = readContext();
+                return csManager.getCSMethod(context, readMethod());
+            });
+        }
+
+        private CSCallSite readCSCallSite() throws IOException {
+            Context context = readContext();
+            return csManager.getCSCallSite(context, readInvoke());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ElementWriter<T> {
+        void write(T element) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementReader {
+        void read() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementFactory<T> {
+        T read() throws IOException;
+    }
+}
@@ -31,10 +31,14 @@ import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -45,6 +49,17 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     private final CSManager csManager;
 
+    /**
+     * All call edges in this call graph, in the order they are added.
+     */
+    private final List<Edge<CSCallSite, CSMethod>> edges = new ArrayList<>();
+
+    /**
+     * Call sites in the reachable methods, which are computed once
+     * when the methods become reachable.
+     */
+    private final Map<CSMethod, Set<CSCallSite>> callSitesInMethods = Maps.newMap();
+
     public CSCallGraph(CSManager csManager) {
         this.csManager = csManager;
     }
@@ -64,8 +79,9 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
      */
     public boolean addReachableMethod(CSMethod csMethod) {
         if (reachableMethods.add(csMethod)) {
-            callSitesIn(csMethod).forEach(csCallSite ->
-                    csCallSite.setContainer(csMethod));
+            Set<CSCallSite> callSites = computeCallSitesIn(csMethod);
+            callSitesInMethods.put(csMethod, callSites);
+            callSites.forEach(csCallSite -> csCallSite.setContainer(csMethod));
             return true;
         } else {
             return false;
@@ -82,6 +98,7 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
     public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
         if (edge.getCallSite().addEdge(edge)) {
             edge.getCallee().addEdge(edge);
+            edges.add(edge);
             return true;
         } else {
             return false;
@@ -105,6 +122,12 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     @Override
     public Set<CSCallSite> getCallSitesIn(CSMethod csMethod) {
+        Set<CSCallSite> callSites = callSitesInMethods.get(csMethod);
+        return Collections.unmodifiableSet(callSites != null
+                ? callSites : computeCallSitesIn(csMethod));
+    }
+
+    private Set<CSCallSite> computeCallSitesIn(CSMethod csMethod) {
         JMethod method = csMethod.getMethod();
         Context context = csMethod.getContext();
         Set<CSCallSite> callSites = Sets.newHybridOrderedSet();
@@ -114,7 +137,7 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
                 callSites.add(csCallSite);
             }
         }
-        return Collections.unmodifiableSet(callSites);
+        return callSites;
     }
 
     @Override
@@ -129,9 +152,12 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     @Override
     public Stream<Edge<CSCallSite, CSMethod>> edges() {
-        return reachableMethods.stream()
-                .flatMap(this::callSitesIn)
-                .flatMap(this::edgesOutOf);
+        return edges.stream();
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edges.size();
     }
 
     @Override
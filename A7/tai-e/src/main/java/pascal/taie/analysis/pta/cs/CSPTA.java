@@ -24,6 +24,7 @@ package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.PointerAnalysisResultIO;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
@@ -33,6 +34,7 @@ import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
 import pascal.taie.util.Strings;
 
+import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
@@ -50,11 +52,21 @@ public class CSPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
-        solver.solve();
-        PointerAnalysisResult result = solver.getResult();
+        PointerAnalysisResult result;
+        String loadFile = options.getString("load-result");
+        if (loadFile != null) {
+            result = PointerAnalysisResultIO.read(new File(loadFile));
+        } else {
+            Solver solver = new Solver(options,
+                    new AllocationSiteBasedModel(options),
+                    getContextSelector(options.getString("cs")));
+            solver.solve();
+            result = solver.getResult();
+            String saveFile = options.getString("save-result");
+            if (saveFile != null) {
+                PointerAnalysisResultIO.write(result, options, new File(saveFile));
+            }
+        }
         ResultProcessor.process(options, result);
         return result;
     }
@@ -28,8 +28,8 @@ import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.CachedPointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
-import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
@@ -54,6 +54,8 @@ import pascal.taie.ir.stmt.StmtVisitor;
 import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.Metrics;
+import java.io.File;
 import java.util.List;
 
 class Solver {
@@ -74,18 +76,69 @@ class Solver {
 
     private WorkList workList;
 
-    private PointerAnalysisResult result;
+    /**
+     * Result of this solver, created on first request. It may be requested
+     * before the analysis finishes, thus the solver keeps it informed of
+     * the changes of points-to sets.
+     */
+    private CachedPointerAnalysisResult result;
+
+    /**
+     * State for incremental analysis, null if incremental analysis is disabled.
+     */
+    private final SolverState state;
+
+    private final Metrics metrics;
+
+    private final Metrics.Counter workListPops;
+
+    private final Metrics.Counter objectsPropagated;
+
+    private final Metrics.Counter pfgEdges;
+
+    private final Metrics.Counter callEdges;
+
+    private final Metrics.Counter csMethods;
+
+    private final Metrics.PhaseTimer propagateTimer;
+
+    private final Metrics.PhaseTimer processCallTimer;
+
+    private final Metrics.PhaseTimer addReachableTimer;
+
+    private final Metrics.PhaseTimer contextTimer;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
+        String stateFile = options.getString("incremental");
+        this.state = stateFile != null ?
+                new SolverState(new File(stateFile), options, heapModel) : null;
+        metrics = Metrics.of(CSPTA.ID, options);
+        workListPops = metrics.counter("worklist-pops");
+        objectsPropagated = metrics.counter("objects-propagated");
+        pfgEdges = metrics.counter("pfg-edges");
+        callEdges = metrics.counter("call-edges");
+        csMethods = metrics.counter("cs-methods");
+        propagateTimer = metrics.timer("propagate");
+        processCallTimer = metrics.timer("process-call");
+        addReachableTimer = metrics.timer("add-reachable");
+        contextTimer = metrics.timer("context-selection");
     }
 
     void solve() {
-        initialize();
-        analyze();
+        try (var ignored = metrics.timer("solve").start()) {
+            initialize();
+            analyze();
+        }
+        if (state != null) {
+            try (var ignored = metrics.timer("save-state").start()) {
+                state.save(csManager, callGraph);
+            }
+        }
+        metrics.dump();
     }
 
     private void initialize() {
@@ -93,6 +146,11 @@ class Solver {
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
+        if (state != null) {
+            try (var ignored = metrics.timer("restore-state").start()) {
+                restore();
+            }
+        }
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -101,13 +159,38 @@ class Solver {
         addReachable(csMethod);
     }
 
+    /**
+     * Restores the state saved by previous run (if any), and re-processes
+     * the elements affected by the changes of the program since then.
+     */
+    private void restore() {
+        SolverState.Restored restored = state.restore(
+                csManager, callGraph, pointerFlowGraph);
+        if (restored == null) {
+            return;
+        }
+        restored.entries().forEach(entry ->
+                workList.addEntry(entry.pointer(), entry.pointsToSet()));
+        restored.methods().forEach(csMethod -> {
+            StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+            csMethod.getMethod().getIR().forEach(stmt -> stmt.accept(stmtProcessor));
+        });
+        restored.callSites().forEach(csCallSite -> csCallSite.getCallSite()
+                .accept(new StmtProcessor(csCallSite.getContainer())));
+        restored.receivers().forEach(recv ->
+                recv.getPointsToSet().forEach(obj -> processCall(recv, obj)));
+    }
+
     /**
      * Processes new reachable context-sensitive method.
      */
     private void addReachable(CSMethod csMethod) {
         if(!callGraph.contains(csMethod)){
-            callGraph.addReachableMethod(csMethod);
-            csMethod.getMethod().getIR().getStmts().forEach(stmt -> stmt.accept(new StmtProcessor(csMethod)));
+            try (var ignored = addReachableTimer.start()) {
+                callGraph.addReachableMethod(csMethod);
+                csMethods.increase();
+                csMethod.getMethod().getIR().getStmts().forEach(stmt -> stmt.accept(new StmtProcessor(csMethod)));
+            }
         }
     }
 
@@ -129,7 +212,10 @@ class Solver {
         public Void visit(New stmt) {
             Pointer ptr = csManager.getCSVar(context, stmt.getLValue());
             Obj obj = heapModel.getObj(stmt);
-            Context ctx = contextSelector.selectHeapContext(csMethod, obj);
+            Context ctx;
+            try (var ignored = contextTimer.start()) {
+                ctx = contextSelector.selectHeapContext(csMethod, obj);
+            }
             PointsToSet pts = PointsToSetFactory.make(csManager.getCSObj(ctx, obj));
             workList.addEntry(ptr, pts);
             return null;
@@ -149,8 +235,11 @@ class Solver {
             if(callSite.isStatic()){
                 JMethod callee = resolveCallee(null, callSite);
                 CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
-                Context calleeContext = contextSelector.selectContext(csCallSite, callee);
-                processSingleCall(csCallSite, csManager.getCSMethod(calleeContext, callee));
+                Context calleeContext;
+                try (var ignored = contextTimer.start()) {
+                    calleeContext = contextSelector.selectContext(csCallSite, callee);
+                }
+                processSingleCall(csCallSite, csManager.getCSMethod(calleeContext, callee), null);
             }
             return null;
         }
@@ -179,11 +268,43 @@ class Solver {
     }
 
     /**
-     * Adds an edge "source -> target" to the PFG.
+     * Adds an edge "source -> target", which is derived from
+     * a statement alone, to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
+        if (state != null) {
+            state.recordEdge(source, target);
+        }
+        doAddPFGEdge(source, target);
+    }
+
+    /**
+     * Adds an edge "source -> target", which is derived from
+     * the points-to set of base, to the PFG.
+     */
+    private void addPFGEdge(Pointer source, Pointer target, CSVar base) {
+        if (state != null) {
+            state.recordEdge(source, target, base);
+        }
+        doAddPFGEdge(source, target);
+    }
+
+    /**
+     * Adds an edge "source -> target", which passes an argument
+     * or a return value along callEdge, to the PFG.
+     */
+    private void addPFGEdge(Pointer source, Pointer target,
+                            Edge<CSCallSite, CSMethod> callEdge) {
+        if (state != null) {
+            state.recordEdge(source, target, callEdge);
+        }
+        doAddPFGEdge(source, target);
+    }
+
+    private void doAddPFGEdge(Pointer source, Pointer target) {
         if(!pointerFlowGraph.getSuccsOf(source).contains(target)) {
             pointerFlowGraph.addEdge(source, target);
+            pfgEdges.increase();
             PointsToSet pts = source.getPointsToSet();
             if(!pts.isEmpty()){
                 workList.addEntry(target, pts);
@@ -197,9 +318,13 @@ class Solver {
     private void analyze() {
         while(!workList.isEmpty()){
             WorkList.Entry entry = workList.pollEntry();
+            workListPops.increase();
             Pointer pointer = entry.pointer();
             PointsToSet pts = entry.pointsToSet();
-            PointsToSet delta = propagate(pointer, pts);
+            PointsToSet delta;
+            try (var ignored = propagateTimer.start()) {
+                delta = propagate(pointer, pts);
+            }
             if(pointer instanceof CSVar ptr){
                 Var var = ptr.getVar();
                 Context ctx = ptr.getContext();
@@ -208,32 +333,38 @@ class Solver {
                     var.getStoreFields().forEach(stmt -> {
                         addPFGEdge(
                                 csManager.getCSVar(ctx, stmt.getRValue()),
-                                csManager.getInstanceField(obj, stmt.getFieldAccess().getFieldRef().resolve())
+                                csManager.getInstanceField(obj, stmt.getFieldAccess().getFieldRef().resolve()),
+                                ptr
                         );
                     });
                     // LoadField
                     var.getLoadFields().forEach(stmt -> {
                         addPFGEdge(
                                 csManager.getInstanceField(obj, stmt.getFieldAccess().getFieldRef().resolve()),
-                                csManager.getCSVar(ctx, stmt.getLValue())
+                                csManager.getCSVar(ctx, stmt.getLValue()),
+                                ptr
                         );
                     });
                     // StoreArray
                     var.getStoreArrays().forEach(stmt -> {
                         addPFGEdge(
                                 csManager.getCSVar(ctx, stmt.getRValue()),
-                                csManager.getArrayIndex(obj)
+                                csManager.getArrayIndex(obj),
+                                ptr
                         );
                     });
                     // LoadArray
                     var.getLoadArrays().forEach(stmt -> {
                         addPFGEdge(
                                 csManager.getArrayIndex(obj),
-                                csManager.getCSVar(ctx, stmt.getLValue())
+                                csManager.getCSVar(ctx, stmt.getLValue()),
+                                ptr
                         );
                     });
                     // ProcessCall
-                    processCall(ptr, obj);
+                    try (var ignored = processCallTimer.start()) {
+                        processCall(ptr, obj);
+                    }
                 });
             }
         }
@@ -249,13 +380,24 @@ class Solver {
                 .filter(ptr -> !pointer.getPointsToSet().contains(ptr))
                 .forEach(delta::addObject);
         if(!delta.isEmpty()){
+            objectsPropagated.add(delta.size());
             delta.forEach(obj -> pointer.getPointsToSet().addObject(obj));
+            if (result != null) {
+                result.onPointsToSetChanged(pointer);
+            }
             pointerFlowGraph.getSuccsOf(pointer).forEach(succ -> workList.addEntry(succ, delta));
         }
         return delta;
     }
 
-    private void processSingleCall(CSCallSite csCallSite, CSMethod callee){
+    /**
+     * Processes a call edge from csCallSite to callee.
+     *
+     * @param recv the receiver variable of the call site,
+     *             or null if the call is static.
+     */
+    private void processSingleCall(CSCallSite csCallSite, CSMethod callee,
+                                   CSVar recv) {
         Invoke callSite = csCallSite.getCallSite();
         Context callerContext = csCallSite.getContext();
         Context calleeContext = callee.getContext();
@@ -266,21 +408,28 @@ class Solver {
             else if(callSite.isStatic()) kind = CallKind.STATIC;
             else if(callSite.isVirtual()) kind = CallKind.VIRTUAL;
             if(kind != null) {
-                callGraph.addEdge(new Edge<>(kind, csCallSite, callee));
+                Edge<CSCallSite, CSMethod> edge = new Edge<>(kind, csCallSite, callee);
+                callGraph.addEdge(edge);
+                callEdges.increase();
+                if (state != null) {
+                    state.recordCallEdge(edge, recv);
+                }
                 addReachable(callee);
                 List<Var> args = callee.getMethod().getIR().getParams();
                 assert args.size() == callSite.getRValue().getArgs().size();
                 for(int i = 0;i < args.size();i ++){
                     addPFGEdge(
                             csManager.getCSVar(callerContext, callSite.getRValue().getArg(i)),
-                            csManager.getCSVar(calleeContext, args.get(i))
+                            csManager.getCSVar(calleeContext, args.get(i)),
+                            edge
                     );
                 }
                 if(callSite.getLValue() != null){
                     callee.getMethod().getIR().getReturnVars().forEach(ret -> {
                         addPFGEdge(
                                 csManager.getCSVar(calleeContext, ret),
-                                csManager.getCSVar(callerContext, callSite.getLValue())
+                                csManager.getCSVar(callerContext, callSite.getLValue()),
+                                edge
                         );
                     });
                 }
@@ -298,13 +447,17 @@ class Solver {
         recv.getVar().getInvokes().forEach(callSite -> {
             CSCallSite csCallSite = csManager.getCSCallSite(recv.getContext(), callSite);
             JMethod callee = resolveCallee(recvObj, callSite);
-            Context calleeContext = contextSelector.selectContext(csCallSite, recvObj, callee);
+            Context calleeContext;
+            try (var ignored = contextTimer.start()) {
+                calleeContext = contextSelector.selectContext(csCallSite, recvObj, callee);
+            }
             CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
-            workList.addEntry(
-                    csManager.getCSVar(calleeContext, callee.getIR().getThis()),
-                    PointsToSetFactory.make(recvObj)
-            );
-            processSingleCall(csCallSite, csCallee);
+            CSVar thisVar = csManager.getCSVar(calleeContext, callee.getIR().getThis());
+            workList.addEntry(thisVar, PointsToSetFactory.make(recvObj));
+            if (state != null) {
+                state.recordThis(recv, thisVar);
+            }
+            processSingleCall(csCallSite, csCallee, recv);
         });
     }
 
@@ -323,7 +476,7 @@ class Solver {
 
     PointerAnalysisResult getResult() {
         if (result == null) {
-            result = new PointerAnalysisResultImpl(csManager, callGraph);
+            result = new CachedPointerAnalysisResult(csManager, callGraph);
         }
         return result;
     }
@@ -0,0 +1,1067 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Solver state for incremental pointer analysis.
+ * <p>
+ * During solving, the state records how each PFG edge and call edge was
+ * derived, i.e., the variable whose points-to set justifies it (the base
+ * variable of a field access, or the receiver variable of a call).
+ * After solving, it saves the pointers, PFG edges and call graph to
+ * a file, where program elements are identified by signatures and IR
+ * indexes, together with a fingerprint of each method's IR.
+ * <p>
+ * On the next run on a changed program, {@link #restore} loads the file,
+ * and computes the affected pointers, i.e., the pointers that (transitively)
+ * depend on the changed methods, or on objects whose types changed in
+ * class hierarchy. The affected pointers are reset, and all other pointers,
+ * and the PFG edges and call edges that are still justified, are restored,
+ * so that the solver only re-propagates the affected region.
+ */
+class SolverState {
+
+    private static final Logger logger = LogManager.getLogger(SolverState.class);
+
+    private static final int MAGIC = 0x54414953; // "TAIS"
+
+    /**
+     * Version of the format, which should be increased whenever
+     * the format changes.
+     */
+    private static final int VERSION = 1;
+
+    private static final List<String> HEAP_OPTIONS = List.of(
+            "merge-string-constants", "merge-string-objects",
+            "merge-string-builders", "merge-exception-objects");
+
+    private static final int NEW_ELEMENT = -1;
+
+    private static final int NONE = -1;
+
+    private static final byte CS_VAR = 0, STATIC_FIELD = 1,
+            INSTANCE_FIELD = 2, ARRAY_INDEX = 3;
+
+    private static final byte CALL_SITE_ELEMENT = 0, OBJ_ELEMENT = 1,
+            TYPE_ELEMENT = 2;
+
+    private final File file;
+
+    private final AnalysisOptions options;
+
+    private final HeapModel heapModel;
+
+    /**
+     * Map from each PFG edge to what it is derived from.
+     */
+    private final Map<PFGEdge, Justifications> edges = Maps.newMap();
+
+    /**
+     * Map from receiver variables to this variables of the callees,
+     * which receive the receiver objects without PFG edges.
+     */
+    private final MultiMap<CSVar, CSVar> thisVars = Maps.newMultiMap();
+
+    /**
+     * Receiver variables of instance call edges.
+     */
+    private final Map<Edge<CSCallSite, CSMethod>, CSVar> receivers = Maps.newMap();
+
+    SolverState(File file, AnalysisOptions options, HeapModel heapModel) {
+        this.file = file;
+        this.options = options;
+        this.heapModel = heapModel;
+    }
+
+    private record PFGEdge(Pointer source, Pointer target) {
+    }
+
+    /**
+     * What a PFG edge is derived from. An edge remains valid as long as
+     * one of them remains valid.
+     */
+    private static class Justifications {
+
+        /**
+         * Whether the edge is derived from a statement alone,
+         * e.g., an assignment.
+         */
+        private boolean isUnconditional;
+
+        /**
+         * Variables whose points-to sets the edge is derived from,
+         * i.e., base variables of field accesses.
+         */
+        private final Set<CSVar> vars = Sets.newHybridSet();
+
+        /**
+         * Call edges that the edge (passing arguments or return values)
+         * is derived from.
+         */
+        private final Set<Edge<CSCallSite, CSMethod>> callEdges = Sets.newHybridSet();
+    }
+
+    private Justifications getJustifications(Pointer source, Pointer target) {
+        return edges.computeIfAbsent(new PFGEdge(source, target),
+                e -> new Justifications());
+    }
+
+    /**
+     * Records a PFG edge derived from a statement alone.
+     */
+    void recordEdge(Pointer source, Pointer target) {
+        getJustifications(source, target).isUnconditional = true;
+    }
+
+    /**
+     * Records a PFG edge derived from the points-to set of given variable.
+     */
+    void recordEdge(Pointer source, Pointer target, CSVar base) {
+        getJustifications(source, target).vars.add(base);
+    }
+
+    /**
+     * Records a PFG edge derived from given call edge.
+     */
+    void recordEdge(Pointer source, Pointer target,
+                    Edge<CSCallSite, CSMethod> callEdge) {
+        getJustifications(source, target).callEdges.add(callEdge);
+    }
+
+    /**
+     * Records that the receiver objects of recv flow to thisVar.
+     */
+    void recordThis(CSVar recv, CSVar thisVar) {
+        thisVars.put(recv, thisVar);
+    }
+
+    /**
+     * Records a call edge.
+     *
+     * @param recv receiver variable of the call, or null for static calls.
+     */
+    void recordCallEdge(Edge<CSCallSite, CSMethod> edge, @Nullable CSVar recv) {
+        if (recv != null) {
+            receivers.put(edge, recv);
+        }
+    }
+
+    // ---------- saving state ----------
+
+    /**
+     * Saves the state of the solver to the file.
+     */
+    void save(CSManager csManager, CSCallGraph callGraph) {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            new Writer(out).write(csManager, callGraph);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private class Writer {
+
+        private final DataOutputStream out;
+
+        private final Map<Object, Integer> refs = Maps.newMap();
+
+        private final Map<Pointer, Integer> pointerIds = Maps.newMap();
+
+        private final Map<CSMethod, Integer> methodIds = Maps.newMap();
+
+        private final Map<Edge<CSCallSite, CSMethod>, Integer> callEdgeIds = Maps.newMap();
+
+        /**
+         * Allocation sites of the abstract objects.
+         */
+        private final Map<Obj, New> allocSites = Maps.newMap();
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void write(CSManager csManager, CSCallGraph callGraph)
+                throws IOException {
+            writeHeader();
+            // the heap model returns the same object for the same
+            // allocation site, thus an object can be recovered
+            // from its allocation site
+            callGraph.reachableMethods()
+                    .map(CSMethod::getMethod)
+                    .distinct()
+                    .forEach(method -> method.getIR().forEach(stmt -> {
+                        if (stmt instanceof New newStmt) {
+                            allocSites.putIfAbsent(heapModel.getObj(newStmt), newStmt);
+                        }
+                    }));
+            // pointers and their points-to sets
+            List<Pointer> pointers = new ArrayList<>();
+            pointers.addAll(csManager.getCSVars());
+            pointers.addAll(csManager.getStaticFields());
+            pointers.addAll(csManager.getInstanceFields());
+            pointers.addAll(csManager.getArrayIndexes());
+            out.writeInt(pointers.size());
+            for (Pointer pointer : pointers) {
+                pointerIds.put(pointer, pointerIds.size());
+                writePointer(pointer);
+                PointsToSet pts = pointer.getPointsToSet();
+                out.writeInt(pts.size());
+                for (CSObj csObj : pts) {
+                    writeCSObj(csObj);
+                }
+            }
+            // reachable methods
+            List<CSMethod> methods = callGraph.reachableMethods().toList();
+            out.writeInt(methods.size());
+            for (CSMethod csMethod : methods) {
+                methodIds.put(csMethod, methodIds.size());
+                writeContext(csMethod.getContext());
+                writeMethod(csMethod.getMethod());
+                out.writeBoolean(callGraph.entryMethods()
+                        .anyMatch(csMethod::equals));
+            }
+            // call edges
+            List<Edge<CSCallSite, CSMethod>> callEdges = callGraph.edges().toList();
+            out.writeInt(callEdges.size());
+            for (Edge<CSCallSite, CSMethod> edge : callEdges) {
+                callEdgeIds.put(edge, callEdgeIds.size());
+                CSCallSite csCallSite = edge.getCallSite();
+                Invoke callSite = csCallSite.getCallSite();
+                out.writeByte(edge.getKind().ordinal());
+                writeContext(csCallSite.getContext());
+                writeMethod(callSite.getContainer());
+                out.writeInt(callSite.getIndex());
+                out.writeInt(methodIds.get(csCallSite.getContainer()));
+                out.writeInt(methodIds.get(edge.getCallee()));
+                CSVar recv = receivers.get(edge);
+                out.writeInt(recv != null ? pointerIds.get(recv) : NONE);
+                // static calls are resolved by the class of method reference
+                out.writeLong(hierarchyFingerprint(
+                        callSite.getMethodRef().getDeclaringClass()));
+            }
+            // PFG edges
+            out.writeInt(edges.size());
+            for (Map.Entry<PFGEdge, Justifications> entry : edges.entrySet()) {
+                PFGEdge edge = entry.getKey();
+                Justifications justifications = entry.getValue();
+                out.writeInt(pointerIds.get(edge.source()));
+                out.writeInt(pointerIds.get(edge.target()));
+                out.writeBoolean(justifications.isUnconditional);
+                out.writeInt(justifications.vars.size());
+                for (CSVar var : justifications.vars) {
+                    out.writeInt(pointerIds.get(var));
+                }
+                out.writeInt(justifications.callEdges.size());
+                for (Edge<CSCallSite, CSMethod> callEdge : justifications.callEdges) {
+                    out.writeInt(callEdgeIds.get(callEdge));
+                }
+            }
+            // flows to this variables
+            out.writeInt(thisVars.size());
+            thisVars.forEach((recv, thisVar) -> {
+                try {
+                    out.writeInt(pointerIds.get(recv));
+                    out.writeInt(pointerIds.get(thisVar));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        private void writeHeader() throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(options.getString("cs"));
+            for (String option : HEAP_OPTIONS) {
+                out.writeBoolean(options.getBoolean(option));
+            }
+            out.writeUTF(World.get().getMainMethod().getSignature());
+        }
+
+        private void writePointer(Pointer pointer) throws IOException {
+            if (pointer instanceof CSVar csVar) {
+                out.writeByte(CS_VAR);
+                writeContext(csVar.getContext());
+                writeMethod(csVar.getVar().getMethod());
+                out.writeInt(csVar.getVar().getIndex());
+            } else if (pointer instanceof StaticField staticField) {
+                out.writeByte(STATIC_FIELD);
+                writeField(staticField.getField());
+            } else if (pointer instanceof InstanceField instanceField) {
+                out.writeByte(INSTANCE_FIELD);
+                writeCSObj(instanceField.getBase());
+                writeField(instanceField.getField());
+            } else {
+                out.writeByte(ARRAY_INDEX);
+                writeCSObj(((ArrayIndex) pointer).getArray());
+            }
+        }
+
+        private <T> void writeRef(T element, ElementWriter<T> writer)
+                throws IOException {
+            Integer index = refs.get(element);
+            if (index != null) {
+                out.writeInt(index);
+            } else {
+                out.writeInt(NEW_ELEMENT);
+                writer.write(element);
+                refs.put(element, refs.size());
+            }
+        }
+
+        private void writeMethod(JMethod method) throws IOException {
+            writeRef(method, m -> {
+                out.writeUTF(m.getSignature());
+                out.writeLong(fingerprint(m));
+            });
+        }
+
+        private void writeField(JField field) throws IOException {
+            writeRef(field, f -> out.writeUTF(f.getSignature()));
+        }
+
+        private void writeObj(Obj obj) throws IOException {
+            writeRef(obj, o -> {
+                New allocSite = allocSites.get(o);
+                writeMethod(allocSite.getContainer());
+                out.writeInt(allocSite.getIndex());
+                out.writeLong(hierarchyFingerprint(o.getType()));
+            });
+        }
+
+        private void writeContext(Context context) throws IOException {
+            writeRef(context, ctx -> {
+                out.writeInt(ctx.getLength());
+                for (int i = 0; i < ctx.getLength(); ++i) {
+                    Object elem = ctx.getElementAt(i);
+                    if (elem instanceof Invoke invoke) {
+                        out.writeByte(CALL_SITE_ELEMENT);
+                        writeMethod(invoke.getContainer());
+                        out.writeInt(invoke.getIndex());
+                    } else if (elem instanceof Obj obj) {
+                        out.writeByte(OBJ_ELEMENT);
+                        writeObj(obj);
+                    } else {
+                        out.writeByte(TYPE_ELEMENT);
+                        writeRef((Type) elem, t -> out.writeUTF(t.getName()));
+                    }
+                }
+            });
+        }
+
+        private void writeCSObj(CSObj csObj) throws IOException {
+            writeRef(csObj, o -> {
+                writeContext(o.getContext());
+                writeObj(o.getObject());
+            });
+        }
+    }
+
+    // ---------- restoring state ----------
+
+    /**
+     * Elements to be re-processed by the solver after restoring.
+     *
+     * @param methods     reachable methods containing affected variables,
+     *                    whose statements should be processed again
+     * @param callSites   static call sites whose call edges were dropped
+     * @param receivers   unaffected receiver variables whose call edges
+     *                    were dropped or whose callees were affected
+     * @param entries     points-to sets to be propagated to affected pointers
+     *                    via restored PFG edges
+     */
+    record Restored(Set<CSMethod> methods, Set<CSCallSite> callSites,
+                    Set<CSVar> receivers, List<WorkList.Entry> entries) {
+    }
+
+    /**
+     * Restores the unaffected part of the solver state from the file,
+     * if the file exists and was saved with the same configuration.
+     *
+     * @return the elements to be re-processed, or null if nothing is restored.
+     */
+    @Nullable
+    Restored restore(CSManager csManager, CSCallGraph callGraph,
+                     PointerFlowGraph pointerFlowGraph) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            Reader reader = new Reader(in, csManager);
+            if (!reader.readHeader()) {
+                logger.info("Solver state {} is incompatible, analyze from scratch", file);
+                return null;
+            }
+            reader.read();
+            return reader.restore(callGraph, pointerFlowGraph);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Symbolic pointers read from the file. Components that cannot be
+     * mapped to the current program (as they are in changed methods)
+     * are null.
+     */
+    private record PointerRecord(byte kind, @Nullable Context context,
+                                 @Nullable Object element, int base,
+                                 int[] pts) {
+    }
+
+    private record CSObjRecord(@Nullable Context context, @Nullable Obj obj) {
+
+        private boolean isMapped() {
+            return context != null && obj != null;
+        }
+    }
+
+    private record MethodRecord(@Nullable Context context,
+                                @Nullable JMethod method, boolean isEntry) {
+
+        private boolean isMapped() {
+            return context != null && method != null;
+        }
+    }
+
+    private record CallEdgeRecord(CallKind kind, @Nullable Context context,
+                                  @Nullable Invoke callSite, int caller,
+                                  int callee, int recv, boolean isResolved) {
+    }
+
+    private record PFGEdgeRecord(int source, int target, boolean isUnconditional,
+                                 int[] vars, int[] callEdges) {
+    }
+
+    private class Reader {
+
+        private final DataInputStream in;
+
+        private final CSManager csManager;
+
+        private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+        private final List<Object> refs = new ArrayList<>();
+
+        private final List<CSObjRecord> csObjs = new ArrayList<>();
+
+        private PointerRecord[] pointers;
+
+        private MethodRecord[] methods;
+
+        private CallEdgeRecord[] callEdges;
+
+        private PFGEdgeRecord[] pfgEdges;
+
+        private int[][] thisFlows;
+
+        /**
+         * Ids of the methods containing the variables,
+         * or {@link #NONE} for other pointers.
+         */
+        private int[] varMethods;
+
+        private Reader(DataInputStream in, CSManager csManager) {
+            this.in = in;
+            this.csManager = csManager;
+        }
+
+        private boolean readHeader() throws IOException {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            if (!in.readUTF().equals(options.getString("cs"))) {
+                return false;
+            }
+            for (String option : HEAP_OPTIONS) {
+                if (in.readBoolean() != options.getBoolean(option)) {
+                    return false;
+                }
+            }
+            return in.readUTF().equals(World.get().getMainMethod().getSignature());
+        }
+
+        private void read() throws IOException {
+            pointers = new PointerRecord[in.readInt()];
+            for (int i = 0; i < pointers.length; ++i) {
+                byte kind = in.readByte();
+                Context context = null;
+                Object element = null;
+                int base = NONE;
+                switch (kind) {
+                    case CS_VAR -> {
+                        context = readContext();
+                        JMethod method = readMethod();
+                        int index = in.readInt();
+                        element = method != null ? method.getIR().getVar(index) : null;
+                    }
+                    case STATIC_FIELD -> element = readField();
+                    case INSTANCE_FIELD -> {
+                        base = readCSObj();
+                        element = readField();
+                    }
+                    default -> base = readCSObj();
+                }
+                int[] pts = new int[in.readInt()];
+                for (int j = 0; j < pts.length; ++j) {
+                    pts[j] = readCSObj();
+                }
+                pointers[i] = new PointerRecord(kind, context, element, base, pts);
+            }
+            methods = new MethodRecord[in.readInt()];
+            for (int i = 0; i < methods.length; ++i) {
+                Context context = readContext();
+                JMethod method = readMethod();
+                methods[i] = new MethodRecord(context, method, in.readBoolean());
+            }
+            CallKind[] kinds = CallKind.values();
+            callEdges = new CallEdgeRecord[in.readInt()];
+            for (int i = 0; i < callEdges.length; ++i) {
+                CallKind kind = kinds[in.readByte()];
+                Context context = readContext();
+                Invoke callSite = readInvoke();
+                int caller = in.readInt(), callee = in.readInt(), recv = in.readInt();
+                long fingerprint = in.readLong();
+                boolean isResolved = callSite != null && fingerprint ==
+                        hierarchyFingerprint(callSite.getMethodRef().getDeclaringClass());
+                callEdges[i] = new CallEdgeRecord(kind, context, callSite,
+                        caller, callee, recv, isResolved);
+            }
+            pfgEdges = new PFGEdgeRecord[in.readInt()];
+            for (int i = 0; i < pfgEdges.length; ++i) {
+                int source = in.readInt(), target = in.readInt();
+                boolean isUnconditional = in.readBoolean();
+                pfgEdges[i] = new PFGEdgeRecord(source, target,
+                        isUnconditional, readInts(), readInts());
+            }
+            thisFlows = new int[in.readInt()][];
+            for (int i = 0; i < thisFlows.length; ++i) {
+                thisFlows[i] = new int[]{in.readInt(), in.readInt()};
+            }
+        }
+
+        private int[] readInts() throws IOException {
+            int[] ints = new int[in.readInt()];
+            for (int i = 0; i < ints.length; ++i) {
+                ints[i] = in.readInt();
+            }
+            return ints;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T readRef(ElementFactory<T> factory) throws IOException {
+            int index = in.readInt();
+            if (index == NEW_ELEMENT) {
+                T element = factory.read();
+                refs.add(element);
+                return element;
+            } else {
+                return (T) refs.get(index);
+            }
+        }
+
+        /**
+         * @return the method of given signature in current program,
+         * or null if the method is absent or changed.
+         */
+        @Nullable
+        private JMethod readMethod() throws IOException {
+            return readRef(() -> {
+                JMethod method = hierarchy.getMethod(in.readUTF());
+                long fingerprint = in.readLong();
+                return method != null && !method.isAbstract()
+                        && fingerprint(method) == fingerprint ? method : null;
+            });
+        }
+
+        @Nullable
+        private JField readField() throws IOException {
+            return readRef(() -> hierarchy.getField(in.readUTF()));
+        }
+
+        @Nullable
+        private Invoke readInvoke() throws IOException {
+            JMethod method = readMethod();
+            int index = in.readInt();
+            return method != null ? (Invoke) method.getIR().getStmt(index) : null;
+        }
+
+        @Nullable
+        private Obj readObj() throws IOException {
+            return readRef(() -> {
+                JMethod method = readMethod();
+                int index = in.readInt();
+                long fingerprint = in.readLong();
+                if (method == null) {
+                    return null;
+                }
+                Obj obj = heapModel.getObj((New) method.getIR().getStmt(index));
+                return hierarchyFingerprint(obj.getType()) == fingerprint ?
+                        obj : null;
+            });
+        }
+
+        @Nullable
+        private Context readContext() throws IOException {
+            return readRef(() -> {
+                Object[] elems = new Object[in.readInt()];
+                boolean isMapped = true;
+                for (int i = 0; i < elems.length; ++i) {
+                    elems[i] = switch (in.readByte()) {
+                        case CALL_SITE_ELEMENT -> readInvoke();
+                        case OBJ_ELEMENT -> readObj();
+                        default -> readRef(() -> World.get()
+                                .getTypeSystem().getType(in.readUTF()));
+                    };
+                    isMapped &= elems[i] != null;
+                }
+                return isMapped ? ListContext.make(elems) : null;
+            });
+        }
+
+        /**
+         * @return id of the context-sensitive object.
+         */
+        private int readCSObj() throws IOException {
+            Integer id = readRef(() -> {
+                Context context = readContext();
+                Obj obj = readObj();
+                csObjs.add(new CSObjRecord(context, obj));
+                return csObjs.size() - 1;
+            });
+            return id;
+        }
+
+        private Restored restore(CSCallGraph callGraph,
+                                 PointerFlowGraph pointerFlowGraph) {
+            BitSet affected = computeAffected();
+            BitSet reachable = computeReachable(affected);
+            // restore unaffected pointers
+            Pointer[] restored = new Pointer[pointers.length];
+            for (int i = 0; i < pointers.length; ++i) {
+                if (!affected.get(i)) {
+                    Pointer pointer = getPointer(pointers[i]);
+                    restored[i] = pointer;
+                    for (int csObj : pointers[i].pts()) {
+                        pointer.getPointsToSet().addObject(getCSObj(csObj));
+                    }
+                }
+            }
+            // restore reachable methods and call edges
+            CSMethod[] csMethods = new CSMethod[methods.length];
+            for (int i = reachable.nextSetBit(0); i >= 0;
+                 i = reachable.nextSetBit(i + 1)) {
+                MethodRecord method = methods[i];
+                csMethods[i] = csManager.getCSMethod(method.context(), method.method());
+                if (method.isEntry()) {
+                    callGraph.addEntryMethod(csMethods[i]);
+                }
+                callGraph.addReachableMethod(csMethods[i]);
+            }
+            List<Edge<CSCallSite, CSMethod>> restoredEdges = new ArrayList<>();
+            Set<CSCallSite> callSites = Sets.newSet();
+            Set<CSVar> recvs = Sets.newSet();
+            for (CallEdgeRecord edge : callEdges) {
+                Edge<CSCallSite, CSMethod> callEdge = null;
+                if (isRetained(edge, affected, reachable)) {
+                    CSCallSite csCallSite = csManager.getCSCallSite(
+                            edge.context(), edge.callSite());
+                    callEdge = new Edge<>(edge.kind(), csCallSite, csMethods[edge.callee()]);
+                    callGraph.addEdge(callEdge);
+                    recordCallEdge(callEdge, edge.recv() != NONE ?
+                            (CSVar) restored[edge.recv()] : null);
+                } else if (reachable.get(edge.caller()) && edge.context() != null
+                        && edge.callSite() != null) {
+                    // the call site is unchanged, but its callees
+                    // must be resolved again
+                    if (edge.recv() == NONE) {
+                        callSites.add(csManager.getCSCallSite(
+                                edge.context(), edge.callSite()));
+                    } else if (!affected.get(edge.recv())) {
+                        recvs.add((CSVar) restored[edge.recv()]);
+                    }
+                }
+                restoredEdges.add(callEdge);
+            }
+            // restore PFG edges, and propagate the points-to sets
+            // of unaffected pointers to affected ones
+            List<WorkList.Entry> entries = new ArrayList<>();
+            for (PFGEdgeRecord edge : pfgEdges) {
+                if (!isRetained(edge, affected, reachable)) {
+                    continue;
+                }
+                Pointer source = restored[edge.source()];
+                Pointer target = affected.get(edge.target()) ?
+                        getPointer(pointers[edge.target()]) : restored[edge.target()];
+                pointerFlowGraph.addEdge(source, target);
+                if (edge.isUnconditional()) {
+                    recordEdge(source, target);
+                }
+                for (int var : edge.vars()) {
+                    if (!affected.get(var)) {
+                        recordEdge(source, target, (CSVar) restored[var]);
+                    }
+                }
+                for (int callEdge : edge.callEdges()) {
+                    if (restoredEdges.get(callEdge) != null) {
+                        recordEdge(source, target, restoredEdges.get(callEdge));
+                    }
+                }
+                if (affected.get(edge.target()) && !source.getPointsToSet().isEmpty()) {
+                    PointsToSet pts = PointsToSetFactory.make();
+                    pts.addAll(source.getPointsToSet());
+                    entries.add(new WorkList.Entry(target, pts));
+                }
+            }
+            for (int[] flow : thisFlows) {
+                if (!affected.get(flow[0])) {
+                    if (affected.get(flow[1])) {
+                        // the this variable must receive the objects again
+                        recvs.add((CSVar) restored[flow[0]]);
+                    } else {
+                        recordThis((CSVar) restored[flow[0]], (CSVar) restored[flow[1]]);
+                    }
+                }
+            }
+            // statements of the methods containing affected variables
+            // are processed again to regain allocations and PFG edges
+            Set<CSMethod> reprocessed = Sets.newSet();
+            for (int i = affected.nextSetBit(0); i >= 0;
+                 i = affected.nextSetBit(i + 1)) {
+                int method = varMethods[i];
+                if (method != NONE && reachable.get(method)) {
+                    reprocessed.add(csMethods[method]);
+                }
+            }
+            logger.info("Restored solver state from {}: {}/{} pointers affected," +
+                            " {}/{} methods reachable", file, affected.cardinality(),
+                    pointers.length, reachable.cardinality(), methods.length);
+            return new Restored(reprocessed, callSites, recvs, entries);
+        }
+
+        /**
+         * Computes the affected pointers, i.e., the pointers whose points-to
+         * sets may differ from the saved ones. They are the least set which
+         * contains the pointers that cannot be mapped to current program,
+         * and the variables of the methods that are no longer reachable,
+         * and the targets of the PFG edges that are no longer valid,
+         * and is closed under PFG edges and flows to this variables.
+         */
+        private BitSet computeAffected() {
+            varMethods = new int[pointers.length];
+            TwoKeyMap<Context, JMethod, Integer> methodIds = Maps.newTwoKeyMap();
+            for (int i = 0; i < methods.length; ++i) {
+                if (methods[i].isMapped()) {
+                    methodIds.put(methods[i].context(), methods[i].method(), i);
+                }
+            }
+            MultiMap<Integer, Integer> successors = Maps.newMultiMap();
+            for (PFGEdgeRecord edge : pfgEdges) {
+                successors.put(edge.source(), edge.target());
+            }
+            for (int[] flow : thisFlows) {
+                successors.put(flow[0], flow[1]);
+            }
+            BitSet affected = new BitSet(pointers.length);
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int i = 0; i < pointers.length; ++i) {
+                PointerRecord pointer = pointers[i];
+                varMethods[i] = NONE;
+                if (!isMapped(pointer)) {
+                    queue.add(i);
+                } else if (pointer.kind() == CS_VAR) {
+                    Integer method = methodIds.get(pointer.context(),
+                            ((Var) pointer.element()).getMethod());
+                    varMethods[i] = method != null ? method : NONE;
+                }
+            }
+            while (true) {
+                while (!queue.isEmpty()) {
+                    int pointer = queue.poll();
+                    if (!affected.get(pointer)) {
+                        affected.set(pointer);
+                        queue.addAll(successors.get(pointer));
+                    }
+                }
+                BitSet reachable = computeReachable(affected);
+                for (int i = affected.nextClearBit(0); i < pointers.length;
+                     i = affected.nextClearBit(i + 1)) {
+                    if (pointers[i].kind() == CS_VAR && (varMethods[i] == NONE
+                            || !reachable.get(varMethods[i]))) {
+                        queue.add(i);
+                    }
+                }
+                for (PFGEdgeRecord edge : pfgEdges) {
+                    if (!affected.get(edge.target())
+                            && !isRetained(edge, affected, reachable)) {
+                        queue.add(edge.target());
+                    }
+                }
+                if (queue.isEmpty()) {
+                    return affected;
+                }
+            }
+        }
+
+        /**
+         * @return the methods reachable from entry methods
+         * via the call edges which can be retained.
+         */
+        private BitSet computeReachable(BitSet affected) {
+            MultiMap<Integer, CallEdgeRecord> edgesOut = Maps.newMultiMap();
+            for (CallEdgeRecord edge : callEdges) {
+                edgesOut.put(edge.caller(), edge);
+            }
+            BitSet reachable = new BitSet(methods.length);
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int i = 0; i < methods.length; ++i) {
+                if (methods[i].isEntry() && methods[i].isMapped()) {
+                    queue.add(i);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int method = queue.poll();
+                if (!reachable.get(method)) {
+                    reachable.set(method);
+                    for (CallEdgeRecord edge : edgesOut.get(method)) {
+                        if (isRetained(edge, affected, null)) {
+                            queue.add(edge.callee());
+                        }
+                    }
+                }
+            }
+            return reachable;
+        }
+
+        /**
+         * A call edge is retained if its call site and callee are unchanged
+         * and reachable, and it is not derived from an affected receiver
+         * variable, and the method reference is resolved in an unchanged
+         * class hierarchy.
+         */
+        private boolean isRetained(CallEdgeRecord edge, BitSet affected,
+                                   @Nullable BitSet reachable) {
+            return edge.context() != null && edge.callSite() != null
+                    && edge.isResolved()
+                    && methods[edge.caller()].isMapped()
+                    && methods[edge.callee()].isMapped()
+                    && (edge.recv() == NONE || !affected.get(edge.recv()))
+                    && (reachable == null || (reachable.get(edge.caller())
+                    && reachable.get(edge.callee())));
+        }
+
+        /**
+         * A PFG edge is retained if its source is unaffected, its target
+         * is in current program, and it is still justified by a statement,
+         * an unaffected variable, or a retained call edge.
+         */
+        private boolean isRetained(PFGEdgeRecord edge, BitSet affected,
+                                   BitSet reachable) {
+            if (affected.get(edge.source())
+                    || !isMapped(pointers[edge.target()])) {
+                return false;
+            }
+            int targetMethod = varMethods[edge.target()];
+            if (pointers[edge.target()].kind() == CS_VAR
+                    && (targetMethod == NONE || !reachable.get(targetMethod))) {
+                return false;
+            }
+            if (edge.isUnconditional()) {
+                return true;
+            }
+            for (int var : edge.vars()) {
+                if (!affected.get(var)) {
+                    return true;
+                }
+            }
+            for (int callEdge : edge.callEdges()) {
+                if (isRetained(callEdges[callEdge], affected, reachable)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return whether the pointer and all objects pointed to by it
+         * can be mapped to current program.
+         */
+        private boolean isMapped(PointerRecord pointer) {
+            boolean isMapped = switch (pointer.kind()) {
+                case CS_VAR -> pointer.context() != null && pointer.element() != null;
+                case STATIC_FIELD -> pointer.element() != null;
+                case INSTANCE_FIELD -> pointer.element() != null
+                        && csObjs.get(pointer.base()).isMapped();
+                default -> csObjs.get(pointer.base()).isMapped();
+            };
+            if (isMapped) {
+                for (int csObj : pointer.pts()) {
+                    if (!csObjs.get(csObj).isMapped()) {
+                        return false;
+                    }
+                }
+            }
+            return isMapped;
+        }
+
+        private Pointer getPointer(PointerRecord pointer) {
+            return switch (pointer.kind()) {
+                case CS_VAR -> csManager.getCSVar(pointer.context(),
+                        (Var) pointer.element());
+                case STATIC_FIELD -> csManager.getStaticField((JField) pointer.element());
+                case INSTANCE_FIELD -> csManager.getInstanceField(
+                        getCSObj(pointer.base()), (JField) pointer.element());
+                default -> csManager.getArrayIndex(getCSObj(pointer.base()));
+            };
+        }
+
+        private CSObj getCSObj(int id) {
+            CSObjRecord csObj = csObjs.get(id);
+            return csManager.getCSObj(csObj.context(), csObj.obj());
+        }
+    }
+
+    // ---------- fingerprints ----------
+
+    /**
+     * @return fingerprint of the IR of given method.
+     */
+    static long fingerprint(JMethod method) {
+        IR ir = method.getIR();
+        long hash = hash(FNV_OFFSET, ir.getVars().toString());
+        for (Stmt stmt : ir) {
+            hash = hash(hash, stmt.toString());
+        }
+        return hash;
+    }
+
+    /**
+     * @return fingerprint of the class hierarchy above given type,
+     * which determines the dispatch of method calls on its objects.
+     */
+    static long hierarchyFingerprint(Type type) {
+        return type instanceof ClassType classType ?
+                hierarchyFingerprint(classType.getJClass()) :
+                hash(FNV_OFFSET, type.getName());
+    }
+
+    private static long hierarchyFingerprint(JClass jclass) {
+        long hash = FNV_OFFSET;
+        Set<JClass> visited = Sets.newSet();
+        Queue<JClass> queue = new ArrayDeque<>();
+        queue.add(jclass);
+        while (!queue.isEmpty()) {
+            JClass c = queue.poll();
+            if (c == null || !visited.add(c)) {
+                continue;
+            }
+            hash = hash(hash, c.getName());
+            for (JMethod method : c.getDeclaredMethods()) {
+                hash = hash(hash, method.getSubsignature().toString());
+                hash = hash(hash, method.isAbstract() ? "abstract" : "");
+            }
+            queue.add(c.getSuperClass());
+            queue.addAll(c.getInterfaces());
+        }
+        return hash;
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static long hash(long hash, String s) {
+        for (int i = 0; i < s.length(); ++i) {
+            hash = (hash ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ 0xff) * FNV_PRIME;
+    }
+
+    @FunctionalInterface
+    private interface ElementWriter<T> {
+        void write(T element) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementFactory<T> {
+        T read() throws IOException;
+    }
+}
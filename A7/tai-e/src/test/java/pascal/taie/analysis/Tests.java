@@ -26,13 +26,17 @@ import org.junit.Assert;
 import pascal.taie.Main;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Static utility methods for testing.
@@ -135,6 +139,32 @@ public final class Tests {
         Main.main(args.toArray(new String[0]));
     }
 
+    /**
+     * @return textual representation of the call graph and points-to sets
+     * of given pointer analysis result, which does not depend on
+     * the identities and iteration orders of its elements, so that
+     * results computed in different ways can be compared.
+     */
+    public static String dumpPTA(PointerAnalysisResult result) {
+        List<String> lines = new ArrayList<>();
+        result.getCSCallGraph().edges().forEach(edge -> lines.add(
+                edge.getKind() + " " + edge.getCallSite() + " -> " + edge.getCallee()));
+        addPointers(lines, result.getCSVars());
+        addPointers(lines, result.getStaticFields());
+        addPointers(lines, result.getInstanceFields());
+        addPointers(lines, result.getArrayIndexes());
+        return lines.stream().sorted().collect(Collectors.joining("\n"));
+    }
+
+    private static void addPointers(
+            List<String> lines, Collection<? extends Pointer> pointers) {
+        pointers.forEach(p -> lines.add(p + " -> " + p.getPointsToSet()
+                .objects()
+                .map(Object::toString)
+                .sorted()
+                .toList()));
+    }
+
     /**
      * @param dir  the directory containing the test case
      * @param main main class of the test case
@@ -0,0 +1,107 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.ConstantObj;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PointerAnalysisResultIOTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/io";
+
+    private static final String HEAP_OPTIONS = "merge-string-constants:false;" +
+            "merge-string-objects:true;merge-string-builders:true;" +
+            "merge-exception-objects:true";
+
+    private static PointerAnalysisResult runCSPTA(String options) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", "Objects",
+                "-a", "cspta=cs:2-obj;" + HEAP_OPTIONS + options});
+        return World.get().getResult("cspta");
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File file = File.createTempFile("pta", ".bin");
+        file.deleteOnExit();
+        PointerAnalysisResult result = runCSPTA(";save-result:" + file.getPath());
+        PointerAnalysisResult loaded = PointerAnalysisResultIO.read(file);
+        String dump = Tests.dumpPTA(result);
+        // merged exception and string objects are included
+        assertTrue(dump.contains("java.lang.RuntimeException"));
+        assertTrue(dump.contains("java.lang.String"));
+        assertEquals(dump, Tests.dumpPTA(loaded));
+    }
+
+    @Test
+    public void testMockAndConstantObjects() throws IOException {
+        PointerAnalysisResult result = runCSPTA("");
+        JMethod main = World.get().getMainMethod();
+        Type object = World.get().getTypeSystem().getType("java.lang.Object");
+        Obj constant = new ConstantObj(StringLiteral.get("constant"));
+        Obj mock = new MockObj("mock", "args", object, main);
+        // mock objects whose allocations are other objects, e.g., taint objects
+        Obj derived = new MockObj("derived", mock, object);
+        CSManager csManager = new MapBasedCSManager();
+        CSVar csVar = result.getCSVars()
+                .stream()
+                .filter(v -> v.getVar().getMethod().equals(main))
+                .findFirst()
+                .orElseThrow();
+        for (Obj obj : List.of(constant, mock, derived)) {
+            csVar.getPointsToSet().addObject(
+                    csManager.getCSObj(csVar.getContext(), obj));
+        }
+        File file = File.createTempFile("pta", ".bin");
+        file.deleteOnExit();
+        PointerAnalysisResultIO.write(result, new AnalysisOptions(Map.of(
+                "merge-string-constants", false,
+                "merge-string-objects", true,
+                "merge-string-builders", true,
+                "merge-exception-objects", true)), file);
+        PointerAnalysisResult loaded = PointerAnalysisResultIO.read(file);
+        String dump = Tests.dumpPTA(result);
+        assertTrue(dump.contains(mock.toString()));
+        assertTrue(dump.contains(derived.toString()));
+        assertEquals(dump, Tests.dumpPTA(loaded));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests incremental analysis: each test case has two versions of
+ * a program, v1 and v2. The solver state saved by the analysis of v1
+ * is restored by the analysis of v2, whose result must be the same as
+ * the result of analyzing v2 from scratch.
+ */
+public class SolverStateTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/incremental/";
+
+    /**
+     * Runs cspta on given program.
+     *
+     * @param state the solver state file, or null if incremental
+     *              analysis is disabled
+     * @return the dumped result.
+     */
+    private static String run(String classPath, @Nullable File state) {
+        String options = "cs:2-obj";
+        if (state != null) {
+            options += ";incremental:" + state.getPath();
+        }
+        Main.main(new String[]{"-pp", "-cp", classPath, "-m", "Main",
+                "-a", "cspta=" + options});
+        return Tests.dumpPTA(World.get().getResult(CSPTA.ID));
+    }
+
+    private static File newStateFile() throws IOException {
+        File state = File.createTempFile("solver-state", ".bin");
+        state.deleteOnExit();
+        // start from no saved state
+        assertTrue(state.delete());
+        return state;
+    }
+
+    private static void test(String dir) throws IOException {
+        File state = newStateFile();
+        String v1 = CLASS_PATH + dir + "/v1";
+        String v2 = CLASS_PATH + dir + "/v2";
+        String result1 = run(v1, state);
+        assertTrue(state.exists());
+        String incremental = run(v2, state);
+        String scratch = run(v2, null);
+        assertEquals(scratch, incremental);
+        // the change is visible in the result
+        assertNotEquals(result1, scratch);
+    }
+
+    @Test
+    public void testUnchanged() throws IOException {
+        File state = newStateFile();
+        String v1 = CLASS_PATH + "callee/v1";
+        String scratch = run(v1, state);
+        assertEquals(scratch, run(v1, state));
+    }
+
+    @Test
+    public void testChangedCallee() throws IOException {
+        test("callee");
+    }
+
+    @Test
+    public void testRemovedAllocation() throws IOException {
+        test("alloc");
+    }
+
+    @Test
+    public void testChangedHierarchy() throws IOException {
+        test("hierarchy");
+    }
+}
@@ -0,0 +1,35 @@
+class Main {
+
+    public static void main(String[] args) {
+        Object o = Factory.create();
+        Holder h = new Holder();
+        h.value = o;
+        Object v = h.value;
+        Holder.last = v;
+        Object other = new Other();
+        Holder.other = other;
+    }
+}
+
+class Factory {
+    static Object create() {
+        Object o = new A();
+        o = new B();
+        return o;
+    }
+}
+
+class Holder {
+    Object value;
+    static Object last;
+    static Object other;
+}
+
+class A {
+}
+
+class B {
+}
+
+class Other {
+}
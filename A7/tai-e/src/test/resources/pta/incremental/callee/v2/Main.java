@@ -0,0 +1,32 @@
+class Main {
+
+    public static void main(String[] args) {
+        Holder h = new Holder();
+        h.value = Factory.make();
+        Object v = h.value;
+        Holder.last = v;
+        Object other = new Other();
+        Holder.other = other;
+    }
+}
+
+class Factory {
+    static Object make() {
+        return new B();
+    }
+}
+
+class Holder {
+    Object value;
+    static Object last;
+    static Object other;
+}
+
+class A {
+}
+
+class B {
+}
+
+class Other {
+}
@@ -0,0 +1,39 @@
+class Main {
+
+    public static void main(String[] args) {
+        Base obj = new Derived();
+        Object r = obj.make();
+        Holder.last = r;
+        Object other = new Other();
+        Holder.other = other;
+    }
+}
+
+class Base {
+    Object make() {
+        return new A();
+    }
+}
+
+class Middle extends Base {
+    Object make() {
+        return new B();
+    }
+}
+
+class Derived extends Middle {
+}
+
+class Holder {
+    static Object last;
+    static Object other;
+}
+
+class A {
+}
+
+class B {
+}
+
+class Other {
+}
@@ -0,0 +1,29 @@
+class Objects {
+
+    public static void main(String[] args) {
+        Box box = new Box();
+        box.item = new Item();
+        Object[] array = new Object[1];
+        array[0] = box.item;
+        Box.last = id(box);
+        RuntimeException e1 = new RuntimeException();
+        RuntimeException e2 = new RuntimeException();
+        Box.error = e1;
+        Box.error = e2;
+        String s = new String();
+        Object o = id(s);
+    }
+
+    static Object id(Object o) {
+        return o;
+    }
+}
+
+class Box {
+    Item item;
+    static Object last;
+    static Object error;
+}
+
+class Item {
+}
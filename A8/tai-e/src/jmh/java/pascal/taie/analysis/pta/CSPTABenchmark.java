@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.Main;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.AnalysisConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of context-sensitive pointer analysis (including the taint
+ * analysis plugin) under different context sensitivity variants.
+ * <p>
+ * Each program is given as "dir:MainClass", where dir is either relative
+ * to src/test/resources/pta or an absolute class path, e.g., "taint:ArgToResult".
+ * Larger programs (e.g., the ones generated by the synthetic program
+ * generator) can be benchmarked by overriding the parameter:
+ * <pre>
+ *   java -jar build/libs/tai-e-jmh.jar CSPTABenchmark -prof gc \
+ *       -p program=/path/to/classes:Main
+ * </pre>
+ * The world of each program is built once per trial, thus only the
+ * solving is measured. The gc profiler (enabled by default in the jmh
+ * task) reports allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xss512m", "-Xmx4G"})
+public class CSPTABenchmark {
+
+    private static final String RESOURCES = "src/test/resources/pta";
+
+    private static final String TAINT_CONFIG = RESOURCES + "/taint/taint-config.yml";
+
+    @Param({
+            "taint:ArgToResult",
+            "taint:BaseToResult",
+            "taint:InterTaintTransfer",
+            "taint:OneCallTaint",
+            "taint:SimpleTaint",
+            "taint:StringAppend",
+            "taint:TaintInList",
+    })
+    public String program;
+
+    @Param({"ci", "1-call", "1-obj", "2-obj", "2-type"})
+    public String cs;
+
+    private AnalysisConfig config;
+
+    @Setup(Level.Trial)
+    public void buildWorld() {
+        int split = program.lastIndexOf(':');
+        String dir = program.substring(0, split);
+        String main = program.substring(split + 1);
+        String classPath = Files.isDirectory(Path.of(dir)) ?
+                dir : RESOURCES + "/" + dir;
+        // build the world without running any analysis
+        Main.main(new String[]{"-pp", "-cp", classPath, "-m", main});
+        config = new AnalysisConfig(CSPTA.ID,
+                "cs", cs,
+                "only-app", true,
+                "implicit-entries", false,
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true,
+                "heap-model", "allocation-site",
+                "taint-config", TAINT_CONFIG);
+    }
+
+    @Benchmark
+    public PointerAnalysisResult solve() {
+        return new CSPTA(config).analyze();
+    }
+}
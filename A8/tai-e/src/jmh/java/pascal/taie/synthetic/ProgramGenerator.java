@@ -0,0 +1,355 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.synthetic;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic Java programs of tunable size for stress-testing
+ * the analyses, and compiles them into class files.
+ * <p>
+ * A generated program consists of:
+ * <ul>
+ *     <li>a class hierarchy of {@link Config#fanOut()} subclasses of
+ *     {@code Node}, each overriding the virtual method {@code work},
+ *     so that every virtual call site has (up to) fanOut callees;</li>
+ *     <li>{@link Config#methods()} static methods organized in
+ *     {@link Config#callDepth()} layers, where each method allocates
+ *     objects, stores and loads fields, makes virtual calls, and calls
+ *     methods of the next layer;</li>
+ *     <li>calls to {@code SourceSink.source()} and {@code SourceSink.sink()},
+ *     whose signatures match the taint configuration of the test programs
+ *     (a copy is written to the output directory as taint-config.yml).</li>
+ * </ul>
+ * The output directory can be used as class path of the analyses,
+ * with {@link #MAIN_CLASS} as the main class.
+ */
+public class ProgramGenerator {
+
+    public static final String MAIN_CLASS = "SyntheticMain";
+
+    /**
+     * Number of methods in each generated method class, which keeps
+     * the classes far below the limits of class files.
+     */
+    private static final int METHODS_PER_CLASS = 100;
+
+    /**
+     * @param methods     number of static methods
+     * @param callDepth   number of layers of the call chains
+     * @param fanOut      number of subclasses overriding the virtual method
+     * @param allocSites  number of allocation sites per method
+     * @param fieldStores number of field stores per method
+     * @param sources     number of calls to taint sources
+     * @param sinks       number of calls to taint sinks
+     * @param seed        seed for choosing callees and allocated types
+     */
+    public record Config(int methods, int callDepth, int fanOut,
+                         int allocSites, int fieldStores,
+                         int sources, int sinks, long seed) {
+
+        public Config {
+            if (methods < 1 || callDepth < 1 || callDepth > methods
+                    || fanOut < 1 || allocSites < 0 || fieldStores < 0
+                    || sources < 0 || sinks < 0) {
+                throw new IllegalArgumentException("Invalid config: " + this);
+            }
+        }
+
+        /**
+         * @return a config whose method count is given size and the other
+         * parameters are the defaults.
+         */
+        public static Config ofSize(int methods) {
+            return new Config(methods, Math.min(10, methods), 4,
+                    3, 2, Math.max(1, methods / 50), Math.max(1, methods / 50), 0);
+        }
+    }
+
+    private final Config config;
+
+    private final Random random;
+
+    public ProgramGenerator(Config config) {
+        this.config = config;
+        this.random = new Random(config.seed());
+    }
+
+    /**
+     * Generates the program and compiles it into given directory.
+     */
+    public void generate(Path outDir) {
+        try {
+            Path srcDir = Files.createTempDirectory("tai-e-synthetic-src");
+            List<Path> sources = new ArrayList<>();
+            sources.add(write(srcDir, "SourceSink", generateSourceSink()));
+            sources.add(write(srcDir, "Node", generateNode()));
+            for (int k = 0; k < config.fanOut(); ++k) {
+                sources.add(write(srcDir, "Node" + k, generateSubclass(k)));
+            }
+            int classes = (config.methods() + METHODS_PER_CLASS - 1) / METHODS_PER_CLASS;
+            for (int c = 0; c < classes; ++c) {
+                sources.add(write(srcDir, "M" + c, generateMethodClass(c)));
+            }
+            sources.add(write(srcDir, MAIN_CLASS, generateMain()));
+            Files.createDirectories(outDir);
+            compile(sources, outDir);
+            Files.writeString(outDir.resolve("taint-config.yml"), TAINT_CONFIG);
+            deleteRecursively(srcDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final String TAINT_CONFIG = """
+            sources:
+              - { method: "<SourceSink: java.lang.String source()>", type: "java.lang.String" }
+
+            sinks:
+              - { method: "<SourceSink: void sink(java.lang.String)>", index: 0 }
+
+            transfers:
+              - { method: "<java.lang.String: java.lang.String concat(java.lang.String)>", from: base, to: result, type: "java.lang.String" }
+              - { method: "<java.lang.String: java.lang.String concat(java.lang.String)>", from: 0, to: result, type: "java.lang.String" }
+            """;
+
+    private static String generateSourceSink() {
+        return """
+                class SourceSink {
+
+                    static String source() {
+                        return new String();
+                    }
+
+                    static void sink(String s) {
+                    }
+                }
+                """;
+    }
+
+    private static String generateNode() {
+        return """
+                abstract class Node {
+
+                    Object f;
+
+                    Node next;
+
+                    abstract Object work(Object p);
+                }
+                """;
+    }
+
+    /**
+     * Each subclass forwards to a different method of the first layer,
+     * so that the callees of virtual calls differ by receiver type.
+     */
+    private String generateSubclass(int k) {
+        int callee = random.nextInt(layerSize(0));
+        return "class Node" + k + " extends Node {\n\n" +
+                "    Object work(Object p) {\n" +
+                "        f = p;\n" +
+                "        return " + methodRef(callee) + "(this, p);\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    private String generateMethodClass(int c) {
+        StringBuilder src = new StringBuilder();
+        src.append("class M").append(c).append(" {\n");
+        int begin = c * METHODS_PER_CLASS;
+        int end = Math.min(config.methods(), begin + METHODS_PER_CLASS);
+        for (int i = begin; i < end; ++i) {
+            src.append('\n');
+            generateMethod(src, i);
+        }
+        return src.append("}\n").toString();
+    }
+
+    private void generateMethod(StringBuilder src, int i) {
+        int layer = layerOf(i);
+        src.append("    static Object m").append(i).append("(Node n, Object p) {\n");
+        // allocation sites
+        for (int a = 0; a < config.allocSites(); ++a) {
+            src.append("        Node o").append(a).append(" = new Node")
+                    .append(random.nextInt(config.fanOut())).append("();\n");
+        }
+        // field stores and loads
+        for (int s = 0; s < config.fieldStores(); ++s) {
+            String base = config.allocSites() > 0 ?
+                    "o" + random.nextInt(config.allocSites()) : "n";
+            src.append("        ").append(base).append(".f = p;\n");
+            src.append("        ").append(base).append(".next = n;\n");
+        }
+        src.append("        Object r = n.f;\n");
+        // taint sources are placed in the first layer
+        if (layer == 0 && isSelected(i, layerSize(0), config.sources())) {
+            src.append("        p = SourceSink.source();\n");
+        }
+        // taint sinks are placed in the last layer
+        if (layer == config.callDepth() - 1 &&
+                isSelected(i - layerStart(layer), layerSize(layer), config.sinks())) {
+            src.append("        SourceSink.sink((String) p);\n");
+        }
+        if (layer + 1 < config.callDepth()) {
+            // virtual call whose receiver may point to objects of many types
+            String recv = config.allocSites() > 0 ? "o0.next" : "n.next";
+            src.append("        if (").append(recv).append(" != null) {\n");
+            src.append("            r = ").append(recv).append(".work(p);\n");
+            src.append("        }\n");
+            int nextStart = layerStart(layer + 1);
+            int nextSize = layerSize(layer + 1);
+            for (int c = 0; c < 2; ++c) {
+                int callee = nextStart + random.nextInt(nextSize);
+                String arg = config.allocSites() > 0 ?
+                        "o" + random.nextInt(config.allocSites()) : "n";
+                src.append("        r = ").append(methodRef(callee))
+                        .append('(').append(arg).append(", p);\n");
+            }
+        }
+        src.append("        return r;\n");
+        src.append("    }\n");
+    }
+
+    private String generateMain() {
+        StringBuilder src = new StringBuilder();
+        src.append("class ").append(MAIN_CLASS).append(" {\n\n");
+        src.append("    public static void main(String[] args) {\n");
+        src.append("        Node n = new Node0();\n");
+        for (int k = 1; k < config.fanOut(); ++k) {
+            src.append("        n.next = new Node").append(k).append("();\n");
+            src.append("        n = n.next;\n");
+        }
+        for (int i = 0; i < layerSize(0); ++i) {
+            src.append("        ").append(methodRef(i)).append("(n, args);\n");
+        }
+        src.append("    }\n");
+        return src.append("}\n").toString();
+    }
+
+    /**
+     * @return whether the index-th of size items is one of the count
+     * items that are spread evenly.
+     */
+    private static boolean isSelected(int index, int size, int count) {
+        if (count >= size) {
+            return true;
+        }
+        return count > 0 && index % (size / count) == 0
+                && index / (size / count) < count;
+    }
+
+    private int layerOf(int i) {
+        return (int) ((long) i * config.callDepth() / config.methods());
+    }
+
+    private int layerStart(int layer) {
+        // smallest i such that layerOf(i) == layer
+        return (int) (((long) layer * config.methods() + config.callDepth() - 1)
+                / config.callDepth());
+    }
+
+    private int layerSize(int layer) {
+        return layerStart(layer + 1) - layerStart(layer);
+    }
+
+    private static String methodRef(int i) {
+        return "M" + (i / METHODS_PER_CLASS) + ".m" + i;
+    }
+
+    private static Path write(Path dir, String className, String source)
+            throws IOException {
+        return Files.writeString(dir.resolve(className + ".java"), source);
+    }
+
+    /**
+     * Compiles the sources for Java 8, which is the library version
+     * (rt.jar) used by the analyses.
+     */
+    private static void compile(List<Path> sources, Path outDir) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No Java compiler is available");
+        }
+        List<String> args = new ArrayList<>(List.of(
+                "--release", "8", "-nowarn", "-d", outDir.toString()));
+        sources.forEach(source -> args.add(source.toString()));
+        if (compiler.run(null, null, null, args.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Failed to compile the generated program");
+        }
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Usage: ProgramGenerator &lt;output-dir&gt; [--methods N] [--call-depth N]
+     * [--fan-out N] [--alloc-sites N] [--field-stores N] [--sources N]
+     * [--sinks N] [--seed N]
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: ProgramGenerator <output-dir> [--methods N]"
+                    + " [--call-depth N] [--fan-out N] [--alloc-sites N]"
+                    + " [--field-stores N] [--sources N] [--sinks N] [--seed N]");
+            return;
+        }
+        Config dft = Config.ofSize(intOption(args, "--methods", 1000));
+        Config config = new Config(dft.methods(),
+                intOption(args, "--call-depth", dft.callDepth()),
+                intOption(args, "--fan-out", dft.fanOut()),
+                intOption(args, "--alloc-sites", dft.allocSites()),
+                intOption(args, "--field-stores", dft.fieldStores()),
+                intOption(args, "--sources", dft.sources()),
+                intOption(args, "--sinks", dft.sinks()),
+                intOption(args, "--seed", (int) dft.seed()));
+        Path outDir = Path.of(args[0]);
+        new ProgramGenerator(config).generate(outDir);
+        System.out.printf("Generated %s in %s (main class: %s)%n",
+                config, outDir, MAIN_CLASS);
+    }
+
+    static int intOption(String[] args, String name, int defaultValue) {
+        for (int i = 0; i + 1 < args.length; ++i) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.synthetic;
+
+import pascal.taie.Main;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures how the analyses scale with the size of the programs generated
+ * by {@link ProgramGenerator}.
+ * <p>
+ * For each analysis and each program size, the runner generates a program,
+ * and runs the analysis on it in a fresh JVM (so that the memory usage
+ * of different runs does not interfere), which records the elapsed time
+ * (including world building) and the peak heap usage. The results are
+ * written to results.csv in the output directory, together with a gnuplot
+ * script plot.gp which plots time and memory against program size.
+ * <p>
+ * Usage:
+ * <pre>
+ *   java -cp build/libs/tai-e-jmh.jar pascal.taie.synthetic.ScalingRunner \
+ *       &lt;output-dir&gt; [--sizes 1000,2000,4000] [--analyses cha,cspta]
+ *       [--cs ci] [--xmx 8g] [--classpath CP]
+ * </pre>
+ * Supported analyses are "cha" (call graph construction by CHA), "cspta"
+ * (context-sensitive pointer analysis with taint analysis enabled) and
+ * "inter-constprop" (alias-aware inter-procedural constant propagation).
+ * The last one is implemented in the assignments of inter-procedural
+ * analyses, so it requires to run with their class path via --classpath.
+ */
+public class ScalingRunner {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: ScalingRunner <output-dir> [--sizes N,N,...]"
+                    + " [--analyses cha,cspta,inter-constprop] [--cs CS]"
+                    + " [--xmx SIZE] [--classpath CP]");
+            return;
+        }
+        Path outDir = Path.of(args[0]);
+        int[] sizes = Arrays.stream(option(args, "--sizes", "1000,2000,4000,8000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        String[] analyses = option(args, "--analyses", "cha,cspta").split(",");
+        String cs = option(args, "--cs", "ci");
+        String xmx = option(args, "--xmx", "8g");
+        String classPath = option(args, "--classpath",
+                System.getProperty("java.class.path"));
+        Files.createDirectories(outDir);
+        List<String> rows = new ArrayList<>();
+        rows.add("analysis,methods,time_ms,peak_heap_mb");
+        for (int size : sizes) {
+            Path programDir = outDir.resolve("program-" + size);
+            new ProgramGenerator(ProgramGenerator.Config.ofSize(size))
+                    .generate(programDir);
+            for (String analysis : analyses) {
+                Path planFile = outDir.resolve(analysis + "-plan.yml");
+                Files.writeString(planFile, plan(analysis, cs,
+                        programDir.resolve("taint-config.yml")));
+                Path resultFile = outDir.resolve(analysis + "-" + size + ".result");
+                Path logFile = outDir.resolve(analysis + "-" + size + ".log");
+                Process process = new ProcessBuilder(
+                        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-Xss512m", "-Xmx" + xmx, "-cp", classPath,
+                        Probe.class.getName(), resultFile.toString(),
+                        "-pp", "-cp", programDir.toString(),
+                        "-m", ProgramGenerator.MAIN_CLASS,
+                        "-p", planFile.toString())
+                        .redirectErrorStream(true)
+                        .redirectOutput(logFile.toFile())
+                        .start();
+                if (process.waitFor() != 0 || !Files.exists(resultFile)) {
+                    System.out.printf("%s on %d methods failed, see %s%n",
+                            analysis, size, logFile);
+                    continue;
+                }
+                String result = Files.readString(resultFile).strip();
+                System.out.printf("%s on %d methods: %s%n", analysis, size, result);
+                rows.add(analysis + "," + size + "," + result);
+            }
+        }
+        Files.write(outDir.resolve("results.csv"), rows);
+        Files.writeString(outDir.resolve("plot.gp"), plotScript(analyses));
+        System.out.printf("Results are written to %s, run 'gnuplot plot.gp' there to plot them%n",
+                outDir.resolve("results.csv"));
+    }
+
+    private static String plan(String analysis, String cs, Path taintConfig) {
+        String cspta = """
+                - id: cspta
+                  options:
+                    cs: %s
+                    merge-string-constants: false
+                    merge-string-objects: false
+                    merge-string-builders: false
+                    merge-exception-objects: true
+                    taint-config: %s
+                """.formatted(cs, taintConfig);
+        return switch (analysis) {
+            case "cha" -> """
+                    - id: cg
+                      options:
+                        algorithm: cha
+                    """;
+            case "cspta" -> cspta + """
+                    - id: cg
+                      options:
+                        algorithm: cspta
+                    """;
+            case "inter-constprop" -> cspta + """
+                    - id: cg
+                      options:
+                        algorithm: cspta
+                    - id: throw
+                      options:
+                        exception: explicit
+                        algorithm: intra
+                    - id: cfg
+                      options:
+                        exception: explicit
+                        dump: false
+                    - id: icfg
+                      options:
+                        dump: false
+                    - id: inter-constprop
+                      options:
+                        edge-refine: false
+                        alias-aware: true
+                        pta: cspta
+                    """;
+            default -> throw new IllegalArgumentException(
+                    "Unknown analysis: " + analysis);
+        };
+    }
+
+    private static String plotScript(String[] analyses) {
+        StringBuilder script = new StringBuilder("""
+                set datafile separator ','
+                set terminal png size 800,600
+                set key left top
+                set xlabel 'methods'
+                set grid
+                """);
+        String[][] plots = {
+                {"time.png", "time (ms)", "3"},
+                {"memory.png", "peak heap (MB)", "4"},
+        };
+        for (String[] plot : plots) {
+            script.append("set output '").append(plot[0]).append("'\n")
+                    .append("set ylabel '").append(plot[1]).append("'\n")
+                    .append("plot ");
+            for (int i = 0; i < analyses.length; ++i) {
+                if (i > 0) {
+                    script.append(", \\\n     ");
+                }
+                script.append("'results.csv' using 2:(strcol(1) eq '")
+                        .append(analyses[i]).append("' ? $").append(plot[2])
+                        .append(" : 1/0) with linespoints title '")
+                        .append(analyses[i]).append('\'');
+            }
+            script.append('\n');
+        }
+        return script.toString();
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        for (int i = 0; i + 1 < args.length; ++i) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Runs Tai-e in the forked JVM and writes "time_ms,peak_heap_mb"
+     * to the result file given as the first argument.
+     */
+    public static class Probe {
+
+        public static void main(String[] args) {
+            List<MemoryPoolMXBean> heapPools = ManagementFactory
+                    .getMemoryPoolMXBeans()
+                    .stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long start = System.nanoTime();
+            Main.main(Arrays.copyOfRange(args, 1, args.length));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            long peakBytes = heapPools.stream()
+                    .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                    .sum();
+            try (PrintStream out = new PrintStream(args[0])) {
+                out.printf(Locale.ROOT, "%d,%.1f%n",
+                        elapsedMs, peakBytes / (1024.0 * 1024.0));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
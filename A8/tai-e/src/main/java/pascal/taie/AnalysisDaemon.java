@@ -0,0 +1,239 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import pascal.taie.analysis.PlanScheduler;
+import pascal.taie.config.Options;
+import pascal.taie.config.PlanConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Long-running server mode of {@link Assignment}, which keeps the world
+ * and the JIT-compiled code warm across analysis requests.
+ * <p>
+ * Each request is a line of arguments as given to {@link Assignment},
+ * e.g., "-cp src/test/resources/pta/taint -m ArgToResult" (which runs
+ * plan.yml), or with the analyses given inline as in plan.yml, e.g.,
+ * "-cp ... -m ... -a cspta=cs:2-obj;taint-config:..." The output of
+ * the analyses is streamed back, followed by a line
+ * "{@value #END} ok|error &lt;elapsed-ms&gt; [message]".
+ * The world is built by {@link CachingWorldBuilder}, so consecutive
+ * requests on the same class path reuse the class hierarchy and IR.
+ * A line "{@value #SHUTDOWN}" stops the daemon.
+ * <p>
+ * Requests are read from stdin by default, or from local (loopback)
+ * socket connections if the daemon is started with "--port &lt;port&gt;".
+ * The world is global, thus requests are served one at a time.
+ * Logging goes to stderr, so that it does not mix with the replies.
+ * <p>
+ * Requests that would make {@link Main} exit the JVM (printing help,
+ * only generating the plan, giving no analyses or an invalid world
+ * builder) are rejected with an error reply.
+ */
+public class AnalysisDaemon {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisDaemon.class);
+
+    static final String END = "@@end";
+
+    static final String SHUTDOWN = "shutdown";
+
+    /**
+     * Logging configuration of the daemon, which logs to stderr.
+     */
+    private static final String LOG_CONFIG = "log4j2-daemon.yml";
+
+    private boolean shutdown = false;
+
+    public static void main(String[] args) throws IOException, URISyntaxException {
+        Configurator.reconfigure(Objects.requireNonNull(
+                AnalysisDaemon.class.getClassLoader().getResource(LOG_CONFIG)).toURI());
+        AnalysisDaemon daemon = new AnalysisDaemon();
+        if (args.length == 2 && args[0].equals("--port")) {
+            daemon.serve(Integer.parseInt(args[1]));
+        } else if (args.length == 0) {
+            daemon.serve(System.in, System.out);
+        } else {
+            System.out.println("Usage: [--port <PORT>]");
+        }
+    }
+
+    /**
+     * Serves connections on given port of the loopback address.
+     */
+    private void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(
+                port, 0, InetAddress.getLoopbackAddress())) {
+            logger.info("Analysis daemon listening on {}", server.getLocalSocketAddress());
+            while (!shutdown) {
+                try (Socket socket = server.accept()) {
+                    serve(socket.getInputStream(), socket.getOutputStream());
+                } catch (IOException e) {
+                    logger.warn("Connection failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Serves the requests read from given input, until the input ends
+     * or the daemon is shut down.
+     */
+    void serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8));
+        PrintStream client = new PrintStream(out, true, StandardCharsets.UTF_8);
+        String line;
+        while (!shutdown && (line = reader.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.equals(SHUTDOWN)) {
+                shutdown = true;
+                client.println(END + " ok 0");
+                break;
+            }
+            handle(tokenize(line), client);
+        }
+    }
+
+    /**
+     * Runs the request and redirects its output to the client.
+     */
+    private static void handle(List<String> request, PrintStream client) {
+        PrintStream stdout = System.out;
+        long start = System.nanoTime();
+        String status;
+        try {
+            String[] args = toMainArgs(request);
+            checkArgs(args);
+            System.setOut(client);
+            PlanScheduler.main(args);
+            status = "ok " + elapsedMs(start);
+        } catch (Throwable e) {
+            logger.error("Failed to run request " + request, e);
+            status = "error " + elapsedMs(start) + " " + e;
+        } finally {
+            System.setOut(stdout);
+        }
+        client.println(END + " " + status);
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Converts a request to the arguments of {@link Main}, in the same
+     * way as {@link Assignment}, except that plan.yml is not added
+     * to requests that give the analyses inline.
+     */
+    static String[] toMainArgs(List<String> request) {
+        List<String> argList = new ArrayList<>();
+        Collections.addAll(argList,
+                "--world-builder", CachingWorldBuilder.class.getName());
+        if (!request.contains("-pp") && !request.contains("--prepend-JVM")) {
+            argList.add("-pp");
+        }
+        if (!request.contains("-p") && !request.contains("--plan-file") &&
+                !request.contains("-a") && !request.contains("--analysis")) {
+            Collections.addAll(argList, "-p", "plan.yml");
+        }
+        argList.addAll(request);
+        return argList.toArray(new String[0]);
+    }
+
+    /**
+     * Checks that {@link Main} runs given arguments without exiting the JVM.
+     *
+     * @throws IllegalArgumentException if Main would exit the JVM.
+     */
+    static void checkArgs(String[] args) {
+        Options options = Options.parse(args);
+        if (options.isPrintHelp()) {
+            throw new IllegalArgumentException("Help is not supported by the daemon");
+        }
+        if (options.isOnlyGenPlan()) {
+            throw new IllegalArgumentException(
+                    "Generating plan only is not supported by the daemon");
+        }
+        if (options.getAnalyses().isEmpty() && (options.getPlanFile() == null ||
+                PlanConfig.readConfigs(options.getPlanFile()).isEmpty())) {
+            throw new IllegalArgumentException("No analyses are specified");
+        }
+        try {
+            options.getWorldBuilderClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(
+                    "Failed to create world builder " + options.getWorldBuilderClass(), e);
+        }
+    }
+
+    /**
+     * Splits a request line into arguments by whitespace;
+     * double quotes group an argument which contains whitespace.
+     */
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false, inToken = false;
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+}
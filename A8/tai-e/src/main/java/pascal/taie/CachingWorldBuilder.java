@@ -0,0 +1,149 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Options;
+import pascal.taie.frontend.soot.SootWorldBuilder;
+import pascal.taie.language.classes.JClass;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * World builder which reuses the world built by the previous invocation
+ * in the same JVM, when the class path (including the contents of
+ * its entries) and the options that affect world building are unchanged.
+ * <p>
+ * The cache lives only in memory and is not persisted across processes:
+ * {@link World}, the class hierarchy and the IR are not serializable,
+ * so a new process always builds the world from scratch.
+ * <p>
+ * The world is keyed by a hash of the class path entries (their paths,
+ * sizes and modification times), so that the hundreds of analyses run
+ * against the same JDK and application pay the cost of building the class
+ * hierarchy and IR only once. Enable it by option
+ * {@code --world-builder pascal.taie.CachingWorldBuilder}.
+ * <p>
+ * Only the most recently built world is kept: the IR of a world is built
+ * from the global state of Soot, which is reset whenever another world
+ * is built, so an older world cannot be safely reused.
+ */
+public class CachingWorldBuilder extends AbstractWorldBuilder {
+
+    private static final Logger logger = LogManager.getLogger(CachingWorldBuilder.class);
+
+    private static String cachedKey;
+
+    private static World cachedWorld;
+
+    private final WorldBuilder delegate = new SootWorldBuilder();
+
+    @Override
+    public void build(Options options, List<AnalysisConfig> analyses) {
+        String key = computeKey(options, analyses);
+        if (key.equals(cachedKey) && World.get() == cachedWorld) {
+            logger.info("Reusing world built for class path {}", key);
+            reuse(cachedWorld, options);
+        } else {
+            delegate.build(options, analyses);
+            cachedKey = key;
+            cachedWorld = World.get();
+        }
+    }
+
+    /**
+     * Clears the results of previous analyses, so that the analyses
+     * of this run start from the same state as on a freshly built world.
+     * Results stored in IR are overwritten when the analyses that
+     * produce them are re-run.
+     */
+    private static void reuse(World world, Options options) {
+        world.setOptions(options);
+        world.clearAll();
+        world.getClassHierarchy().allClasses().forEach(JClass::clearAll);
+    }
+
+    /**
+     * @return hash of the class path and the options that affect
+     * the built world.
+     */
+    static String computeKey(Options options, List<AnalysisConfig> analyses) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String entry : getClassPath(options).split(File.pathSeparator)) {
+            update(digest, entry);
+            Path path = Path.of(entry);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.filter(Files::isRegularFile)
+                            .sorted()
+                            .forEach(file -> updateFile(digest, file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else if (Files.exists(path)) {
+                updateFile(digest, path);
+            }
+        }
+        update(digest, options.getMainClass());
+        update(digest, options.getJavaVersion());
+        update(digest, options.isPreBuildIR());
+        update(digest, options.getScope());
+        update(digest, options.enableNativeModel());
+        // reflection logs add classes to the world
+        analyses.forEach(config -> update(digest,
+                config.getOptions().getString("reflection-log")));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void updateFile(MessageDigest digest, Path file) {
+        try {
+            update(digest, file);
+            update(digest, Files.size(file));
+            update(digest, Files.getLastModifiedTime(file).toMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, Object o) {
+        digest.update(String.valueOf(o).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisPlanner;
+import pascal.taie.config.ConfigManager;
+import pascal.taie.config.Configs;
+import pascal.taie.config.Options;
+import pascal.taie.config.PlanConfig;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+
+/**
+ * Executes an analysis plan, running independent program analyses
+ * concurrently.
+ * <p>
+ * The plan is executed in plan order by the {@link AnalysisManager},
+ * except that consecutive program analyses that do not depend on each
+ * other form a wave, whose analyses run concurrently, sharing
+ * {@value #THREADS_PROPERTY} (system property, defaults to the number
+ * of processors) threads. An analysis depends on the analyses that
+ * {@link AnalysisPlanner} adds to the plan for it, and on the analyses
+ * whose results it processes (given by option "analyses").
+ * Class and method analyses, which already run in parallel
+ * on the classes/methods in scope, run alone.
+ * <p>
+ * Results of a wave are stored in plan order after all analyses of
+ * the wave finish, so that running analyses never observe the results
+ * of each other. Analyses of a wave should print their output via
+ * {@link #getOutput()}, which is buffered for each analysis and printed
+ * in plan order, so that the output is the same as executing the plan
+ * sequentially. Output printed to {@link System#out} directly and
+ * logging are not buffered.
+ * <p>
+ * As IR is built lazily without synchronization, the plan is executed
+ * sequentially unless IR is pre-built.
+ */
+public class PlanScheduler {
+
+    private static final Logger logger = LogManager.getLogger(PlanScheduler.class);
+
+    /**
+     * System property for the number of threads that execute analyses.
+     */
+    public static final String THREADS_PROPERTY = "tai-e.plan.threads";
+
+    private final int threads;
+
+    private final AnalysisManager manager = new AnalysisManager();
+
+    public PlanScheduler(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Counterpart of {@link Main#main(String...)}, which executes
+     * the analysis plan by a {@link PlanScheduler}.
+     */
+    public static void main(String... args) {
+        run(Integer.getInteger(THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors()), args);
+    }
+
+    static void run(int threads, String... args) {
+        Options options = Options.parse(args);
+        List<AnalysisConfig> plan = options.isPrintHelp() || options.isOnlyGenPlan() ?
+                List.of() : makePlan(options);
+        if (plan.isEmpty()) {
+            // let Main print help, generate the plan or report
+            // that no analyses are given
+            Main.main(args);
+            return;
+        }
+        Timer.runAndCount(() -> {
+            Main.buildWorld(args);
+            new PlanScheduler(threads).execute(plan);
+        }, "Tai-e");
+    }
+
+    /**
+     * Makes the analysis plan given by the options, as {@link Main} does.
+     */
+    private static List<AnalysisConfig> makePlan(Options options) {
+        ConfigManager configManager = newConfigManager();
+        AnalysisPlanner planner = new AnalysisPlanner(configManager);
+        boolean reachableScope = options.getScope().equals("reachable");
+        if (!options.getAnalyses().isEmpty()) {
+            List<PlanConfig> planConfigs = PlanConfig.readConfigs(options);
+            configManager.overwriteOptions(planConfigs);
+            return planner.expandPlan(planConfigs, reachableScope);
+        } else if (options.getPlanFile() != null) {
+            List<PlanConfig> planConfigs = PlanConfig.readConfigs(options.getPlanFile());
+            configManager.overwriteOptions(planConfigs);
+            return planner.makePlan(planConfigs, reachableScope);
+        } else {
+            return List.of();
+        }
+    }
+
+    private static ConfigManager newConfigManager() {
+        return new ConfigManager(AnalysisConfig.parseConfigs(
+                Configs.getAnalysisConfig()));
+    }
+
+    public void execute(List<AnalysisConfig> plan) {
+        boolean concurrent = threads > 1 && plan.size() > 1 &&
+                World.get().getOptions().isPreBuildIR();
+        Set<AnalysisConfig> executed = new HashSet<>();
+        for (int i = 0; i < plan.size(); ) {
+            List<AnalysisConfig> wave = concurrent ?
+                    getWave(plan, i, executed) : List.of(plan.get(i));
+            if (wave.size() == 1) {
+                runAnalysis(wave.get(0));
+            } else {
+                logger.info("Executing {} concurrently", wave);
+                runConcurrently(wave);
+            }
+            executed.addAll(wave);
+            i += wave.size();
+        }
+    }
+
+    /**
+     * @return the wave of analyses that starts at {@code plan[start]}.
+     */
+    private static List<AnalysisConfig> getWave(
+            List<AnalysisConfig> plan, int start, Set<AnalysisConfig> executed) {
+        List<AnalysisConfig> wave = new ArrayList<>();
+        wave.add(plan.get(start));
+        if (isProgramAnalysis(plan.get(start))) {
+            for (int i = start + 1; i < plan.size(); ++i) {
+                AnalysisConfig config = plan.get(i);
+                if (!isProgramAnalysis(config) ||
+                        !executed.containsAll(getRequires(config, plan))) {
+                    break;
+                }
+                wave.add(config);
+            }
+        }
+        return wave;
+    }
+
+    private static boolean isProgramAnalysis(AnalysisConfig config) {
+        try {
+            return ProgramAnalysis.class.isAssignableFrom(
+                    Class.forName(config.getAnalysisClass()));
+        } catch (ClassNotFoundException e) {
+            throw new AnalysisException(
+                    "Failed to initialize " + config.getAnalysisClass(), e);
+        }
+    }
+
+    /**
+     * @return the analyses in the plan that given analysis depends on.
+     */
+    private static Set<AnalysisConfig> getRequires(
+            AnalysisConfig config, List<AnalysisConfig> plan) {
+        Set<String> ids = new HashSet<>();
+        // the planner expands a plan with the analyses that are
+        // (transitively) required by the analyses in the plan
+        ConfigManager configManager = newConfigManager();
+        List<PlanConfig> planConfigs = List.of(
+                new PlanConfig(config.getId(), config.getOptions()));
+        configManager.overwriteOptions(planConfigs);
+        new AnalysisPlanner(configManager)
+                .expandPlan(planConfigs, false)
+                .forEach(c -> ids.add(c.getId()));
+        if (config.getOptions().get("analyses") instanceof Collection<?> analyses) {
+            analyses.forEach(id -> ids.add(id.toString()));
+        }
+        ids.remove(config.getId());
+        Set<AnalysisConfig> requires = new LinkedHashSet<>();
+        plan.stream()
+                .filter(c -> ids.contains(c.getId()))
+                .forEach(requires::add);
+        return requires;
+    }
+
+    /**
+     * Runs an analysis by {@link AnalysisManager}.
+     */
+    private void runAnalysis(AnalysisConfig config) {
+        AnalysisEvent event = new AnalysisEvent(config.getId());
+        event.begin();
+        try {
+            manager.execute(List.of(config));
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void runConcurrently(List<AnalysisConfig> wave) {
+        World world = World.get();
+        ClassHierarchy hierarchy = world.getClassHierarchy();
+        TypeSystem typeSystem = world.getTypeSystem();
+        world.setClassHierarchy(new SynchronizedClassHierarchy(hierarchy));
+        world.setTypeSystem(new SynchronizedTypeSystem(typeSystem));
+        // each analysis runs on its own pool, whose threads (also used
+        // by the parallel streams of the analysis) carry its output
+        int parallelism = Math.max(1, threads / wave.size());
+        List<ByteArrayOutputStream> buffers = new ArrayList<>();
+        List<ForkJoinPool> pools = new ArrayList<>();
+        List<Future<Object>> futures = new ArrayList<>();
+        try {
+            for (AnalysisConfig config : wave) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+                ForkJoinPool pool = new ForkJoinPool(parallelism,
+                        p -> new AnalysisWorker(p, out), null, false);
+                buffers.add(buffer);
+                pools.add(pool);
+                futures.add(pool.submit(() -> analyze(config)));
+            }
+            for (int i = 0; i < wave.size(); ++i) {
+                Object result;
+                try {
+                    result = getResult(futures.get(i));
+                } finally {
+                    buffers.get(i).writeTo(System.out);
+                    System.out.flush();
+                }
+                if (result != null) {
+                    world.storeResult(wave.get(i).getId(), result);
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to print output of analyses", e);
+        } finally {
+            pools.forEach(ForkJoinPool::shutdownNow);
+            world.setClassHierarchy(hierarchy);
+            world.setTypeSystem(typeSystem);
+        }
+    }
+
+    /**
+     * Runs the program analysis of given config.
+     *
+     * @return the result of the analysis.
+     */
+    private static Object analyze(AnalysisConfig config) {
+        ProgramAnalysis analysis;
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            analysis = (ProgramAnalysis) clazz.getConstructor(AnalysisConfig.class)
+                    .newInstance(config);
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+        AnalysisEvent event = new AnalysisEvent(config.getId());
+        event.begin();
+        try {
+            return Timer.runAndCount(analysis::analyze, config.getId(), Level.INFO);
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static Object getResult(Future<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Interrupted while executing analyses", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new AnalysisException("Failed to execute analysis", e.getCause());
+        }
+    }
+
+    /**
+     * @return the stream to which the analysis running on the current
+     * thread should print its output.
+     */
+    public static PrintStream getOutput() {
+        return Thread.currentThread() instanceof AnalysisWorker worker ?
+                worker.out : System.out;
+    }
+
+    /**
+     * Worker thread of a concurrent analysis, which carries
+     * the output of the analysis.
+     */
+    private static class AnalysisWorker extends ForkJoinWorkerThread {
+
+        private final PrintStream out;
+
+        private AnalysisWorker(ForkJoinPool pool, PrintStream out) {
+            super(pool);
+            this.out = out;
+        }
+    }
+}
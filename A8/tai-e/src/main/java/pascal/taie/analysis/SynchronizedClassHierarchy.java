@@ -0,0 +1,176 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * Class hierarchy that can be shared by concurrent analyses.
+ * The hierarchy is complete once the world is built, and the only
+ * state that analyses modify is the cache of method dispatch,
+ * thus only dispatch is synchronized.
+ */
+class SynchronizedClassHierarchy implements ClassHierarchy {
+
+    private final ClassHierarchy hierarchy;
+
+    SynchronizedClassHierarchy(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    @Override
+    public synchronized JMethod dispatch(Type receiverType, MethodRef methodRef) {
+        return hierarchy.dispatch(receiverType, methodRef);
+    }
+
+    @Override
+    public synchronized JMethod dispatch(JClass receiverClass, MethodRef methodRef) {
+        return hierarchy.dispatch(receiverClass, methodRef);
+    }
+
+    @Override
+    public void setDefaultClassLoader(JClassLoader loader) {
+        hierarchy.setDefaultClassLoader(loader);
+    }
+
+    @Override
+    public JClassLoader getDefaultClassLoader() {
+        return hierarchy.getDefaultClassLoader();
+    }
+
+    @Override
+    public void setBootstrapClassLoader(JClassLoader loader) {
+        hierarchy.setBootstrapClassLoader(loader);
+    }
+
+    @Override
+    public JClassLoader getBootstrapClassLoader() {
+        return hierarchy.getBootstrapClassLoader();
+    }
+
+    @Override
+    public Collection<JClassLoader> getClassLoaders() {
+        return hierarchy.getClassLoaders();
+    }
+
+    @Override
+    public void addClass(JClass jclass) {
+        hierarchy.addClass(jclass);
+    }
+
+    @Override
+    public Stream<JClass> allClasses() {
+        return hierarchy.allClasses();
+    }
+
+    @Override
+    public Stream<JClass> applicationClasses() {
+        return hierarchy.applicationClasses();
+    }
+
+    @Override
+    public JClass getClass(JClassLoader loader, String name) {
+        return hierarchy.getClass(loader, name);
+    }
+
+    @Override
+    public JClass getClass(String name) {
+        return hierarchy.getClass(name);
+    }
+
+    @Override
+    public JMethod getMethod(String methodSig) {
+        return hierarchy.getMethod(methodSig);
+    }
+
+    @Override
+    public JField getField(String fieldSig) {
+        return hierarchy.getField(fieldSig);
+    }
+
+    @Override
+    public JClass getJREClass(String name) {
+        return hierarchy.getJREClass(name);
+    }
+
+    @Override
+    public JMethod getJREMethod(String methodSig) {
+        return hierarchy.getJREMethod(methodSig);
+    }
+
+    @Override
+    public JField getJREField(String fieldSig) {
+        return hierarchy.getJREField(fieldSig);
+    }
+
+    @Override
+    public JMethod resolveMethod(MethodRef methodRef) {
+        return hierarchy.resolveMethod(methodRef);
+    }
+
+    @Override
+    public JField resolveField(FieldRef fieldRef) {
+        return hierarchy.resolveField(fieldRef);
+    }
+
+    @Override
+    public Collection<JClass> getDirectSubinterfacesOf(JClass jclass) {
+        return hierarchy.getDirectSubinterfacesOf(jclass);
+    }
+
+    @Override
+    public Collection<JClass> getDirectImplementorsOf(JClass jclass) {
+        return hierarchy.getDirectImplementorsOf(jclass);
+    }
+
+    @Override
+    public Collection<JClass> getDirectSubclassesOf(JClass jclass) {
+        return hierarchy.getDirectSubclassesOf(jclass);
+    }
+
+    @Override
+    public boolean isSubclass(JClass superclass, JClass subclass) {
+        return hierarchy.isSubclass(superclass, subclass);
+    }
+
+    @Override
+    public Collection<JClass> getAllSubclassesOf(JClass jclass, boolean selfInclude) {
+        return hierarchy.getAllSubclassesOf(jclass, selfInclude);
+    }
+
+    @Override
+    public Collection<JClass> getDirectInnerClassesOf(JClass jclass) {
+        return hierarchy.getDirectInnerClassesOf(jclass);
+    }
+}
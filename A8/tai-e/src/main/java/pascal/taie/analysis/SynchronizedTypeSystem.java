@@ -0,0 +1,85 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+
+/**
+ * Type system that can be shared by concurrent analyses.
+ * Class types are cached in a map that is not thread-safe,
+ * thus the methods that may create class types are synchronized.
+ */
+class SynchronizedTypeSystem implements TypeSystem {
+
+    private final TypeSystem typeSystem;
+
+    SynchronizedTypeSystem(TypeSystem typeSystem) {
+        this.typeSystem = typeSystem;
+    }
+
+    @Override
+    public synchronized Type getType(JClassLoader loader, String typeName) {
+        return typeSystem.getType(loader, typeName);
+    }
+
+    @Override
+    public synchronized Type getType(String typeName) {
+        return typeSystem.getType(typeName);
+    }
+
+    @Override
+    public synchronized ClassType getClassType(JClassLoader loader, String className) {
+        return typeSystem.getClassType(loader, className);
+    }
+
+    @Override
+    public synchronized ClassType getClassType(String className) {
+        return typeSystem.getClassType(className);
+    }
+
+    @Override
+    public ArrayType getArrayType(Type baseType, int dimensions) {
+        return typeSystem.getArrayType(baseType, dimensions);
+    }
+
+    @Override
+    public ClassType getBoxedType(PrimitiveType type) {
+        return typeSystem.getBoxedType(type);
+    }
+
+    @Override
+    public PrimitiveType getUnboxedType(ClassType type) {
+        return typeSystem.getUnboxedType(type);
+    }
+
+    @Override
+    public boolean isSubtype(Type supertype, Type subtype) {
+        return typeSystem.isSubtype(supertype, subtype);
+    }
+}
@@ -23,7 +23,7 @@
 package pascal.taie.analysis;
 
 import pascal.taie.Main;
-import pascal.taie.analysis.misc.ClassDumper;
+import pascal.taie.analysis.misc.ParallelClassDumper;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -61,7 +61,7 @@ public final class Tests {
         Collections.addAll(args, "-m", main);
         if (DUMP_IR) {
             // dump IR
-            Collections.addAll(args, "-a", ClassDumper.ID);
+            Collections.addAll(args, "-a", ParallelClassDumper.ID);
         }
         List<String> ptaArgs = new ArrayList<>();
         ptaArgs.add("implicit-entries:false");
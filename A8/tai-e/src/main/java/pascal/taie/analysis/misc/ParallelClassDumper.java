@@ -0,0 +1,436 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.misc;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.Type;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Dumps the IR of application classes to the output directory.
+ * Classes are formatted in parallel, and each dump is written
+ * with a single channel write, either to its own file or,
+ * if option "zip" is given, to one zip archive.
+ * With option "skip-up-to-date", classes whose dump is newer than
+ * their class file (or the jar containing it) on the class path
+ * are not dumped again, provided that the output directory holds
+ * dumps of the current format version.
+ */
+public class ParallelClassDumper extends ProgramAnalysis {
+
+    public static final String ID = "class-dumper";
+
+    private static final Logger logger = LogManager.getLogger(ParallelClassDumper.class);
+
+    private static final String SUFFIX = ".tir";
+
+    /**
+     * Version of the dump format. Bump it whenever {@link Dumper}
+     * changes its output, so that existing dumps are not taken as
+     * up to date.
+     */
+    static final String FORMAT_VERSION = "1";
+
+    /**
+     * File in the output directory which records the format version
+     * of the dumps in that directory.
+     */
+    static final String FORMAT_MARKER = ".tir-format";
+
+    private static final String INDENT = "    ";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Number of classes formatted in parallel before they are written
+     * to the zip archive, which bounds the memory held by formatted dumps.
+     */
+    private static final int ZIP_BATCH_SIZE = 1024;
+
+    public ParallelClassDumper(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public Object analyze() {
+        List<JClass> classes = World.get().getClassHierarchy()
+                .applicationClasses()
+                .toList();
+        File outputDir = Configs.getOutputDir();
+        logger.info("Dumping {} classes to {} ...", classes.size(), outputDir);
+        String zip = getOptions().getString("zip");
+        if (zip != null) {
+            dumpToZip(classes, new File(outputDir, zip).toPath());
+        } else {
+            dumpToFiles(classes, outputDir.toPath(),
+                    getOptions().getBooleanOrDefault("skip-up-to-date", false));
+        }
+        return null;
+    }
+
+    private static void dumpToFiles(
+            List<JClass> classes, Path outputDir, boolean skipUpToDate) {
+        Path marker = outputDir.resolve(FORMAT_MARKER);
+        if (skipUpToDate && !hasCurrentFormat(marker)) {
+            logger.info("Dumps in {} are not of format version {}, dumping all classes",
+                    outputDir, FORMAT_VERSION);
+            skipUpToDate = false;
+        }
+        // remove the marker while dumping, so that the dumps of
+        // an interrupted or failed run are never taken as up to date
+        try {
+            Files.deleteIfExists(marker);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {}, caused by {}", marker, e);
+            return;
+        }
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        try (ClassPathTimestamps timestamps = skipUpToDate ?
+                new ClassPathTimestamps(World.get().getOptions().getClassPath()) :
+                null) {
+            classes.parallelStream().forEach(c -> {
+                Path file = outputDir.resolve(c.getName() + SUFFIX);
+                if (timestamps != null && timestamps.isUpToDate(c, file)) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                try (FileChannel channel = FileChannel.open(file,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(new Dumper(c).dump());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } catch (IOException e) {
+                    logger.warn("Failed to dump class {}, caused by {}", c, e);
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        if (skipped.get() > 0) {
+            logger.info("Skipped {} classes whose dumps are up to date",
+                    skipped.get());
+        }
+        if (failed.get() == 0) {
+            try {
+                Files.writeString(marker, FORMAT_VERSION);
+            } catch (IOException e) {
+                logger.warn("Failed to write {}, caused by {}", marker, e);
+            }
+        }
+    }
+
+    private static boolean hasCurrentFormat(Path marker) {
+        try {
+            return Files.exists(marker) &&
+                    Files.readString(marker).equals(FORMAT_VERSION);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void dumpToZip(List<JClass> classes, Path zipFile) {
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(FileChannel.open(zipFile,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)),
+                BUFFER_SIZE))) {
+            for (int i = 0; i < classes.size(); i += ZIP_BATCH_SIZE) {
+                List<JClass> batch = classes.subList(
+                        i, Math.min(i + ZIP_BATCH_SIZE, classes.size()));
+                List<byte[]> dumps = batch.parallelStream()
+                        .map(c -> new Dumper(c).dump())
+                        .toList();
+                for (int j = 0; j < batch.size(); ++j) {
+                    zip.putNextEntry(new ZipEntry(batch.get(j).getName() + SUFFIX));
+                    zip.write(dumps.get(j));
+                    zip.closeEntry();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to dump classes to {}, caused by {}", zipFile, e);
+        }
+    }
+
+    /**
+     * Looks up the last-modified time of the class path entry
+     * from which a class is loaded: the class file (or source file)
+     * for directories, and the jar itself for jars.
+     */
+    private static class ClassPathTimestamps implements AutoCloseable {
+
+        private final List<Path> dirs = new ArrayList<>();
+
+        private final Map<ZipFile, Long> jars = new LinkedHashMap<>();
+
+        private ClassPathTimestamps(String classPath) {
+            if (classPath == null) {
+                return;
+            }
+            for (String entry : classPath.split(File.pathSeparator)) {
+                Path path = Path.of(entry);
+                if (Files.isDirectory(path)) {
+                    dirs.add(path);
+                } else if (Files.isRegularFile(path)) {
+                    try {
+                        jars.put(new ZipFile(path.toFile()),
+                                Files.getLastModifiedTime(path).toMillis());
+                    } catch (IOException e) {
+                        logger.warn("Failed to open class path entry {}, caused by {}",
+                                path, e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if {@code dump} exists and is newer than
+         * the class path entry of {@code jclass}. Classes that are not found
+         * on the class path (e.g., those of the JDK) are never up to date.
+         */
+        private boolean isUpToDate(JClass jclass, Path dump) {
+            long timestamp = getTimestamp(jclass);
+            try {
+                return timestamp >= 0 && Files.exists(dump) &&
+                        Files.getLastModifiedTime(dump).toMillis() > timestamp;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private long getTimestamp(JClass jclass) {
+            String binaryName = jclass.getName().replace('.', '/');
+            String sourceName = binaryName.contains("$") ?
+                    binaryName.substring(0, binaryName.indexOf('$')) : binaryName;
+            for (Path dir : dirs) {
+                for (String name : List.of(binaryName + ".class", sourceName + ".java")) {
+                    Path file = dir.resolve(name);
+                    try {
+                        if (Files.exists(file)) {
+                            return Files.getLastModifiedTime(file).toMillis();
+                        }
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+            String entryName = binaryName + ".class";
+            for (Map.Entry<ZipFile, Long> jar : jars.entrySet()) {
+                if (jar.getKey().getEntry(entryName) != null) {
+                    return jar.getValue();
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            for (ZipFile jar : jars.keySet()) {
+                try {
+                    jar.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats the IR of a class into a byte array.
+     */
+    private static class Dumper {
+
+        private final JClass jclass;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+
+        private final PrintStream out = new PrintStream(
+                bytes, false, StandardCharsets.UTF_8);
+
+        private Dumper(JClass jclass) {
+            this.jclass = jclass;
+        }
+
+        private byte[] dump() {
+            dumpClassDeclaration();
+            out.println(" {");
+            out.println();
+            if (!jclass.getDeclaredFields().isEmpty()) {
+                jclass.getDeclaredFields().forEach(this::dumpField);
+                out.println();
+            }
+            jclass.getDeclaredMethods().forEach(this::dumpMethod);
+            out.println("}");
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        private void dumpClassDeclaration() {
+            // dump class modifiers
+            jclass.getModifiers()
+                    .stream()
+                    // if jclass is an interface, then don't dump modifiers
+                    // "interface" and "abstract"
+                    .filter(m -> !jclass.isInterface() ||
+                            (m != Modifier.INTERFACE && m != Modifier.ABSTRACT))
+                    .forEach(m -> out.print(m + " "));
+            // dump class type
+            if (jclass.isInterface()) {
+                out.print("interface");
+            } else {
+                out.print("class");
+            }
+            out.print(' ');
+            // dump class name
+            out.print(jclass.getName());
+            // dump super class
+            JClass superClass = jclass.getSuperClass();
+            if (superClass != null) {
+                out.print(" extends ");
+                out.print(superClass.getName());
+            }
+            // dump interfaces
+            if (!jclass.getInterfaces().isEmpty()) {
+                out.print(" implements ");
+                out.print(jclass.getInterfaces()
+                        .stream()
+                        .map(JClass::getName)
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+
+        private void dumpField(JField field) {
+            out.print(INDENT);
+            dumpModifiers(field.getModifiers());
+            out.printf("%s %s;%n", field.getType().getName(), field.getName());
+        }
+
+        private void dumpModifiers(Set<Modifier> mods) {
+            mods.forEach(m -> out.print(m + " "));
+        }
+
+        private void dumpMethod(JMethod method) {
+            out.print(INDENT);
+            dumpMethodDeclaration(method);
+            if (hasIR(method)) {
+                out.println(" {");
+                IR ir = method.getIR();
+                // dump variables
+                dumpVariables(ir);
+                // dump statements
+                ir.forEach(s -> out.printf("%s%s%s%n",
+                        INDENT, INDENT, IRPrinter.toString(s)));
+                // dump exception entries
+                if (!ir.getExceptionEntries().isEmpty()) {
+                    out.println();
+                    ir.getExceptionEntries().forEach(e ->
+                            out.printf("%s%s%s%n", INDENT, INDENT, e));
+                }
+                out.printf("%s}%n", INDENT);
+            } else {
+                out.println(";");
+            }
+            out.println();
+        }
+
+        private void dumpMethodDeclaration(JMethod method) {
+            dumpModifiers(method.getModifiers());
+            out.printf("%s %s(", method.getReturnType(), method.getName());
+            // dump parameters
+            if (method.getParamCount() > 0) {
+                if (hasIR(method)) {
+                    out.print(method.getIR().getParams()
+                            .stream()
+                            .map(p -> p.getType().getName() + " " + p.getName())
+                            .collect(Collectors.joining(", ")));
+                } else {
+                    out.print(method.getParamTypes()
+                            .stream()
+                            .map(Type::getName)
+                            .collect(Collectors.joining(", ")));
+                }
+            }
+            out.print(')');
+        }
+
+        private static boolean hasIR(JMethod method) {
+            return !method.isAbstract();
+        }
+
+        private void dumpVariables(IR ir) {
+            // group variables by their types;
+            Map<Type, List<Var>> vars = new LinkedHashMap<>();
+            ir.getVars()
+                    .stream()
+                    .filter(v -> v != ir.getThis())
+                    .filter(v -> !ir.getParams().contains(v))
+                    .filter(v -> !v.getType().equals(NullType.NULL))
+                    .forEach(v -> vars.computeIfAbsent(v.getType(),
+                                    (unused) -> new ArrayList<>())
+                            .add(v));
+            vars.forEach((t, vs) -> {
+                out.printf("%s%s%s ", INDENT, INDENT, t);
+                out.print(vs.stream()
+                        .map(Var::getName)
+                        .collect(Collectors.joining(", ")));
+                out.println(";");
+            });
+        }
+    }
+}
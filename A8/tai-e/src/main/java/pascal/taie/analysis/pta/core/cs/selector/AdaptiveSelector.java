@@ -0,0 +1,127 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Selects contexts by a delegate selector, but limits the context depth
+ * of the methods that have been degraded, e.g., because they produce
+ * too many contexts. Contexts of degraded methods are truncated to their
+ * most recent elements, and the heap contexts of objects allocated in
+ * degraded methods are truncated in the same way.
+ */
+public class AdaptiveSelector implements ContextSelector {
+
+    private final ContextSelector delegate;
+
+    /**
+     * Map from degraded methods to their context depth limits.
+     */
+    private final Map<JMethod, Integer> depthLimits = Maps.newMap();
+
+    /**
+     * The maximum length of the contexts selected by the delegate so far.
+     */
+    private int maxDepth = 0;
+
+    public AdaptiveSelector(ContextSelector delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Lowers the context depth limit of given method by one.
+     *
+     * @return the new depth limit of the method, or -1 if the method
+     * is already analyzed context-insensitively.
+     */
+    public int degrade(JMethod method) {
+        int limit = depthLimits.getOrDefault(method, maxDepth);
+        if (limit == 0) {
+            return -1;
+        }
+        depthLimits.put(method, limit - 1);
+        return limit - 1;
+    }
+
+    /**
+     * @return true if given method can still be degraded.
+     */
+    public boolean isDegradable(JMethod method) {
+        return depthLimits.getOrDefault(method, maxDepth) > 0;
+    }
+
+    /**
+     * @return the degraded methods and their context depth limits.
+     */
+    public Map<JMethod, Integer> getDegradedMethods() {
+        return Collections.unmodifiableMap(depthLimits);
+    }
+
+    @Override
+    public Context getEmptyContext() {
+        return delegate.getEmptyContext();
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, JMethod callee) {
+        return limit(callee, delegate.selectContext(callSite, callee));
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+        return limit(callee, delegate.selectContext(callSite, recv, callee));
+    }
+
+    @Override
+    public Context selectHeapContext(CSMethod method, Obj obj) {
+        return limit(method.getMethod(), delegate.selectHeapContext(method, obj));
+    }
+
+    private Context limit(JMethod method, Context context) {
+        int length = context.getLength();
+        maxDepth = Math.max(maxDepth, length);
+        Integer limit = depthLimits.get(method);
+        if (limit == null || length <= limit) {
+            return context;
+        }
+        if (limit == 0) {
+            return getEmptyContext();
+        }
+        Object[] elements = new Object[limit];
+        for (int i = 0; i < limit; ++i) {
+            elements[i] = context.getElementAt(length - limit + i);
+        }
+        return ListContext.make(elements);
+    }
+}
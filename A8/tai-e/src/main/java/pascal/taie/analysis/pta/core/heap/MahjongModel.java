@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.heap;
+
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heap model which merges type-consistent allocation sites into one
+ * abstract object (see {@link pascal.taie.analysis.pta.toolkit.mahjong.Mahjong}),
+ * and otherwise behaves like the given delegate heap model.
+ * The groups of objects to be merged must have been computed with
+ * the same delegate, so that the objects are identical. The first object
+ * of each group represents the group.
+ */
+public class MahjongModel implements HeapModel {
+
+    private static final String MERGED_DESC = "<Mahjong merged objects of %s>";
+
+    private final HeapModel delegate;
+
+    /**
+     * Map from a merged object to its representative merged object.
+     */
+    private final Map<Obj, MergedObj> mergedObjs = Maps.newMap();
+
+    public MahjongModel(HeapModel delegate, Collection<List<Obj>> groups) {
+        this.delegate = delegate;
+        for (List<Obj> group : groups) {
+            Obj first = group.get(0);
+            MergedObj merged = new MergedObj(first.getType(),
+                    String.format(MERGED_DESC, first));
+            for (Obj obj : group) {
+                merged.addRepresentedObj(obj);
+                mergedObjs.put(obj, merged);
+            }
+        }
+    }
+
+    @Override
+    public Obj getObj(New allocSite) {
+        Obj obj = delegate.getObj(allocSite);
+        MergedObj merged = mergedObjs.get(obj);
+        return merged != null ? merged : obj;
+    }
+
+    @Override
+    public Obj getConstantObj(ReferenceLiteral value) {
+        return delegate.getConstantObj(value);
+    }
+}
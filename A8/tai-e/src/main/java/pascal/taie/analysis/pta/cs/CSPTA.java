@@ -22,19 +22,30 @@
 
 package pascal.taie.analysis.pta.cs;
 
+import org.apache.logging.log4j.Level;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MahjongModel;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
+import pascal.taie.analysis.pta.toolkit.mahjong.Mahjong;
+import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Strings;
+import pascal.taie.util.Timer;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Context-sensitive pointer analysis.
@@ -43,22 +54,105 @@ public class CSPTA extends ProgramAnalysis {
 
     public static final String ID = "cspta";
 
+    /**
+     * Prefix of the context-sensitivity variants guided by Zipper,
+     * e.g., "zipper" (which means "zipper-2-obj") and "zipper-1-obj".
+     */
+    private static final String ZIPPER = "zipper";
+
+    private static final String ZIPPER_DEFAULT_CS = "2-obj";
+
+    /**
+     * Value of option "heap-model" which enables Mahjong heap model.
+     */
+    private static final String MAHJONG = "mahjong";
+
+    /**
+     * Heap model given by the creator of this analysis, or null if
+     * the heap model is built from the options.
+     */
+    @Nullable
+    private final HeapModel heapModel;
+
     public CSPTA(AnalysisConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * Creates a pointer analysis which allocates objects by given heap
+     * model, so that its result shares the objects with other analyses
+     * using the same model, e.g., demand-driven queries.
+     */
+    public CSPTA(AnalysisConfig config, @Nullable HeapModel heapModel) {
         super(config);
+        this.heapModel = heapModel;
     }
 
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
+        HeapModel heapModel = this.heapModel != null ? this.heapModel :
+                new AllocationSiteBasedModel(options);
+        String cs = options.getString("cs");
+        boolean mahjong = MAHJONG.equals(options.getString("heap-model"));
+        PointerAnalysisResult preResult = null;
+        if (mahjong || cs.startsWith(ZIPPER)) {
+            preResult = runContextInsensitive(options, heapModel);
+        }
+        if (mahjong) {
+            heapModel = new MahjongModel(heapModel,
+                    new Mahjong(preResult).computeEquivalentObjects());
+        }
+        ContextSelector selector = cs.startsWith(ZIPPER) ?
+                getZipperSelector(preResult, cs) :
+                getContextSelector(cs);
+        Solver solver = new Solver(options, heapModel, selector);
         solver.solve();
         PointerAnalysisResult result = solver.getResult();
         ResultProcessor.process(options, result);
         return result;
     }
 
+    /**
+     * Runs the context-insensitive pre-analysis required by Zipper
+     * and Mahjong with given heap model.
+     */
+    static PointerAnalysisResult runContextInsensitive(
+            AnalysisOptions options, HeapModel heapModel) {
+        Solver preSolver = new Solver(getPreAnalysisOptions(options),
+                heapModel, new CISelector());
+        return Timer.runAndCount(() -> {
+            preSolver.solve();
+            return preSolver.getResult();
+        }, "Context-insensitive pre-analysis", Level.INFO);
+    }
+
+    /**
+     * @return the options of the pre-analysis. Only the options that
+     * affect points-to sets are carried over, so that taint analysis,
+     * metrics, JFR events, context budget and points-to set interning
+     * of the main analysis are not run (or overwritten) by the pre-analysis.
+     */
+    private static AnalysisOptions getPreAnalysisOptions(AnalysisOptions options) {
+        return new AnalysisOptions(Map.of(
+                "type-filter", options.getBooleanOrDefault("type-filter", false),
+                "jfr-events", false));
+    }
+
+    /**
+     * Makes a selector which applies context sensitivity only to
+     * the precision-critical methods selected by Zipper.
+     */
+    private static ContextSelector getZipperSelector(
+            PointerAnalysisResult preResult, String cs) {
+        String variant = cs.equals(ZIPPER) ? ZIPPER_DEFAULT_CS :
+                cs.substring(ZIPPER.length() + 1);
+        ContextSelector delegate = getContextSelector(variant);
+        Set<JMethod> csMethods = new Zipper(preResult)
+                .selectPrecisionCriticalMethods();
+        return new SelectiveSelector(delegate, csMethods);
+    }
+
     private static ContextSelector getContextSelector(String cs) {
         if (cs.equals("ci")) {
             return new CISelector();
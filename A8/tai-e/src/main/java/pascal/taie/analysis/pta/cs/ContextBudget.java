@@ -0,0 +1,179 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.selector.AdaptiveSelector;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monitors the number of contexts of each method and the heap usage
+ * during solving, and degrades the methods that exceed the budget to
+ * shallower contexts via {@link AdaptiveSelector}, so that the analysis
+ * keeps going (with less precision) instead of running out of memory.
+ * <p>
+ * Heap usage is measured right after garbage collections, i.e., it is
+ * the size of live data instead of the size of the heap including
+ * uncollected garbage, and it is checked whenever a collection has
+ * happened since the last check. When it exceeds the budget, all
+ * degradable methods whose numbers of contexts are at least half of
+ * the largest one are degraded together, so that which methods are
+ * degraded is decided by the numbers of contexts alone.
+ */
+class ContextBudget {
+
+    private static final Logger logger = LogManager.getLogger(ContextBudget.class);
+
+    private final AdaptiveSelector selector;
+
+    /**
+     * Maximum number of new contexts of a method before it is degraded,
+     * non-positive if unlimited.
+     */
+    private final int maxContextsPerMethod;
+
+    /**
+     * Maximum ratio of used heap to maximum heap, non-positive if unlimited.
+     */
+    private final float maxHeapUsage;
+
+    /**
+     * Number of contexts of each method created since its last degradation.
+     */
+    private final Map<JMethod, Integer> contextCounts = Maps.newMap();
+
+    /**
+     * Heap memory pools that report their usage after garbage collections.
+     */
+    private final List<MemoryPoolMXBean> heapPools;
+
+    private final List<GarbageCollectorMXBean> collectors;
+
+    /**
+     * Total number of garbage collections at the last heap check.
+     */
+    private long lastCollectionCount = -1;
+
+    ContextBudget(AdaptiveSelector selector,
+                  int maxContextsPerMethod, float maxHeapUsage) {
+        this.selector = selector;
+        this.maxContextsPerMethod = maxContextsPerMethod;
+        this.maxHeapUsage = maxHeapUsage;
+        this.heapPools = ManagementFactory.getMemoryPoolMXBeans()
+                .stream()
+                .filter(p -> p.getType() == MemoryType.HEAP &&
+                        p.getCollectionUsage() != null)
+                .toList();
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    }
+
+    /**
+     * Records a new reachable context-sensitive method, and degrades
+     * methods if the budget is exceeded.
+     */
+    void onNewCSMethod(CSMethod csMethod) {
+        JMethod method = csMethod.getMethod();
+        int count = contextCounts.merge(method, 1, Integer::sum);
+        if (maxContextsPerMethod > 0 && count > maxContextsPerMethod &&
+                selector.isDegradable(method)) {
+            degrade(method, count, "too many contexts");
+        }
+        if (maxHeapUsage > 0) {
+            long collectionCount = getCollectionCount();
+            if (collectionCount != lastCollectionCount) {
+                lastCollectionCount = collectionCount;
+                checkHeap();
+            }
+        }
+    }
+
+    private long getCollectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private void checkHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        long max = Runtime.getRuntime().maxMemory();
+        if (used > maxHeapUsage * max) {
+            List<Map.Entry<JMethod, Integer>> degradable = contextCounts.entrySet()
+                    .stream()
+                    .filter(e -> e.getValue() > 0 && selector.isDegradable(e.getKey()))
+                    .toList();
+            int maxCount = degradable.stream()
+                    .mapToInt(Map.Entry::getValue)
+                    .max()
+                    .orElse(0);
+            String reason = String.format("heap usage %.1f%% after GC",
+                    100.0 * used / max);
+            degradable.stream()
+                    .filter(e -> 2 * e.getValue() >= maxCount)
+                    .sorted(Comparator.comparing((Map.Entry<JMethod, Integer> e) ->
+                                    -e.getValue())
+                            .thenComparing(e -> e.getKey().getSignature()))
+                    .toList()
+                    .forEach(e -> degrade(e.getKey(), e.getValue(), reason));
+        }
+    }
+
+    private void degrade(JMethod method, int count, String reason) {
+        int depth = selector.degrade(method);
+        contextCounts.put(method, 0);
+        logger.info("Degraded {} to context depth {} ({} contexts, {})",
+                method, depth, count, reason);
+    }
+
+    /**
+     * Logs the methods that have been degraded.
+     */
+    void report() {
+        Map<JMethod, Integer> degraded = selector.getDegradedMethods();
+        if (!degraded.isEmpty()) {
+            logger.info("{} method(s) were analyzed with shallower contexts:",
+                    degraded.size());
+            degraded.forEach((m, depth) ->
+                    logger.info("  {} (context depth {})", m, depth));
+        }
+    }
+}
@@ -23,20 +23,60 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
-import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
+ * <p>
+ * Each pointer (node) is assigned a dense ID when it is first added to
+ * this PFG, and its successors are kept as a growable array of IDs.
+ * Pointers are unique objects managed by CSManager, so the IDs are kept
+ * in an identity-based int map, and looking them up involves no boxing.
+ * Most nodes have only a few successors, so duplicate edges are detected
+ * by linear scan; nodes whose out-degree exceeds {@link #INDEX_THRESHOLD}
+ * additionally maintain a compact hash index of their successor IDs.
  */
 class PointerFlowGraph {
 
     /**
-     * Map from a pointer (node) to its successors in PFG.
+     * Out-degree above which a node builds a hash index for its successors.
      */
-    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+    static final int INDEX_THRESHOLD = 16;
+
+    private static final int DEFAULT_NODE_CAPACITY = 1024;
+
+    private static final int DEFAULT_SUCC_CAPACITY = 2;
+
+    private static final int[] NO_SUCCS = {};
+
+    /**
+     * Map from a pointer (node) to its ID in this PFG.
+     */
+    private final PointerIdMap ids = new PointerIdMap(DEFAULT_NODE_CAPACITY);
+
+    /**
+     * Pointers (nodes) in this PFG, indexed by their IDs.
+     */
+    private final List<Pointer> nodes = new ArrayList<>();
+
+    /**
+     * successors[i] holds the IDs of successors of node i in
+     * its first succCounts[i] slots.
+     */
+    private int[][] successors = new int[DEFAULT_NODE_CAPACITY][];
+
+    private int[] succCounts = new int[DEFAULT_NODE_CAPACITY];
+
+    /**
+     * Hash indexes of successors of high-degree nodes, null for the others.
+     */
+    private IntSet[] succIndexes = new IntSet[DEFAULT_NODE_CAPACITY];
+
+    private int edgeCount = 0;
 
     /**
      * Adds an edge (source -> target) to this PFG.
@@ -45,13 +85,259 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        int s = getId(source);
+        int t = getId(target);
+        if (hasEdge(s, t)) {
+            return false;
+        }
+        int[] succs = successors[s];
+        int count = succCounts[s];
+        if (succs == NO_SUCCS) {
+            succs = successors[s] = new int[DEFAULT_SUCC_CAPACITY];
+        } else if (count == succs.length) {
+            succs = successors[s] = Arrays.copyOf(succs, count << 1);
+        }
+        succs[count] = t;
+        succCounts[s] = ++count;
+        if (succIndexes[s] != null) {
+            succIndexes[s].add(t);
+        } else if (count > INDEX_THRESHOLD) {
+            IntSet index = new IntSet(count << 1);
+            for (int i = 0; i < count; ++i) {
+                index.add(succs[i]);
+            }
+            succIndexes[s] = index;
+        }
+        ++edgeCount;
+        return true;
+    }
+
+    /**
+     * Performs the given action for each successor of given pointer
+     * in the PFG, in the order in which the edges were added.
+     */
+    void forEachSuccOf(Pointer pointer, Consumer<Pointer> action) {
+        int id = ids.get(pointer);
+        if (id != PointerIdMap.ABSENT) {
+            int[] succs = successors[id];
+            int count = succCounts[id];
+            for (int i = 0; i < count; ++i) {
+                action.accept(nodes.get(succs[i]));
+            }
+        }
+    }
+
+    /**
+     * @return the number of successors of given pointer in the PFG.
+     */
+    int getOutDegreeOf(Pointer pointer) {
+        int id = ids.get(pointer);
+        return id != PointerIdMap.ABSENT ? succCounts[id] : 0;
+    }
+
+    /**
+     * @return the number of nodes in this PFG.
+     */
+    int getNumberOfNodes() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the number of edges in this PFG.
+     */
+    int getNumberOfEdges() {
+        return edgeCount;
+    }
+
+    /**
+     * @return the ID of given pointer, assigns a new one if the pointer
+     * is not in this PFG yet.
+     */
+    private int getId(Pointer pointer) {
+        int newId = nodes.size();
+        int id = ids.putIfAbsent(pointer, newId);
+        if (id != PointerIdMap.ABSENT) {
+            return id;
+        }
+        nodes.add(pointer);
+        if (newId == successors.length) {
+            int capacity = newId << 1;
+            successors = Arrays.copyOf(successors, capacity);
+            succCounts = Arrays.copyOf(succCounts, capacity);
+            succIndexes = Arrays.copyOf(succIndexes, capacity);
+        }
+        successors[newId] = NO_SUCCS;
+        return newId;
+    }
+
+    private boolean hasEdge(int source, int target) {
+        IntSet index = succIndexes[source];
+        if (index != null) {
+            return index.contains(target);
+        }
+        int[] succs = successors[source];
+        int count = succCounts[source];
+        for (int i = 0; i < count; ++i) {
+            if (succs[i] == target) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * @return successors of given pointer in the PFG.
+     * Open-addressing map from pointers, compared by identity,
+     * to non-negative int IDs.
      */
-    Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+    private static class PointerIdMap {
+
+        private static final int ABSENT = -1;
+
+        private Pointer[] keys;
+
+        private int[] values;
+
+        private int size = 0;
+
+        private PointerIdMap(int expectedSize) {
+            int capacity = Integer.highestOneBit(expectedSize) << 2;
+            keys = new Pointer[capacity];
+            values = new int[capacity];
+        }
+
+        /**
+         * @return the ID of given pointer, or {@link #ABSENT} if
+         * it is not in this map.
+         */
+        private int get(Pointer pointer) {
+            int mask = keys.length - 1;
+            for (int i = hash(pointer) & mask; ; i = (i + 1) & mask) {
+                Pointer k = keys[i];
+                if (k == pointer) {
+                    return values[i];
+                } else if (k == null) {
+                    return ABSENT;
+                }
+            }
+        }
+
+        /**
+         * Associates given pointer with given ID if the pointer
+         * is not in this map yet.
+         *
+         * @return the existing ID of the pointer, or {@link #ABSENT}
+         * if the given ID was associated.
+         */
+        private int putIfAbsent(Pointer pointer, int id) {
+            int mask = keys.length - 1;
+            int i = hash(pointer) & mask;
+            for (Pointer k; (k = keys[i]) != null; i = (i + 1) & mask) {
+                if (k == pointer) {
+                    return values[i];
+                }
+            }
+            keys[i] = pointer;
+            values[i] = id;
+            if (++size << 1 > keys.length) {
+                rehash();
+            }
+            return ABSENT;
+        }
+
+        private void rehash() {
+            Pointer[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new Pointer[oldKeys.length << 1];
+            values = new int[oldKeys.length << 1];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; ++j) {
+                Pointer k = oldKeys[j];
+                if (k != null) {
+                    int i = hash(k) & mask;
+                    while (keys[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = k;
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int hash(Pointer pointer) {
+            int h = System.identityHashCode(pointer) * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Open-addressing hash set of non-negative ints, used as successor
+     * index of high-degree nodes.
+     */
+    private static class IntSet {
+
+        private static final int FREE = -1;
+
+        private int[] table;
+
+        private int size = 0;
+
+        private IntSet(int expectedSize) {
+            table = newTable(Integer.highestOneBit(expectedSize) << 2);
+        }
+
+        private boolean contains(int value) {
+            int mask = table.length - 1;
+            for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+                int v = table[i];
+                if (v == value) {
+                    return true;
+                } else if (v == FREE) {
+                    return false;
+                }
+            }
+        }
+
+        private void add(int value) {
+            if ((size + 1) << 1 > table.length) {
+                rehash();
+            }
+            if (insert(table, value)) {
+                ++size;
+            }
+        }
+
+        private void rehash() {
+            int[] newTable = newTable(table.length << 1);
+            for (int v : table) {
+                if (v != FREE) {
+                    insert(newTable, v);
+                }
+            }
+            table = newTable;
+        }
+
+        private static boolean insert(int[] table, int value) {
+            int mask = table.length - 1;
+            for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+                int v = table[i];
+                if (v == value) {
+                    return false;
+                } else if (v == FREE) {
+                    table[i] = value;
+                    return true;
+                }
+            }
+        }
+
+        private static int[] newTable(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, FREE);
+            return table;
+        }
+
+        private static int mix(int value) {
+            int h = value * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
     }
 }
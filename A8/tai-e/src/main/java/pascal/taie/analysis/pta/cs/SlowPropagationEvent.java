@@ -0,0 +1,56 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event that spans the processing of a work-list
+ * entry whose propagation exceeds the thresholds given by options
+ * "jfr-slow-objects" and "jfr-slow-micros".
+ */
+@Name("pascal.taie.pta.SlowPropagation")
+@Label("Slow Propagation")
+@Category({"Tai-e", "Pointer Analysis"})
+@Description("Work-list entry that propagates many objects or takes long")
+class SlowPropagationEvent extends Event {
+
+    @Label("Pointer")
+    String pointer;
+
+    @Label("Method")
+    @Description("Method of the pointer if it is a variable")
+    String method;
+
+    @Label("Context")
+    @Description("Context of the pointer if it is a variable")
+    String context;
+
+    @Label("Objects")
+    @Description("Number of objects newly propagated to the pointer")
+    int objects;
+}
@@ -28,8 +28,8 @@ import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.CachedPointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
-import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
@@ -42,12 +42,14 @@ import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.cs.selector.AdaptiveSelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.analysis.pta.pts.PointsToSetInterner;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
@@ -55,6 +57,14 @@ import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.Metrics;
+import pascal.taie.util.collection.Maps;
+
+import jdk.jfr.EventType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class Solver {
 
@@ -66,6 +76,17 @@ public class Solver {
 
     private final ContextSelector contextSelector;
 
+    /**
+     * Filters objects by the declared types of pointers during propagation,
+     * null if type filtering is disabled.
+     */
+    private TypeFilter typeFilter;
+
+    /**
+     * Pre-resolved field and array accesses of variables.
+     */
+    private final Map<Var, VarAccesses> varAccesses = Maps.newMap();
+
     private CSManager csManager;
 
     private CSCallGraph callGraph;
@@ -74,15 +95,109 @@ public class Solver {
 
     private WorkList workList;
 
+    /**
+     * Taint analysis plugin, null if no taint configuration is given.
+     */
     private TaintAnalysiss taintAnalysis;
 
-    private PointerAnalysisResult result;
+    /**
+     * Result of this solver, created on first request. It may be requested
+     * before the analysis finishes, thus the solver keeps it informed of
+     * the changes of points-to sets.
+     */
+    private CachedPointerAnalysisResult result;
+
+    /**
+     * Degrades methods to shallower contexts when they exceed the budget,
+     * null if no budget is given.
+     */
+    private final ContextBudget contextBudget;
+
+    private final Metrics metrics;
+
+    private final Metrics.Counter workListPops;
+
+    private final Metrics.Counter objectsPropagated;
+
+    private final Metrics.Counter pfgEdges;
+
+    private final Metrics.Counter callEdges;
+
+    private final Metrics.Counter csMethods;
+
+    private final Metrics.PhaseTimer propagateTimer;
+
+    private final Metrics.PhaseTimer processCallTimer;
+
+    private final Metrics.PhaseTimer addReachableTimer;
+
+    private final Metrics.PhaseTimer taintTimer;
+
+    private final Metrics.PhaseTimer contextTimer;
+
+    /**
+     * Work-list entries that propagate more objects than this threshold
+     * are recorded as {@link SlowPropagationEvent}s, -1 if not given.
+     */
+    private final int slowObjects;
+
+    /**
+     * Work-list entries whose processing takes longer than this threshold
+     * are recorded as {@link SlowPropagationEvent}s, -1 if not given.
+     */
+    private final long slowNanos;
+
+    /**
+     * Type of {@link ReachableMethodEvent}, null if JFR events of this
+     * solver are not emitted. Events are only allocated when their type
+     * is enabled in a running recording.
+     */
+    private final EventType reachableMethodEventType;
+
+    /**
+     * Type of {@link SlowPropagationEvent}, null if no threshold is given
+     * or JFR events of this solver are not emitted.
+     */
+    private final EventType slowPropagationEventType;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
-        this.contextSelector = contextSelector;
+        Object maxContexts = options.get("max-contexts-per-method");
+        Object maxHeapUsage = options.get("max-heap-usage");
+        if (maxContexts != null || maxHeapUsage != null) {
+            AdaptiveSelector adaptiveSelector = new AdaptiveSelector(contextSelector);
+            this.contextSelector = adaptiveSelector;
+            this.contextBudget = new ContextBudget(adaptiveSelector,
+                    maxContexts != null ? ((Number) maxContexts).intValue() : 0,
+                    maxHeapUsage != null ? ((Number) maxHeapUsage).floatValue() : 0);
+        } else {
+            this.contextSelector = contextSelector;
+            this.contextBudget = null;
+        }
+        metrics = Metrics.of(CSPTA.ID, options);
+        workListPops = metrics.counter("worklist-pops");
+        objectsPropagated = metrics.counter("objects-propagated");
+        pfgEdges = metrics.counter("pfg-edges");
+        callEdges = metrics.counter("call-edges");
+        csMethods = metrics.counter("cs-methods");
+        propagateTimer = metrics.timer("propagate");
+        processCallTimer = metrics.timer("process-call");
+        addReachableTimer = metrics.timer("add-reachable");
+        taintTimer = metrics.timer("taint");
+        contextTimer = metrics.timer("context-selection");
+        Object slowObjectsOpt = options.get("jfr-slow-objects");
+        Object slowMicrosOpt = options.get("jfr-slow-micros");
+        slowObjects = slowObjectsOpt != null ?
+                ((Number) slowObjectsOpt).intValue() : -1;
+        slowNanos = slowMicrosOpt != null ?
+                ((Number) slowMicrosOpt).longValue() * 1000 : -1;
+        boolean jfrEvents = options.getBooleanOrDefault("jfr-events", true);
+        reachableMethodEventType = jfrEvents ?
+                EventType.getEventType(ReachableMethodEvent.class) : null;
+        slowPropagationEventType = jfrEvents && (slowObjects >= 0 || slowNanos >= 0) ?
+                EventType.getEventType(SlowPropagationEvent.class) : null;
     }
 
     public AnalysisOptions getOptions() {
@@ -98,9 +213,40 @@ public class Solver {
     }
 
     void solve() {
-        initialize();
-        analyze();
-        taintAnalysis.onFinish();
+        try (var ignored = metrics.timer("solve").start()) {
+            initialize();
+            analyze();
+            if (taintAnalysis != null) {
+                try (var taint = taintTimer.start()) {
+                    taintAnalysis.onFinish();
+                }
+            }
+            if (contextBudget != null) {
+                contextBudget.report();
+            }
+            if (options.getBooleanOrDefault("intern-pts", false)) {
+                internPointsToSets();
+            }
+        }
+        metrics.dump();
+    }
+
+    /**
+     * Shares the objects of structurally equal points-to sets among
+     * all pointers, so as to reduce the size of the retained result.
+     */
+    private void internPointsToSets() {
+        PointsToSetInterner interner = new PointsToSetInterner();
+        Stream.<Collection<? extends Pointer>>of(csManager.getCSVars(),
+                        csManager.getInstanceFields(),
+                        csManager.getArrayIndexes(),
+                        csManager.getStaticFields())
+                .flatMap(Collection::stream)
+                .forEach(p -> p.setPointsToSet(interner.intern(p.getPointsToSet())));
+        logger.info("Interned {} points-to sets into {} distinct sets" +
+                        " (dedup ratio: {})", interner.getInternedCount(),
+                interner.getDistinctCount(),
+                String.format("%.2f", interner.getDedupRatio()));
     }
 
     private void initialize() {
@@ -108,7 +254,12 @@ public class Solver {
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
-        taintAnalysis = new TaintAnalysiss(this);
+        if (options.getString("taint-config") != null) {
+            taintAnalysis = new TaintAnalysiss(this);
+        }
+        if (options.getBooleanOrDefault("type-filter", false)) {
+            typeFilter = new TypeFilter(World.get().getTypeSystem());
+        }
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -123,10 +274,37 @@ public class Solver {
     private void addReachable(CSMethod csMethod) {
         // TODO - finish me
         if (!callGraph.contains(csMethod)) {
-            callGraph.addReachableMethod(csMethod);
-            csMethod.getMethod().getIR().getStmts().forEach(stmt -> {
-                stmt.accept(new StmtProcessor(csMethod));
-            });
+            ReachableMethodEvent event = reachableMethodEventType != null &&
+                    reachableMethodEventType.isEnabled() ?
+                    new ReachableMethodEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
+            try (var ignored = addReachableTimer.start()) {
+                callGraph.addReachableMethod(csMethod);
+                csMethods.increase();
+                if (contextBudget != null) {
+                    contextBudget.onNewCSMethod(csMethod);
+                }
+                csMethod.getMethod().getIR().getStmts().forEach(stmt -> {
+                    stmt.accept(new StmtProcessor(csMethod));
+                });
+            }
+            if (event != null) {
+                commitReachable(event, csMethod);
+            }
+        }
+    }
+
+    /**
+     * Commits given event for new reachable method if it is recorded.
+     */
+    private static void commitReachable(ReachableMethodEvent event, CSMethod csMethod) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = csMethod.getMethod().getSignature();
+            event.context = csMethod.getContext().toString();
+            event.commit();
         }
     }
 
@@ -152,9 +330,13 @@ public class Solver {
             }
             JMethod method = resolveCallee(null, stmt);
             CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
-            Context ct = contextSelector.selectContext(csCallSite, method);
+            Context ct;
+            try (var ignored = contextTimer.start()) {
+                ct = contextSelector.selectContext(csCallSite, method);
+            }
             CSMethod tarMethod = csManager.getCSMethod(ct, method);
             if (callGraph.addEdge(new Edge<>(CallKind.STATIC, csCallSite, tarMethod))) {
+                callEdges.increase();
                 addReachable(tarMethod);
                 for (int i = 0; i < method.getParamCount(); i++) {
                     CSVar param = csManager.getCSVar(context, stmt.getRValue().getArg(i));
@@ -167,10 +349,18 @@ public class Solver {
                         CSVar retVar = csManager.getCSVar(ct, ret);
                         addPFGEdge(retVar, rec);
                     }
-                    taintAnalysis.processSource(csCallSite, rec);
+                    if (taintAnalysis != null) {
+                        try (var ignored = taintTimer.start()) {
+                            taintAnalysis.processSource(csCallSite, rec);
+                        }
+                    }
+                }
+            }
+            if (taintAnalysis != null) {
+                try (var ignored = taintTimer.start()) {
+                    taintAnalysis.processTaintTransfer(csCallSite, null);
                 }
             }
-            taintAnalysis.processTaintTransfer(csCallSite, null);
             return null;
         }
 
@@ -178,7 +368,10 @@ public class Solver {
         public Void visit(New stmt) {
             CSVar csVar = csManager.getCSVar(context, stmt.getLValue());
             Obj obj = heapModel.getObj(stmt);
-            Context heapContext = contextSelector.selectHeapContext(csMethod, obj);
+            Context heapContext;
+            try (var ignored = contextTimer.start()) {
+                heapContext = contextSelector.selectHeapContext(csMethod, obj);
+            }
             var csObj = csManager.getCSObj(heapContext, obj);
             var pts = PointsToSetFactory.make(csObj);
             workList.addEntry(csVar, pts);
@@ -223,8 +416,8 @@ public class Solver {
      */
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
-        if (!pointerFlowGraph.getSuccsOf(source).contains(target)) {
-            pointerFlowGraph.addEdge(source, target);
+        if (pointerFlowGraph.addEdge(source, target)) {
+            pfgEdges.increase();
             workList.addEntry(target, source.getPointsToSet());
         }
     }
@@ -236,35 +429,89 @@ public class Solver {
         // TODO - finish me
         while (!workList.isEmpty()) {
             WorkList.Entry entry = workList.pollEntry();
-            PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
-            if (entry.pointer() instanceof CSVar csVar) {
-                delta.forEach(csObj -> {
-                    csVar.getVar().getLoadFields().forEach(loadField -> {
-                        addPFGEdge(
-                                csManager.getInstanceField(csObj, loadField.getFieldAccess().getFieldRef().resolve()),
-                                csManager.getCSVar(csVar.getContext(), loadField.getLValue())
-                        );
-                    });
-                    csVar.getVar().getLoadArrays().forEach(loadArray -> {
-                        addPFGEdge(
-                                csManager.getArrayIndex(csObj),
-                                csManager.getCSVar(csVar.getContext(), loadArray.getLValue())
-                        );
-                    });
-                    csVar.getVar().getStoreFields().forEach(storeField -> {
-                        addPFGEdge(
-                                csManager.getCSVar(csVar.getContext(), storeField.getRValue()),
-                                csManager.getInstanceField(csObj, storeField.getLValue().getFieldRef().resolve())
-                        );
-                    });
-                    csVar.getVar().getStoreArrays().forEach(storeArray -> {
-                        addPFGEdge(
-                                csManager.getCSVar(csVar.getContext(), storeArray.getRValue()),
-                                csManager.getArrayIndex(csObj)
-                        );
-                    });
-                    processCall(csVar, csObj);
-                });
+            workListPops.increase();
+            SlowPropagationEvent event = null;
+            long start = 0;
+            if (slowPropagationEventType != null &&
+                    slowPropagationEventType.isEnabled()) {
+                event = new SlowPropagationEvent();
+                event.begin();
+                start = System.nanoTime();
+            }
+            PointsToSet delta;
+            try (var ignored = propagateTimer.start()) {
+                delta = propagate(entry.pointer(), entry.pointsToSet());
+            }
+            if (entry.pointer() instanceof CSVar csVar && !delta.isEmpty()) {
+                processAccesses(csVar, delta);
+                try (var ignored = processCallTimer.start()) {
+                    delta.forEach(csObj -> processCall(csVar, csObj));
+                }
+            }
+            if (event != null) {
+                commitIfSlow(event, entry.pointer(), delta.size(),
+                        System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Commits given event if the work-list entry exceeds the thresholds.
+     */
+    private void commitIfSlow(SlowPropagationEvent event, Pointer pointer,
+                              int objects, long nanos) {
+        event.end();
+        if (((slowObjects >= 0 && objects > slowObjects) ||
+                (slowNanos >= 0 && nanos > slowNanos)) &&
+                event.shouldCommit()) {
+            event.pointer = pointer.toString();
+            if (pointer instanceof CSVar csVar) {
+                event.method = csVar.getVar().getMethod().getSignature();
+                event.context = csVar.getContext().toString();
+            }
+            event.objects = objects;
+            event.commit();
+        }
+    }
+
+    /**
+     * Processes instance field and array accesses on given variable for
+     * the objects newly pointed to by the variable. Each access is handled
+     * once for the whole delta, so that the field resolution and the
+     * lookup of the context-sensitive variable on the other side of
+     * the access are not repeated for every object.
+     */
+    private void processAccesses(CSVar csVar, PointsToSet delta) {
+        VarAccesses accesses = varAccesses.computeIfAbsent(
+                csVar.getVar(), VarAccesses::of);
+        if (accesses.isEmpty()) {
+            return;
+        }
+        Context context = csVar.getContext();
+        for (int i = 0; i < accesses.loadFields.length; ++i) {
+            JField field = accesses.loadFields[i];
+            CSVar target = csManager.getCSVar(context, accesses.loadFieldTargets[i]);
+            for (CSObj csObj : delta) {
+                addPFGEdge(csManager.getInstanceField(csObj, field), target);
+            }
+        }
+        for (int i = 0; i < accesses.storeFields.length; ++i) {
+            JField field = accesses.storeFields[i];
+            CSVar source = csManager.getCSVar(context, accesses.storeFieldSources[i]);
+            for (CSObj csObj : delta) {
+                addPFGEdge(source, csManager.getInstanceField(csObj, field));
+            }
+        }
+        for (Var targetVar : accesses.loadArrayTargets) {
+            CSVar target = csManager.getCSVar(context, targetVar);
+            for (CSObj csObj : delta) {
+                addPFGEdge(csManager.getArrayIndex(csObj), target);
+            }
+        }
+        for (Var sourceVar : accesses.storeArraySources) {
+            CSVar source = csManager.getCSVar(context, sourceVar);
+            for (CSObj csObj : delta) {
+                addPFGEdge(source, csManager.getArrayIndex(csObj));
             }
         }
     }
@@ -272,17 +519,23 @@ public class Solver {
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
+     * If type filtering is enabled, objects whose types are incompatible
+     * with the declared type of pointer are dropped.
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         var delta = PointsToSetFactory.make();
         pointsToSet.objects()
                 .filter(csObj -> !pointer.getPointsToSet().contains(csObj))
+                .filter(csObj -> typeFilter == null || typeFilter.accepts(pointer, csObj))
                 .forEach(delta::addObject);
         if (!delta.isEmpty()) {
+            objectsPropagated.add(delta.size());
             pointer.getPointsToSet().addAll(delta);
-            pointerFlowGraph.getSuccsOf(pointer).forEach(suc -> {
-                workList.addEntry(suc, delta);
-            });
+            if (result != null) {
+                result.onPointsToSetChanged(pointer);
+            }
+            pointerFlowGraph.forEachSuccOf(pointer, suc ->
+                    workList.addEntry(suc, delta));
         }
         return delta;
     }
@@ -298,11 +551,15 @@ public class Solver {
         recv.getVar().getInvokes().forEach(invoke -> {
             JMethod method = resolveCallee(recvObj, invoke);
             CSCallSite csCallSite = csManager.getCSCallSite(recv.getContext(), invoke);
-            Context context = contextSelector.selectContext(csCallSite, recvObj, method);
+            Context context;
+            try (var ignored = contextTimer.start()) {
+                context = contextSelector.selectContext(csCallSite, recvObj, method);
+            }
             CSMethod targetMethod = csManager.getCSMethod(context, method);
             workList.addEntry(csManager.getCSVar(context, method.getIR().getThis()), PointsToSetFactory.make(recvObj));
             Edge<CSCallSite, CSMethod> edge = getCsCallSiteCSMethodEdge(invoke, csCallSite, targetMethod);
             if (callGraph.addEdge(edge)) {
+                callEdges.increase();
                 addReachable(targetMethod);
                 // add edges from actual params to ref params
                 for (int i = 0; i < method.getParamCount(); i++) {
@@ -320,9 +577,17 @@ public class Solver {
             }
             if (invoke.getLValue() != null) {
                 CSVar csVar = csManager.getCSVar(context, invoke.getLValue());
-                taintAnalysis.processSource(csCallSite, csVar);
+                if (taintAnalysis != null) {
+                    try (var ignored = taintTimer.start()) {
+                        taintAnalysis.processSource(csCallSite, csVar);
+                    }
+                }
+            }
+            if (taintAnalysis != null) {
+                try (var ignored = taintTimer.start()) {
+                    taintAnalysis.processTaintTransfer(csCallSite, recv);
+                }
             }
-            taintAnalysis.processTaintTransfer(csCallSite, recv);
         });
     }
 
@@ -364,7 +629,7 @@ public class Solver {
 
     public PointerAnalysisResult getResult() {
         if (result == null) {
-            result = new PointerAnalysisResultImpl(csManager, callGraph);
+            result = new CachedPointerAnalysisResult(csManager, callGraph);
         }
         return result;
     }
@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+/**
+ * Filters objects that flow into pointers by the declared types of
+ * the pointers, i.e., an object can be pointed to by a variable or
+ * a field only if the type of the object is a subtype of the declared
+ * type of the variable or field.
+ * <p>
+ * Mock objects, e.g., taint objects, are exempted: their types are given
+ * by their creators (such as taint configuration) rather than by
+ * allocation sites, and need not conform to the declared types of
+ * the pointers they flow through.
+ */
+class TypeFilter {
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Cache of subtype checks, maps (declared type, object type)
+     * to whether the object type is a subtype of the declared type.
+     */
+    private final TwoKeyMap<Type, Type, Boolean> subtypes = Maps.newTwoKeyMap();
+
+    TypeFilter(TypeSystem typeSystem) {
+        this.typeSystem = typeSystem;
+    }
+
+    /**
+     * @return true if given object is allowed to flow into given pointer,
+     * otherwise false.
+     */
+    boolean accepts(Pointer pointer, CSObj obj) {
+        if (obj.getObject() instanceof MockObj) {
+            return true;
+        }
+        if (pointer instanceof CSVar ||
+                pointer instanceof InstanceField ||
+                pointer instanceof StaticField) {
+            return isSubtype(pointer.getType(), obj.getObject().getType());
+        }
+        return true;
+    }
+
+    private boolean isSubtype(Type declaredType, Type objType) {
+        return subtypes.computeIfAbsent(declaredType, objType,
+                typeSystem::isSubtype);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+
+import java.util.List;
+
+/**
+ * Pre-resolved instance field and array accesses whose base is
+ * a given variable, say v, i.e.,
+ * <ul>
+ *     <li>load field: x = v.f
+ *     <li>store field: v.f = x
+ *     <li>load array: x = v[i]
+ *     <li>store array: v[i] = x
+ * </ul>
+ * Fields are resolved once when the table is built, so that the solver
+ * does not resolve them again for every object pointed to by v.
+ */
+class VarAccesses {
+
+    private static final JField[] NO_FIELDS = {};
+
+    private static final Var[] NO_VARS = {};
+
+    /**
+     * Shared table of the variables that are not the base of any access.
+     */
+    private static final VarAccesses EMPTY = new VarAccesses(
+            NO_FIELDS, NO_VARS, NO_FIELDS, NO_VARS, NO_VARS, NO_VARS);
+
+    /**
+     * loadFields[i] is the field loaded to loadFieldTargets[i].
+     */
+    final JField[] loadFields;
+
+    final Var[] loadFieldTargets;
+
+    /**
+     * storeFieldSources[i] is the variable stored to storeFields[i].
+     */
+    final JField[] storeFields;
+
+    final Var[] storeFieldSources;
+
+    final Var[] loadArrayTargets;
+
+    final Var[] storeArraySources;
+
+    private VarAccesses(JField[] loadFields, Var[] loadFieldTargets,
+                        JField[] storeFields, Var[] storeFieldSources,
+                        Var[] loadArrayTargets, Var[] storeArraySources) {
+        this.loadFields = loadFields;
+        this.loadFieldTargets = loadFieldTargets;
+        this.storeFields = storeFields;
+        this.storeFieldSources = storeFieldSources;
+        this.loadArrayTargets = loadArrayTargets;
+        this.storeArraySources = storeArraySources;
+    }
+
+    /**
+     * @return true if the variable is not the base of any field
+     * or array access.
+     */
+    boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    /**
+     * Builds the access table of given variable.
+     */
+    static VarAccesses of(Var var) {
+        List<LoadField> loadFields = var.getLoadFields();
+        List<StoreField> storeFields = var.getStoreFields();
+        List<LoadArray> loadArrays = var.getLoadArrays();
+        List<StoreArray> storeArrays = var.getStoreArrays();
+        if (loadFields.isEmpty() && storeFields.isEmpty() &&
+                loadArrays.isEmpty() && storeArrays.isEmpty()) {
+            return EMPTY;
+        }
+        JField[] lfFields = loadFields.isEmpty() ?
+                NO_FIELDS : new JField[loadFields.size()];
+        Var[] lfTargets = loadFields.isEmpty() ?
+                NO_VARS : new Var[loadFields.size()];
+        for (int i = 0; i < lfFields.length; ++i) {
+            LoadField loadField = loadFields.get(i);
+            lfFields[i] = loadField.getFieldRef().resolve();
+            lfTargets[i] = loadField.getLValue();
+        }
+        JField[] sfFields = storeFields.isEmpty() ?
+                NO_FIELDS : new JField[storeFields.size()];
+        Var[] sfSources = storeFields.isEmpty() ?
+                NO_VARS : new Var[storeFields.size()];
+        for (int i = 0; i < sfFields.length; ++i) {
+            StoreField storeField = storeFields.get(i);
+            sfFields[i] = storeField.getFieldRef().resolve();
+            sfSources[i] = storeField.getRValue();
+        }
+        Var[] laTargets = loadArrays.isEmpty() ?
+                NO_VARS : new Var[loadArrays.size()];
+        for (int i = 0; i < laTargets.length; ++i) {
+            laTargets[i] = loadArrays.get(i).getLValue();
+        }
+        Var[] saSources = storeArrays.isEmpty() ?
+                NO_VARS : new Var[storeArrays.size()];
+        for (int i = 0; i < saSources.length; ++i) {
+            saSources[i] = storeArrays.get(i).getRValue();
+        }
+        return new VarAccesses(lfFields, lfTargets, sfFields, sfSources,
+                laTargets, saSources);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Provides {@link DemandPointerAnalysis} to other analyses, which obtain
+ * it by {@code World.get().getResult(DemandPTA.ID)} and issue points-to
+ * queries without a whole-program solve.
+ */
+public class DemandPTA extends ProgramAnalysis {
+
+    public static final String ID = "demand-pta";
+
+    public DemandPTA(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public DemandPointerAnalysis analyze() {
+        AnalysisOptions options = getOptions();
+        HeapModel heapModel = new AllocationSiteBasedModel(options);
+        List<JMethod> scope = getScope(options.getString("scope"))
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .toList();
+        return new DemandPointerAnalysis(heapModel, scope,
+                options.getInt("budget"),
+                options.getBoolean("fallback") ?
+                        () -> runFallback(heapModel) :
+                        null);
+    }
+
+    /**
+     * Runs context-insensitive whole-program pointer analysis with
+     * given heap model, so that the objects in its result are the same
+     * as the ones found by demand-driven queries.
+     */
+    private static PointerAnalysisResult runFallback(HeapModel heapModel) {
+        AnalysisConfig config = new AnalysisConfig(CSPTA.ID,
+                "cs", "ci", "jfr-events", false);
+        return new CSPTA(config, heapModel).analyze();
+    }
+
+    private static Stream<JClass> getScope(String scope) {
+        return switch (scope) {
+            case "app" -> World.get().getClassHierarchy().applicationClasses();
+            case "all" -> World.get().getClassHierarchy().allClasses();
+            default -> throw new ConfigException("Unknown scope: " + scope);
+        };
+    }
+}
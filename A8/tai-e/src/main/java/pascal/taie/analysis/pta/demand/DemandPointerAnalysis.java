@@ -0,0 +1,538 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Demand-driven, context-insensitive and field-sensitive pointer analysis.
+ * <p>
+ * Instead of solving the whole program, each query explores the program
+ * backwards from the queried variable along the statements that may define
+ * it (allocations, assignments, field/array loads, returns of callees and
+ * arguments of callers, and thrown exceptions for catch variables),
+ * which corresponds to the field-sensitive
+ * CFL-reachability formulation of Andersen-style analysis. Only the part
+ * of the program that the query depends on is constructed and solved.
+ * <p>
+ * The definitions of variables are collected per method on demand.
+ * Call sites and field/array stores are indexed once over the given scope
+ * of methods; callers and stores outside the scope are not considered.
+ * <p>
+ * Each query is bounded by a budget on the number of nodes and
+ * propagated objects. Queries that exceed the budget, or that depend on
+ * definitions this analysis does not model (i.e., results of invokedynamic
+ * and parameters of the methods it refers to), fail.
+ * {@link #pointsTo(Var)} reports such failures to the caller, while
+ * {@link #getPointsToSet(Var)} answers them by the whole-program result
+ * given as fallback. The results of all variables explored by a
+ * successful query are complete, and are memoized for later queries.
+ */
+public class DemandPointerAnalysis {
+
+    private static final Logger logger = LogManager.getLogger(DemandPointerAnalysis.class);
+
+    private final HeapModel heapModel;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Maximum number of steps of each query.
+     */
+    private final int budget;
+
+    /**
+     * Map from the variables to their definition statements. The methods
+     * are indexed on demand, see {@link #indexedMethods}.
+     */
+    private final MultiMap<Var, Stmt> definitions = Maps.newMultiMap();
+
+    private final Set<JMethod> indexedMethods = Sets.newSet();
+
+    /**
+     * Map from subsignatures to the call sites in scope that invoke
+     * methods with the subsignatures.
+     */
+    private final MultiMap<Subsignature, Invoke> callSites = Maps.newMultiMap();
+
+    /**
+     * Map from fields to the (static and instance) stores in scope.
+     */
+    private final MultiMap<JField, StoreField> fieldStores = Maps.newMultiMap();
+
+    private final List<StoreArray> arrayStores = new ArrayList<>();
+
+    /**
+     * Throw statements in scope, whose exceptions may be caught by
+     * any catch variable of compatible type.
+     */
+    private final List<Throw> throwStmts = new ArrayList<>();
+
+    /**
+     * Methods referenced by method handles of invokedynamic in scope.
+     * They may be called by the runtime, e.g., as lambda bodies.
+     */
+    private final Set<JMethod> dynamicTargets = Sets.newSet();
+
+    /**
+     * Memoized points-to sets of the variables explored by previous queries.
+     */
+    private final Map<Var, Set<Obj>> cache = Maps.newMap();
+
+    /**
+     * Supplier of the whole-program result for failed queries,
+     * null if there is no fallback.
+     */
+    @Nullable
+    private final Supplier<PointerAnalysisResult> fallback;
+
+    /**
+     * The whole-program result, computed on the first failed query.
+     */
+    private PointerAnalysisResult fallbackResult;
+
+    /**
+     * @param heapModel the heap model for abstracting allocation sites
+     * @param scope     the methods whose call sites and stores are
+     *                  considered by the queries
+     * @param budget    maximum number of steps of each query
+     */
+    public DemandPointerAnalysis(HeapModel heapModel,
+                                 Collection<JMethod> scope, int budget) {
+        this(heapModel, scope, budget, null);
+    }
+
+    /**
+     * @param fallback supplies the whole-program result used to answer
+     *                 failed queries by {@link #getPointsToSet(Var)}.
+     *                 It is called at most once, and its result must be
+     *                 computed with the same heap model as this analysis,
+     *                 so that the objects of both are comparable.
+     */
+    public DemandPointerAnalysis(HeapModel heapModel,
+                                 Collection<JMethod> scope, int budget,
+                                 @Nullable Supplier<PointerAnalysisResult> fallback) {
+        this.heapModel = heapModel;
+        this.typeSystem = World.get().getTypeSystem();
+        this.budget = budget;
+        this.fallback = fallback;
+        scope.stream()
+                .filter(m -> !m.isAbstract())
+                .forEach(this::indexReverse);
+    }
+
+    /**
+     * @return the objects that given variable may point to, or an empty
+     * Optional if the query fails.
+     */
+    public Optional<Set<Obj>> pointsTo(Var var) {
+        Set<Obj> result = cache.get(var);
+        if (result == null) {
+            Query query = new Query();
+            try {
+                query.demand(var);
+                query.solve();
+            } catch (QueryFailedException e) {
+                logger.debug("Query of {} fails: {}", var, e.getMessage());
+                return Optional.empty();
+            }
+            query.memoize();
+            result = cache.get(var);
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * @return the objects that given variable may point to. If the query
+     * fails, the result is taken from the whole-program fallback.
+     * @throws IllegalStateException if the query fails and
+     *                               there is no fallback.
+     */
+    public Set<Obj> getPointsToSet(Var var) {
+        Optional<Set<Obj>> result = pointsTo(var);
+        if (result.isPresent()) {
+            return result.get();
+        }
+        if (fallback == null) {
+            throw new IllegalStateException("Query of " + var +
+                    " fails and no fallback is given");
+        }
+        if (fallbackResult == null) {
+            logger.info("Falling back to whole-program pointer analysis");
+            fallbackResult = fallback.get();
+        }
+        return fallbackResult.getPointsToSet(var);
+    }
+
+    /**
+     * @return true if given two variables may point to the same object.
+     * If any of the queries exceeds the budget, conservatively returns true.
+     */
+    public boolean mayAlias(Var v1, Var v2) {
+        Optional<Set<Obj>> pts1 = pointsTo(v1);
+        Optional<Set<Obj>> pts2 = pointsTo(v2);
+        if (pts1.isEmpty() || pts2.isEmpty()) {
+            return true;
+        }
+        Set<Obj> s1 = pts1.get();
+        Set<Obj> s2 = pts2.get();
+        Set<Obj> small = s1.size() <= s2.size() ? s1 : s2;
+        Set<Obj> large = small == s1 ? s2 : s1;
+        return small.stream().anyMatch(large::contains);
+    }
+
+    private void indexReverse(JMethod method) {
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof Invoke invoke) {
+                callSites.put(invoke.getMethodRef().getSubsignature(), invoke);
+                if (invoke.getInvokeExp() instanceof InvokeDynamic indy) {
+                    indy.getBootstrapArgs().forEach(arg -> {
+                        if (arg instanceof MethodHandle handle && handle.isMethodRef()) {
+                            JMethod target = handle.getMethodRef().resolveNullable();
+                            if (target != null) {
+                                dynamicTargets.add(target);
+                            }
+                        }
+                    });
+                }
+            } else if (stmt instanceof StoreField store) {
+                JField field = store.getFieldRef().resolveNullable();
+                if (field != null) {
+                    fieldStores.put(field, store);
+                }
+            } else if (stmt instanceof StoreArray store) {
+                arrayStores.add(store);
+            } else if (stmt instanceof Throw throwStmt) {
+                throwStmts.add(throwStmt);
+            }
+        }
+    }
+
+    private Set<Stmt> getDefinitions(Var var) {
+        JMethod method = var.getMethod();
+        if (indexedMethods.add(method)) {
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof DefinitionStmt<?, ?> def &&
+                        def.getLValue() instanceof Var lhs) {
+                    definitions.put(lhs, stmt);
+                } else if (stmt instanceof Catch catchStmt) {
+                    definitions.put(catchStmt.getExceptionRef(), stmt);
+                }
+            }
+        }
+        return definitions.get(var);
+    }
+
+    /**
+     * Node of the instance field of an object.
+     */
+    private record FieldNode(Obj base, JField field) {
+    }
+
+    /**
+     * Node of the elements of an array object.
+     */
+    private record ArrayNode(Obj array) {
+    }
+
+    private record Entry(Object node, Obj obj) {
+    }
+
+    /**
+     * Thrown when a query exceeds the budget, or depends on definitions
+     * that this analysis does not model.
+     */
+    private static class QueryFailedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private QueryFailedException(String reason) {
+            // queries may fail frequently, thus no stack trace is filled
+            super(reason, null, false, false);
+        }
+    }
+
+    /**
+     * A query constructs the part of the pointer flow graph that is
+     * backward-reachable from the queried variable, and propagates objects
+     * on it to fixpoint. Nodes are {@link Var}s, static {@link JField}s,
+     * {@link FieldNode}s and {@link ArrayNode}s.
+     */
+    private class Query {
+
+        private final Map<Object, Set<Obj>> pts = Maps.newMap();
+
+        private final MultiMap<Object, Object> succs = Maps.newMultiMap();
+
+        /**
+         * Actions to be performed for each object pointed to by a node.
+         */
+        private final Map<Object, List<Consumer<Obj>>> observers = Maps.newMap();
+
+        private final Queue<Entry> workList = new ArrayDeque<>();
+
+        private int steps = 0;
+
+        /**
+         * Adds given node and the nodes it depends on to this query.
+         */
+        private void demand(Object node) {
+            if (pts.containsKey(node)) {
+                return;
+            }
+            pts.put(node, Sets.newHybridSet());
+            tick();
+            if (node instanceof Var var) {
+                Set<Obj> cached = cache.get(var);
+                if (cached != null) {
+                    cached.forEach(obj -> addObj(var, obj));
+                } else {
+                    demandVar(var);
+                }
+            } else if (node instanceof JField field) {
+                for (StoreField store : fieldStores.get(field)) {
+                    if (store.isStatic()) {
+                        addEdge(store.getRValue(), field);
+                    }
+                }
+            } else if (node instanceof FieldNode fieldNode) {
+                for (StoreField store : fieldStores.get(fieldNode.field())) {
+                    if (!store.isStatic()) {
+                        Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                        onNewObj(base, obj -> {
+                            if (obj.equals(fieldNode.base())) {
+                                addEdge(store.getRValue(), fieldNode);
+                            }
+                        });
+                    }
+                }
+            } else if (node instanceof ArrayNode arrayNode) {
+                for (StoreArray store : arrayStores) {
+                    Var base = store.getArrayAccess().getBase();
+                    onNewObj(base, obj -> {
+                        if (obj.equals(arrayNode.array())) {
+                            addEdge(store.getRValue(), arrayNode);
+                        }
+                    });
+                }
+            }
+        }
+
+        private void demandVar(Var var) {
+            for (Stmt stmt : getDefinitions(var)) {
+                if (stmt instanceof New newStmt) {
+                    addObj(var, heapModel.getObj(newStmt));
+                } else if (stmt instanceof AssignLiteral assign &&
+                        assign.getRValue() instanceof ReferenceLiteral literal) {
+                    addObj(var, heapModel.getConstantObj(literal));
+                } else if (stmt instanceof Copy copy) {
+                    addEdge(copy.getRValue(), var);
+                } else if (stmt instanceof Cast cast) {
+                    addEdge(cast.getRValue().getValue(), var);
+                } else if (stmt instanceof LoadField load) {
+                    JField field = load.getFieldRef().resolveNullable();
+                    if (field == null) {
+                        continue;
+                    }
+                    if (load.isStatic()) {
+                        addEdge(field, var);
+                    } else {
+                        Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                        onNewObj(base, obj -> addEdge(new FieldNode(obj, field), var));
+                    }
+                } else if (stmt instanceof LoadArray load) {
+                    onNewObj(load.getArrayAccess().getBase(),
+                            obj -> addEdge(new ArrayNode(obj), var));
+                } else if (stmt instanceof Catch) {
+                    // the exception objects thrown in scope and compatible
+                    // with the type of the catch variable
+                    for (Throw throwStmt : throwStmts) {
+                        onNewObj(throwStmt.getExceptionRef(), obj -> {
+                            if (typeSystem.isSubtype(var.getType(), obj.getType())) {
+                                addObj(var, obj);
+                            }
+                        });
+                    }
+                } else if (stmt instanceof Invoke invoke) {
+                    if (invoke.isDynamic()) {
+                        throw new QueryFailedException(
+                                "depends on invokedynamic " + invoke);
+                    } else if (invoke.isStatic()) {
+                        addReturnEdges(CallGraphs.resolveCallee(null, invoke), var);
+                    } else {
+                        Var recv = ((InvokeInstanceExp) invoke.getInvokeExp()).getBase();
+                        onNewObj(recv, obj -> addReturnEdges(
+                                CallGraphs.resolveCallee(obj.getType(), invoke), var));
+                    }
+                }
+            }
+            demandParameter(var);
+        }
+
+        /**
+         * Adds the flows from the arguments (or receiver objects) of
+         * the callers if given variable is a parameter (or this variable).
+         */
+        private void demandParameter(Var var) {
+            JMethod method = var.getMethod();
+            IR ir = method.getIR();
+            boolean isThis = var == ir.getThis();
+            int index = ir.getParams().indexOf(var);
+            if (!isThis && index < 0) {
+                return;
+            }
+            if (dynamicTargets.contains(method)) {
+                throw new QueryFailedException(
+                        "depends on parameters of invokedynamic target " + method);
+            }
+            for (Invoke callSite : callSites.get(method.getSubsignature())) {
+                if (callSite.isStatic()) {
+                    if (CallGraphs.resolveCallee(null, callSite) == method) {
+                        addEdge(callSite.getInvokeExp().getArg(index), var);
+                    }
+                } else if (!callSite.isDynamic() && !method.isStatic()) {
+                    Var recv = ((InvokeInstanceExp) callSite.getInvokeExp()).getBase();
+                    onNewObj(recv, obj -> {
+                        if (CallGraphs.resolveCallee(obj.getType(), callSite) == method) {
+                            if (isThis) {
+                                addObj(var, obj);
+                            } else {
+                                addEdge(callSite.getInvokeExp().getArg(index), var);
+                            }
+                        }
+                    });
+                }
+            }
+        }
+
+        private void addReturnEdges(JMethod callee, Var result) {
+            if (callee != null && !callee.isAbstract()) {
+                callee.getIR().getReturnVars().forEach(ret -> addEdge(ret, result));
+            }
+        }
+
+        private void addEdge(Object source, Object target) {
+            demand(source);
+            if (succs.put(source, target)) {
+                pts.get(source).forEach(obj -> addObj(target, obj));
+            }
+        }
+
+        private void addObj(Object node, Obj obj) {
+            workList.add(new Entry(node, obj));
+        }
+
+        /**
+         * Performs given action for each object pointed to by given node,
+         * including the objects that are discovered later.
+         */
+        private void onNewObj(Object node, Consumer<Obj> action) {
+            demand(node);
+            observers.computeIfAbsent(node, n -> new ArrayList<>()).add(action);
+            List.copyOf(pts.get(node)).forEach(action);
+        }
+
+        private void solve() {
+            while (!workList.isEmpty()) {
+                Entry entry = workList.poll();
+                Object node = entry.node();
+                Obj obj = entry.obj();
+                if (pts.get(node).add(obj)) {
+                    tick();
+                    succs.get(node).forEach(succ -> addObj(succ, obj));
+                    List<Consumer<Obj>> actions = observers.get(node);
+                    if (actions != null) {
+                        // actions may register new actions on the node
+                        for (int i = 0; i < actions.size(); ++i) {
+                            actions.get(i).accept(obj);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void tick() {
+            if (++steps > budget) {
+                throw new QueryFailedException(
+                        "exceeds the budget (" + budget + " steps)");
+            }
+        }
+
+        /**
+         * Stores the points-to sets of the variables explored by this query.
+         */
+        private void memoize() {
+            pts.forEach((node, objs) -> {
+                if (node instanceof Var var) {
+                    cache.putIfAbsent(var, Collections.unmodifiableSet(objs));
+                }
+            });
+        }
+    }
+}
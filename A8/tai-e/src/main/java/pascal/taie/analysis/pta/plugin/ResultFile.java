@@ -0,0 +1,511 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.util.ExternalSorter;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Compact binary format of analysis results, which is much smaller and
+ * faster to process than the text dumps, and supports random access
+ * by memory-mapping the file.
+ * <p>
+ * A result file consists of named sections, and each section consists of
+ * records sorted by their keys, e.g., a pointer, and each record has
+ * a set of members, e.g., the objects pointed to by the pointer.
+ * All strings are stored once in a string table and referred to by IDs,
+ * and the member IDs of each record are sorted and delta-encoded
+ * as varints. The layout is:
+ * <pre>
+ * header:   magic, version, offset of footer (long)
+ * members:  for each record, count and IDs of its members (varints)
+ * indexes:  for each section, key IDs (int[]) and member offsets (long[])
+ *           of its records
+ * strings:  count, end offsets (int[]) and UTF-8 bytes of all strings
+ * footer:   offset of strings (long), count of sections, and for each
+ *           section, its name ID, count of records, offset of its index
+ * </pre>
+ */
+public final class ResultFile {
+
+    private static final int MAGIC = 0x54414952; // "TAIR"
+
+    /**
+     * Version of the format, which should be increased whenever
+     * the format changes.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Offset of the footer offset in the header.
+     */
+    private static final int FOOTER_POSITION = 8;
+
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * Size of the fixed part of the footer, i.e., offset of strings
+     * and count of sections.
+     */
+    private static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES;
+
+    /**
+     * Size of the entry of each section in the footer.
+     */
+    private static final int SECTION_SIZE = 16;
+
+    /**
+     * Size of the index of each record, i.e., its key ID and member offset.
+     */
+    private static final int RECORD_INDEX_SIZE = Integer.BYTES + Long.BYTES;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private ResultFile() {
+    }
+
+    /**
+     * Renders members in the same way as {@link pascal.taie.util.collection.Streams#toString}.
+     */
+    static String render(Collection<String> members) {
+        String[] sorted = members.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return "[" + String.join(", ", sorted) + "]";
+    }
+
+    /**
+     * Writes a result file. Sections are written one by one, and records of
+     * a section must be added in ascending order of their keys.
+     */
+    public static class Writer implements Closeable {
+
+        private final FileChannel channel;
+
+        private final CountingOutputStream counter;
+
+        private final DataOutputStream out;
+
+        private final Map<String, Integer> stringIds = new HashMap<>();
+
+        private final List<String> strings = new ArrayList<>();
+
+        /**
+         * Name ID, count of records and index offset of written sections.
+         */
+        private final List<long[]> sections = new ArrayList<>();
+
+        private String section;
+
+        private String lastKey;
+
+        private int[] keyIds = new int[16];
+
+        private long[] offsets = new long[16];
+
+        private int size;
+
+        public Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            try {
+                counter = new CountingOutputStream(new BufferedOutputStream(
+                        Channels.newOutputStream(channel), BUFFER_SIZE));
+                out = new DataOutputStream(counter);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(0); // placeholder of footer offset
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Starts a new section, which also ends the current one.
+         */
+        public void beginSection(String name) throws IOException {
+            endSection();
+            section = name;
+        }
+
+        public void add(String key, Collection<String> members) throws IOException {
+            if (section == null) {
+                throw new IllegalStateException("No section has begun");
+            }
+            if (lastKey != null && key.compareTo(lastKey) <= 0) {
+                throw new IllegalArgumentException("Key \"" + key +
+                        "\" is not greater than previous key \"" + lastKey + "\"");
+            }
+            lastKey = key;
+            if (size == keyIds.length) {
+                keyIds = Arrays.copyOf(keyIds, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            keyIds[size] = getId(key);
+            offsets[size] = counter.count;
+            ++size;
+            int[] ids = new int[members.size()];
+            int i = 0;
+            for (String member : members) {
+                ids[i++] = getId(member);
+            }
+            Arrays.sort(ids);
+            writeVarint(ids.length);
+            int prev = 0;
+            for (int id : ids) {
+                writeVarint(id - prev);
+                prev = id;
+            }
+        }
+
+        private void endSection() throws IOException {
+            if (section == null) {
+                return;
+            }
+            long indexOffset = counter.count;
+            for (int i = 0; i < size; ++i) {
+                out.writeInt(keyIds[i]);
+            }
+            for (int i = 0; i < size; ++i) {
+                out.writeLong(offsets[i]);
+            }
+            sections.add(new long[]{ getId(section), size, indexOffset });
+            section = null;
+            lastKey = null;
+            size = 0;
+        }
+
+        private int getId(String s) {
+            return stringIds.computeIfAbsent(s, k -> {
+                strings.add(k);
+                return strings.size() - 1;
+            });
+        }
+
+        private void writeVarint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                out.close();
+            }
+        }
+
+        private void finish() throws IOException {
+            endSection();
+            // write string table
+            long stringsOffset = counter.count;
+            byte[][] bytes = new byte[strings.size()][];
+            out.writeInt(bytes.length);
+            int end = 0;
+            for (int i = 0; i < bytes.length; ++i) {
+                bytes[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                end += bytes[i].length;
+                out.writeInt(end);
+            }
+            for (byte[] b : bytes) {
+                out.write(b);
+            }
+            // write footer
+            long footerOffset = counter.count;
+            out.writeLong(stringsOffset);
+            out.writeInt(sections.size());
+            for (long[] section : sections) {
+                out.writeInt((int) section[0]);
+                out.writeInt((int) section[1]);
+                out.writeLong(section[2]);
+            }
+            out.flush();
+            channel.write(ByteBuffer.allocate(Long.BYTES)
+                    .putLong(0, footerOffset), FOOTER_POSITION);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            ++count;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * Reads a memory-mapped result file. Strings and records are decoded
+     * on demand, so opening a file is cheap regardless of its size.
+     */
+    public static class Reader implements Closeable {
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private final int stringCount;
+
+        private final int stringEnds;
+
+        private final int stringBytes;
+
+        private final Map<String, Section> sections = new LinkedHashMap<>();
+
+        /**
+         * Opens a result file, and checks that the offsets in the file
+         * are consistent with its size.
+         *
+         * @throws IOException if the file is not a result file,
+         *                     or it is truncated or corrupted.
+         */
+        public Reader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException(path + " is too large to be mapped");
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                    throw new IOException(path + " is not a result file");
+                }
+                if (buffer.getInt(4) != VERSION) {
+                    throw new IOException("Unsupported version of " + path
+                            + ": " + buffer.getInt(4));
+                }
+                int footer = checkOffset(buffer.getLong(FOOTER_POSITION),
+                        HEADER_SIZE, size - FOOTER_SIZE, path);
+                int strings = checkOffset(buffer.getLong(footer),
+                        HEADER_SIZE, footer - Integer.BYTES, path);
+                stringCount = buffer.getInt(strings);
+                stringEnds = strings + Integer.BYTES;
+                check(stringCount >= 0 && stringCount <=
+                        (footer - stringEnds) / Integer.BYTES, path);
+                stringBytes = stringEnds + stringCount * Integer.BYTES;
+                // the string table ends right before the footer
+                int lastEnd = stringCount == 0 ? 0 :
+                        buffer.getInt(stringBytes - Integer.BYTES);
+                check(lastEnd == footer - stringBytes, path);
+                int sectionCount = buffer.getInt(footer + Long.BYTES);
+                int pos = footer + FOOTER_SIZE;
+                // the footer ends at the end of file
+                check(sectionCount >= 0 &&
+                        pos + (long) sectionCount * SECTION_SIZE == size, path);
+                for (int i = 0; i < sectionCount; ++i) {
+                    int nameId = buffer.getInt(pos);
+                    int records = buffer.getInt(pos + 4);
+                    check(0 <= nameId && nameId < stringCount && records >= 0, path);
+                    int index = checkOffset(buffer.getLong(pos + 8), HEADER_SIZE,
+                            strings - (long) records * RECORD_INDEX_SIZE, path);
+                    Section section = new Section(getString(nameId), records, index);
+                    sections.put(section.getName(), section);
+                    pos += SECTION_SIZE;
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return the offset, which must be in range [min, max].
+         */
+        private static int checkOffset(long offset, long min, long max, Path path)
+                throws IOException {
+            check(min <= offset && offset <= max, path);
+            return (int) offset;
+        }
+
+        private static void check(boolean valid, Path path) throws IOException {
+            if (!valid) {
+                throw new IOException(path + " is truncated or corrupted");
+            }
+        }
+
+        public Collection<Section> getSections() {
+            return Collections.unmodifiableCollection(sections.values());
+        }
+
+        /**
+         * @return the section of given name, or null if it is absent.
+         */
+        public Section getSection(String name) {
+            return sections.get(name);
+        }
+
+        private String getString(int id) {
+            int start = id == 0 ? 0 : buffer.getInt(stringEnds + (id - 1) * Integer.BYTES);
+            int end = buffer.getInt(stringEnds + id * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringBytes + start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        public class Section {
+
+            private final String name;
+
+            private final int size;
+
+            private final int index;
+
+            private Section(String name, int size, int index) {
+                this.name = name;
+                this.size = size;
+                this.index = index;
+            }
+
+            public String getName() {
+                return name;
+            }
+
+            /**
+             * @return number of records in this section.
+             */
+            public int size() {
+                return size;
+            }
+
+            public String getKey(int i) {
+                return getString(buffer.getInt(index + i * Integer.BYTES));
+            }
+
+            public List<String> getMembers(int i) {
+                int pos = (int) buffer.getLong(
+                        index + size * Integer.BYTES + i * Long.BYTES);
+                int[] cursor = { pos };
+                int count = readVarint(cursor);
+                List<String> members = new ArrayList<>(count);
+                int id = 0;
+                for (int j = 0; j < count; ++j) {
+                    id += readVarint(cursor);
+                    members.add(getString(id));
+                }
+                return members;
+            }
+
+            /**
+             * @return index of the record of given key, or -1 if it is absent.
+             */
+            public int find(String key) {
+                int low = 0, high = size - 1;
+                while (low <= high) {
+                    int mid = (low + high) >>> 1;
+                    int cmp = getKey(mid).compareTo(key);
+                    if (cmp < 0) {
+                        low = mid + 1;
+                    } else if (cmp > 0) {
+                        high = mid - 1;
+                    } else {
+                        return mid;
+                    }
+                }
+                return -1;
+            }
+
+            /**
+             * @return iterator of records in this section, where each value
+             * is the rendered members of the record.
+             */
+            public Iterator<ExternalSorter.Entry<String>> entries() {
+                return new Iterator<>() {
+
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < size;
+                    }
+
+                    @Override
+                    public ExternalSorter.Entry<String> next() {
+                        if (i >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        ExternalSorter.Entry<String> entry = new ExternalSorter.Entry<>(
+                                getKey(i), render(getMembers(i)));
+                        ++i;
+                        return entry;
+                    }
+                };
+            }
+
+            private int readVarint(int[] cursor) {
+                int value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = buffer.get(cursor[0]++);
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                return value;
+            }
+        }
+    }
+}
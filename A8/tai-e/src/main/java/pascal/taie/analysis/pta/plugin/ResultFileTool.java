@@ -0,0 +1,126 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.util.ExternalSorter;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Command-line tool for result files in binary format (see {@link ResultFile}).
+ * <ul>
+ *     <li>{@code text <file>} renders the file as the text dump
+ *     of {@link ResultProcessor}.</li>
+ *     <li>{@code diff <old> <new>} prints the records that differ
+ *     between two files, and exits with status 1 if there is any.</li>
+ * </ul>
+ */
+public class ResultFileTool {
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = new PrintStream(new BufferedOutputStream(
+                new FileOutputStream(FileDescriptor.out), 1 << 16),
+                false, StandardCharsets.UTF_8);
+        int status;
+        if (args.length == 2 && args[0].equals("text")) {
+            try (ResultFile.Reader reader = new ResultFile.Reader(Path.of(args[1]))) {
+                render(reader, out);
+            }
+            status = 0;
+        } else if (args.length == 3 && args[0].equals("diff")) {
+            try (ResultFile.Reader oldReader = new ResultFile.Reader(Path.of(args[1]));
+                 ResultFile.Reader newReader = new ResultFile.Reader(Path.of(args[2]))) {
+                status = diff(oldReader, newReader, out) ? 1 : 0;
+            }
+        } else {
+            out.println("Usage: text <FILE> | diff <OLD-FILE> <NEW-FILE>");
+            status = 2;
+        }
+        out.flush();
+        System.exit(status);
+    }
+
+    static void render(ResultFile.Reader reader, PrintStream out) {
+        for (ResultFile.Reader.Section section : reader.getSections()) {
+            if (section.getName().equals(ResultProcessor.TAINT_SECTION)) {
+                out.printf("Detected %d taint flow(s):%n", section.size());
+                for (int i = 0; i < section.size(); ++i) {
+                    out.println(section.getKey(i));
+                }
+            } else {
+                out.println(ResultProcessor.HEADER + section.getName());
+                Iterator<ExternalSorter.Entry<String>> it = section.entries();
+                it.forEachRemaining(e -> out.append(e.key())
+                        .append(ResultProcessor.SEP).println(e.value()));
+            }
+            out.println();
+        }
+    }
+
+    /**
+     * Prints the differences of all sections, where a record only in
+     * the old (new) file is prefixed by "-" ("+").
+     *
+     * @return true if the files differ.
+     */
+    static boolean diff(ResultFile.Reader oldReader,
+                        ResultFile.Reader newReader, PrintStream out) {
+        Set<String> names = new LinkedHashSet<>();
+        oldReader.getSections().forEach(s -> names.add(s.getName()));
+        newReader.getSections().forEach(s -> names.add(s.getName()));
+        boolean[] differs = { false };
+        for (String name : names) {
+            boolean[] printed = { false };
+            ResultProcessor.mergeJoin(entries(newReader, name),
+                    entries(oldReader, name), (key, oldValue, newValue) -> {
+                        if (!printed[0]) {
+                            out.println("@@ " + name);
+                            printed[0] = differs[0] = true;
+                        }
+                        if (oldValue != null) {
+                            out.println("- " + key + ResultProcessor.SEP + oldValue);
+                        }
+                        if (newValue != null) {
+                            out.println("+ " + key + ResultProcessor.SEP + newValue);
+                        }
+                    });
+        }
+        return differs[0];
+    }
+
+    private static Iterator<ExternalSorter.Entry<String>> entries(
+            ResultFile.Reader reader, String name) {
+        ResultFile.Reader.Section section = reader.getSection(name);
+        return section != null ? section.entries() : Collections.emptyIterator();
+    }
+}
@@ -24,51 +24,87 @@ package pascal.taie.analysis.pta.plugin;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.PlanScheduler;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
-import pascal.taie.util.collection.Streams;
+import pascal.taie.util.ExternalSorter;
 
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.function.Function;
 import java.util.function.ToIntFunction;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static pascal.taie.util.collection.CollectionUtils.sum;
 
 /**
  * Dump points-to set to file or compare the analysis result with
  * the ones read from input file.
- * Currently, the compare functionality is mainly for testing purpose.
- * It is not efficient and not recommended applying on large program.
+ * Both functionalities sort the results with bounded memory,
+ * and compare streams the input file, so they also apply to large programs.
  */
 public class ResultProcessor {
 
     private static final Logger logger = LogManager.getLogger(ResultProcessor.class);
 
-    private static final String HEADER = "Points-to sets of all ";
+    static final String HEADER = "Points-to sets of all ";
 
     /**
      * Separator between pointer and its points-to set.
      */
-    private static final String SEP = " -> ";
+    static final String SEP = " -> ";
+
+    private static final String GZIP_SUFFIX = ".gz";
+
+    /**
+     * Suffix of the files in binary format, see {@link ResultFile}.
+     */
+    static final String BINARY_SUFFIX = ".bin";
+
+    /**
+     * Name of the section of taint flows in binary format.
+     */
+    static final String TAINT_SECTION = "taint flows";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Maximum estimated size (in bytes) of the dumped pointers
+     * that are sorted in memory.
+     */
+    private static final long SORT_MEMORY_LIMIT = 64L << 20;
 
     private static final DecimalFormat formatter = new DecimalFormat("#,####");
 
@@ -109,117 +145,419 @@ public class ResultProcessor {
         int reachableInsens = result.getCallGraph().getNumberOfMethods();
         int reachableSens = result.getCSCallGraph().getNumberOfMethods();
         int callEdgeInsens = (int) result.getCallGraph().edges().count();
-        int callEdgeSens = (int) result.getCSCallGraph().edges().count();
-        System.out.println("-------------- Pointer analysis statistics: --------------");
-        System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var pointers:",
+        int callEdgeSens = result.getCSCallGraph().getNumberOfEdges();
+        PrintStream out = PlanScheduler.getOutput();
+        out.println("-------------- Pointer analysis statistics: --------------");
+        out.printf("%-30s%s (insens) / %s (sens)%n", "#var pointers:",
                 format(varInsens), format(varSens));
-        System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var points-to:",
+        out.printf("%-30s%s (insens) / %s (sens)%n", "#var points-to:",
                 format(vptSizeInsens), format(vptSizeSens));
-        System.out.printf("%-30s%s (sens)%n", "#static field points-to:",
+        out.printf("%-30s%s (sens)%n", "#static field points-to:",
                 format(sfptSizeSens));
-        System.out.printf("%-30s%s (sens)%n", "#instance field points-to:",
+        out.printf("%-30s%s (sens)%n", "#instance field points-to:",
                 format(ifptSizeSens));
-        System.out.printf("%-30s%s (sens)%n", "#array points-to:",
+        out.printf("%-30s%s (sens)%n", "#array points-to:",
                 format(aptSizeSens));
-        System.out.printf("%-30s%s (insens) / %s (sens)%n", "#reachable methods:",
+        out.printf("%-30s%s (insens) / %s (sens)%n", "#reachable methods:",
                 format(reachableInsens), format(reachableSens));
-        System.out.printf("%-30s%s (insens) / %s (sens)%n", "#call graph edges:",
+        out.printf("%-30s%s (insens) / %s (sens)%n", "#call graph edges:",
                 format(callEdgeInsens), format(callEdgeSens));
-        System.out.println("----------------------------------------");
+        out.println("----------------------------------------");
     }
 
     private static String format(int i) {
         return formatter.format(i);
     }
 
+    /**
+     * @return map from the descriptions of pointer kinds to the pointers.
+     */
+    private static Map<String, Collection<? extends Pointer>> getPointers(
+            PointerAnalysisResult result) {
+        Map<String, Collection<? extends Pointer>> pointers = new LinkedHashMap<>();
+        pointers.put("variables", result.getCSVars());
+        pointers.put("static fields", result.getStaticFields());
+        pointers.put("instance fields", result.getInstanceFields());
+        pointers.put("array indexes", result.getArrayIndexes());
+        return pointers;
+    }
+
+    /**
+     * Dumps points-to sets (and taint flows) to the output file,
+     * which is written in binary format if its name ends with ".bin",
+     * or compressed by gzip if its name ends with ".gz".
+     */
     private static void dumpPointsToSet(PointerAnalysisResult result,
                                         String output, boolean taintEnabled) {
+        if (output != null && output.endsWith(BINARY_SUFFIX)) {
+            dumpBinary(result, output, taintEnabled);
+            return;
+        }
         PrintStream out;
         if (output != null) {  // if output file is given, then dump to the file
             File outFile = new File(output);
             try {
-                out = new PrintStream(new FileOutputStream(outFile));
+                OutputStream os = Channels.newOutputStream(FileChannel.open(
+                        outFile.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE));
+                os = output.endsWith(GZIP_SUFFIX) ?
+                        new GZIPOutputStream(os, BUFFER_SIZE) :
+                        new BufferedOutputStream(os, BUFFER_SIZE);
+                out = new PrintStream(os, false, StandardCharsets.UTF_8);
                 logger.info("Dumping points-to set to {} ...", outFile);
-            } catch (FileNotFoundException e) {
+            } catch (IOException e) {
                 throw new RuntimeException("Failed to open output file", e);
             }
-        } else {  // otherwise, dump to System.out
-            out = System.out;
+        } else {  // otherwise, dump to the output of the analysis
+            out = PlanScheduler.getOutput();
         }
-        dumpPointers(out, result.getCSVars(), "variables");
-        dumpPointers(out, result.getStaticFields(), "static fields");
-        dumpPointers(out, result.getInstanceFields(), "instance fields");
-        dumpPointers(out, result.getArrayIndexes(), "array indexes");
+        PrintStream o = out;
+        getPointers(result).forEach((desc, pointers) ->
+                dumpPointers(o, pointers, desc));
         if (taintEnabled) {
             dumpTaintFlows(out, result);
         }
-        if (out != System.out) {
+        if (output != null) {
             out.close();
+        } else {
+            out.flush();
         }
     }
 
     private static void dumpPointers(PrintStream out, Collection<? extends Pointer> pointers, String desc) {
         out.println(HEADER + desc);
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> out.println(p + SEP + toString(p.getPointsToSet())));
+        ObjectTable objects = new ObjectTable(pointers);
+        try (ExternalSorter<int[]> sorter = sortPointers(pointers, objects, desc)) {
+            sorter.sorted().forEachRemaining(e -> out.append(e.key())
+                    .append(SEP).println(objects.render(e.value())));
+        }
         out.println();
     }
 
+    /**
+     * Sorts pointers by their string representations, which are computed
+     * only once for each pointer, and keeps their points-to sets as
+     * the compact IDs in given object table.
+     * If the pointers are too many, they are sorted externally on disk.
+     */
+    private static ExternalSorter<int[]> sortPointers(
+            Collection<? extends Pointer> pointers, ObjectTable objects, String desc) {
+        ExternalSorter<int[]> sorter = new ExternalSorter<>(
+                SORT_MEMORY_LIMIT, ExternalSorter.INTS);
+        pointers.forEach(p ->
+                sorter.add(p.toString(), objects.getIds(p.getPointsToSet())));
+        if (sorter.getNumberOfRuns() > 0) {
+            logger.info("Merging {} sorted runs of {} ...",
+                    sorter.getNumberOfRuns(), desc);
+        }
+        return sorter;
+    }
+
+    /**
+     * Table of the objects pointed to by a section of pointers.
+     * Each object is rendered only once, and is identified by the rank
+     * of its string representation, so that sorted IDs of a points-to set
+     * are also sorted by the rendered objects.
+     */
+    private static class ObjectTable {
+
+        private final Map<CSObj, Integer> ids = new HashMap<>();
+
+        private final String[] names;
+
+        private ObjectTable(Collection<? extends Pointer> pointers) {
+            Map<CSObj, String> objects = new HashMap<>();
+            pointers.forEach(p -> p.getPointsToSet().forEach(o ->
+                    objects.computeIfAbsent(o, Object::toString)));
+            List<Map.Entry<CSObj, String>> sorted = new ArrayList<>(objects.entrySet());
+            sorted.sort(Map.Entry.comparingByValue());
+            names = new String[sorted.size()];
+            for (int i = 0; i < names.length; ++i) {
+                ids.put(sorted.get(i).getKey(), i);
+                names[i] = sorted.get(i).getValue();
+            }
+        }
+
+        /**
+         * @return sorted IDs of the objects in given points-to set.
+         */
+        private int[] getIds(PointsToSet pts) {
+            int[] result = pts.objects().mapToInt(ids::get).toArray();
+            Arrays.sort(result);
+            return result;
+        }
+
+        private List<String> getNames(int[] ids) {
+            return Arrays.stream(ids).mapToObj(i -> names[i]).toList();
+        }
+
+        /**
+         * Renders the objects of given IDs in the same way as
+         * {@link pascal.taie.util.collection.Streams#toString}.
+         */
+        private String render(int[] ids) {
+            return "[" + String.join(", ", getNames(ids)) + "]";
+        }
+    }
+
+    /**
+     * Dumps points-to sets (and taint flows) to the output file
+     * in binary format.
+     */
+    private static void dumpBinary(PointerAnalysisResult result,
+                                   String output, boolean taintEnabled) {
+        logger.info("Dumping points-to set to {} ...", output);
+        try (ResultFile.Writer writer = new ResultFile.Writer(Path.of(output))) {
+            for (var entry : getPointers(result).entrySet()) {
+                writer.beginSection(entry.getKey());
+                ObjectTable objects = new ObjectTable(entry.getValue());
+                try (ExternalSorter<int[]> sorter = sortPointers(
+                        entry.getValue(), objects, entry.getKey())) {
+                    writeSorted(writer, sorter, objects::getNames);
+                }
+            }
+            if (taintEnabled) {
+                writer.beginSection(TAINT_SECTION);
+                try (ExternalSorter<String> sorter = new ExternalSorter<>(
+                        SORT_MEMORY_LIMIT, ExternalSorter.STRINGS)) {
+                    getTaintFlows(result).forEach(taintFlow ->
+                            sorter.add(taintFlow.toString(), ""));
+                    writeSorted(writer, sorter, value -> List.of());
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to dump points-to set to " + output, e);
+        }
+    }
+
+    /**
+     * Writes the sorted pairs as records, and drops the pairs
+     * with duplicate keys.
+     */
+    private static <V> void writeSorted(ResultFile.Writer writer, ExternalSorter<V> sorter,
+                                        Function<V, List<String>> toMembers)
+            throws IOException {
+        Iterator<ExternalSorter.Entry<V>> it = sorter.sorted();
+        ExternalSorter.Entry<V> prev = null;
+        while ((prev = nextDistinct(it, prev)) != null) {
+            writer.add(prev.key(), toMembers.apply(prev.value()));
+        }
+    }
+
+    /**
+     * Compares points-to sets with the ones in the input file, which
+     * is produced by action dump. Both sides are sorted by pointers
+     * in each section, and merge-joined line by line, so the input file
+     * is never loaded into memory.
+     */
     private static void comparePointsToSet(PointerAnalysisResult result, String input) {
         logger.info("Comparing points-to set with {} ...", input);
-        var inputs = readPointsToSets(input);
-        Map<String, Pointer> pointers = new LinkedHashMap<>();
-        addPointers(pointers, result.getCSVars());
-        addPointers(pointers, result.getStaticFields());
-        addPointers(pointers, result.getInstanceFields());
-        addPointers(pointers, result.getArrayIndexes());
+        var sections = getPointers(result);
         List<String> mismatches = new ArrayList<>();
-        pointers.forEach((pointerStr, pointer) -> {
-            String given = toString(pointer.getPointsToSet());
-            String expected = inputs.get(pointerStr);
-            if (!given.equals(expected)) {
+        MismatchHandler handler = (pointerStr, expected, given) ->
                 mismatches.add(String.format("%s, expected: %s, given: %s",
                         pointerStr, expected, given));
+        try {
+            if (input.endsWith(BINARY_SUFFIX)) {
+                compareBinarySections(sections, input, handler);
+            } else {
+                compareTextSections(sections, input, handler);
             }
-        });
-        inputs.keySet()
-                .stream()
-                .filter(Predicate.not(pointers::containsKey))
-                .forEach(pointerStr -> {
-                    String expected = inputs.get(pointerStr);
-                    mismatches.add(String.format("%s, expected: %s, given: null",
-                            pointerStr, expected));
-                });
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to read points-to set from " + input, e);
+        }
+        // pointers of the sections absent in the input file
+        sections.forEach((desc, pointers) -> comparePointers(
+                pointers, desc, Collections.emptyIterator(), handler));
         if (!mismatches.isEmpty()) {
             throw new AnalysisException("Mismatches of points-to set\n" +
                     String.join("\n", mismatches));
         }
     }
 
-    private static Map<String, String> readPointsToSets(String input) {
-        try {
-            Map<String, String> result = new LinkedHashMap<>();
-            Files.lines(Path.of(input))
-                    .filter(line -> line.contains(SEP))
-                    .map(line -> line.split(SEP))
-                    .forEach(s -> result.put(s[0], s[1]));
+    /**
+     * Compares the sections in the text input file, and removes
+     * the compared sections from given sections.
+     */
+    private static void compareTextSections(
+            Map<String, Collection<? extends Pointer>> sections,
+            String input, MismatchHandler handler) throws IOException {
+        try (BufferedReader reader = newReader(input)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(HEADER)) {
+                    String desc = line.substring(HEADER.length());
+                    var pointers = sections.remove(desc);
+                    if (pointers != null) {
+                        comparePointers(pointers, desc,
+                                new SectionIterator(reader, input), handler);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the sections in the binary input file, and removes
+     * the compared sections from given sections.
+     */
+    private static void compareBinarySections(
+            Map<String, Collection<? extends Pointer>> sections,
+            String input, MismatchHandler handler) throws IOException {
+        try (ResultFile.Reader reader = new ResultFile.Reader(Path.of(input))) {
+            for (ResultFile.Reader.Section section : reader.getSections()) {
+                var pointers = sections.remove(section.getName());
+                if (pointers != null) {
+                    comparePointers(pointers, section.getName(),
+                            section.entries(), handler);
+                }
+            }
+        }
+    }
+
+    private static void comparePointers(
+            Collection<? extends Pointer> pointers, String desc,
+            Iterator<ExternalSorter.Entry<String>> expected, MismatchHandler handler) {
+        ObjectTable objects = new ObjectTable(pointers);
+        try (ExternalSorter<int[]> sorter = sortPointers(pointers, objects, desc)) {
+            Iterator<ExternalSorter.Entry<int[]>> it = sorter.sorted();
+            // renders the given points-to sets one by one
+            mergeJoin(new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public ExternalSorter.Entry<String> next() {
+                    ExternalSorter.Entry<int[]> e = it.next();
+                    return new ExternalSorter.Entry<>(e.key(), objects.render(e.value()));
+                }
+            }, expected, handler);
+        }
+    }
+
+    /**
+     * Iterates the (pointer, points-to set) pairs of a section
+     * in the dumped file, which ends with a line without {@link #SEP}.
+     */
+    static class SectionIterator implements Iterator<ExternalSorter.Entry<String>> {
+
+        private final BufferedReader reader;
+
+        private final String input;
+
+        private ExternalSorter.Entry<String> next;
+
+        SectionIterator(BufferedReader reader, String input) {
+            this.reader = reader;
+            this.input = input;
+            advance();
+        }
+
+        private void advance() {
+            String line;
+            try {
+                line = reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int i = line == null ? -1 : line.indexOf(SEP);
+            if (i < 0) {
+                next = null;
+                return;
+            }
+            String key = line.substring(0, i);
+            if (next != null && key.compareTo(next.key()) < 0) {
+                throw new AnalysisException(input + " is not sorted at \""
+                        + key + "\", please re-generate it by action dump");
+            }
+            next = new ExternalSorter.Entry<>(key, line.substring(i + SEP.length()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public ExternalSorter.Entry<String> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            ExternalSorter.Entry<String> result = next;
+            advance();
             return result;
-        } catch (IOException e) {
-            throw new AnalysisException(
-                    "Failed to read points-to set from " + input, e);
         }
     }
 
-    private static void addPointers(Map<String, Pointer> map,
-                                    Collection<? extends Pointer> pointers) {
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> map.put(p.toString(), p));
+    /**
+     * Handles a mismatch of the key, where expected/given is null if
+     * the key is absent in the expected/given results.
+     */
+    interface MismatchHandler {
+        void handle(String key, @Nullable String expected, @Nullable String given);
+    }
+
+    /**
+     * Merge-joins the given and expected pairs, which are both sorted by
+     * keys, and reports the mismatches to handler. Duplicate keys on
+     * either side are compared only once.
+     */
+    static void mergeJoin(Iterator<ExternalSorter.Entry<String>> given,
+                          Iterator<ExternalSorter.Entry<String>> expected,
+                          MismatchHandler handler) {
+        ExternalSorter.Entry<String> g = nextDistinct(given, null);
+        ExternalSorter.Entry<String> e = nextDistinct(expected, null);
+        while (g != null || e != null) {
+            int cmp = g == null ? 1 : e == null ? -1 : g.key().compareTo(e.key());
+            if (cmp == 0) {
+                if (!g.value().equals(e.value())) {
+                    handler.handle(g.key(), e.value(), g.value());
+                }
+            } else if (cmp < 0) {
+                handler.handle(g.key(), null, g.value());
+            } else {
+                handler.handle(e.key(), e.value(), null);
+            }
+            if (cmp <= 0) {
+                g = nextDistinct(given, g);
+            }
+            if (cmp >= 0) {
+                e = nextDistinct(expected, e);
+            }
+        }
+    }
+
+    /**
+     * @return the next pair whose key differs from the key of prev,
+     * or null if there is no such pair.
+     */
+    @Nullable
+    private static <V> ExternalSorter.Entry<V> nextDistinct(
+            Iterator<ExternalSorter.Entry<V>> it, @Nullable ExternalSorter.Entry<V> prev) {
+        while (it.hasNext()) {
+            ExternalSorter.Entry<V> next = it.next();
+            if (prev == null || !next.key().equals(prev.key())) {
+                return next;
+            }
+        }
+        return null;
     }
 
-    private static String toString(PointsToSet pts) {
-        return Streams.toString(pts.objects());
+    /**
+     * @return reader of the input file, which is decompressed by gzip
+     * if its name ends with ".gz".
+     */
+    private static BufferedReader newReader(String input) throws IOException {
+        InputStream in = Files.newInputStream(Path.of(input));
+        if (input.endsWith(GZIP_SUFFIX)) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
     }
 
     private static void dumpTaintFlows(PrintStream out, PointerAnalysisResult result) {
@@ -241,37 +579,55 @@ public class ResultProcessor {
         throw new AnalysisException("Taint analysis result is absent");
     }
 
+    /**
+     * Compares taint flows with the ones in the input file.
+     * Both sides are sorted (externally if they are large) and merge-joined.
+     */
     private static void compareTaintFlows(PointerAnalysisResult result, String input) {
         logger.info("Comparing taint flows with {} ...", input);
-        List<String> inputs = readTaintFlows(input);
-        List<String> taintFlows = getTaintFlows(result)
-                .stream()
-                .map(TaintFlow::toString)
-                .collect(Collectors.toList());
         List<String> mismatches = new ArrayList<>();
-        taintFlows.forEach(taintFlow -> {
-            if (!inputs.contains(taintFlow)) {
-                mismatches.add(taintFlow + " should NOT be included");
-            }
-        });
-        inputs.forEach(expected -> {
-            if (!taintFlows.contains(expected)) {
-                mismatches.add(expected + " should be included");
-            }
-        });
+        try (ExternalSorter<String> taintFlows = new ExternalSorter<>(
+                SORT_MEMORY_LIMIT, ExternalSorter.STRINGS);
+             ExternalSorter<String> inputs = new ExternalSorter<>(
+                     SORT_MEMORY_LIMIT, ExternalSorter.STRINGS)) {
+            getTaintFlows(result).forEach(taintFlow ->
+                    taintFlows.add(taintFlow.toString(), ""));
+            readTaintFlows(input, inputs);
+            mergeJoin(taintFlows.sorted(), inputs.sorted(),
+                    (taintFlow, expected, given) -> {
+                        if (expected == null) {
+                            mismatches.add(taintFlow + " should NOT be included");
+                        } else if (given == null) {
+                            mismatches.add(taintFlow + " should be included");
+                        }
+                    });
+        }
         if (!mismatches.isEmpty()) {
             throw new AnalysisException("Mismatches of taint flow(s)\n" +
                     String.join("\n", mismatches));
         }
     }
 
-    private static List<String> readTaintFlows(String input) {
-        try {
-            List<String> taintFlows = new ArrayList<>();
-            Files.lines(Path.of(input))
-                    .filter(line -> line.startsWith("TaintFlow{") && line.contains(SEP))
-                    .forEach(taintFlows::add);
-            return taintFlows;
+    private static void readTaintFlows(String input, ExternalSorter<String> taintFlows) {
+        if (input.endsWith(BINARY_SUFFIX)) {
+            try (ResultFile.Reader reader = new ResultFile.Reader(Path.of(input))) {
+                ResultFile.Reader.Section section = reader.getSection(TAINT_SECTION);
+                for (int i = 0; section != null && i < section.size(); ++i) {
+                    taintFlows.add(section.getKey(i), "");
+                }
+            } catch (IOException e) {
+                throw new AnalysisException(
+                        "Failed to read taint flows from " + input, e);
+            }
+            return;
+        }
+        try (BufferedReader reader = newReader(input)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("TaintFlow{") && line.contains(SEP)) {
+                    taintFlows.add(line, "");
+                }
+            }
         } catch (IOException e) {
             throw new AnalysisException(
                     "Failed to read taint flows from " + input, e);
@@ -35,7 +35,10 @@ import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
+import javax.annotation.Nullable;
 import java.util.*;
 
 public class TaintAnalysiss {
@@ -46,6 +49,11 @@ public class TaintAnalysiss {
 
     private final TaintConfig config;
 
+    /**
+     * Taint transfers in {@link #config}, indexed by their methods.
+     */
+    private final MultiMap<JMethod, TaintTransfer> transfers = Maps.newMultiMap();
+
     private final Solver solver;
 
     private final CSManager csManager;
@@ -62,6 +70,7 @@ public class TaintAnalysiss {
                 World.get().getClassHierarchy(),
                 World.get().getTypeSystem());
         logger.info(config);
+        config.getTransfers().forEach(t -> transfers.put(t.method(), t));
     }
 
     // TODO - finish me
@@ -81,24 +90,38 @@ public class TaintAnalysiss {
         csCallGraph.edges().forEach(edge -> {
             if (edge.getCallSite().equals(csCallSite)) {
                 JMethod method = edge.getCallee().getMethod();
-                Type type = method.getReturnType();
                 Context context = csCallSite.getContext();
                 CSVar csRet = null;
                 if (csCallSite.getCallSite().getLValue() != null) {
                     csRet = csManager.getCSVar(context, csCallSite.getCallSite().getLValue());
                 }
-                processBaseToResult(method, type, base, csRet);
-                processArgToResult(method, type, csRet, csCallSite);
-                processArgToBase(method, type, base, csCallSite);
+                processBaseToResult(method, base, csRet);
+                processArgToResult(method, csRet, csCallSite);
+                processArgToBase(method, base, csCallSite);
             }
         });
     }
 
 
-    private void processBaseToResult(JMethod method, Type type, CSVar base, CSVar ret) {
+    /**
+     * @return the type of taint objects transferred by given method
+     * from {@code from} to {@code to}, or null if the configuration
+     * contains no such transfer.
+     */
+    @Nullable
+    private Type getTransferType(JMethod method, int from, int to) {
+        for (TaintTransfer transfer : transfers.get(method)) {
+            if (transfer.from() == from && transfer.to() == to) {
+                return transfer.type();
+            }
+        }
+        return null;
+    }
+
+    private void processBaseToResult(JMethod method, CSVar base, CSVar ret) {
         if (base == null || ret == null) return ;
-        TaintTransfer taintTransfer = new TaintTransfer(method, TaintTransfer.BASE, TaintTransfer.RESULT, type);
-        if (config.getTransfers().contains(taintTransfer)) {
+        Type type = getTransferType(method, TaintTransfer.BASE, TaintTransfer.RESULT);
+        if (type != null) {
             base.getPointsToSet().forEach(csObj -> {
                 if (manager.isTaint(csObj.getObject())) {
                     Invoke source = manager.getSourceCall(csObj.getObject());
@@ -112,15 +135,15 @@ public class TaintAnalysiss {
         }
     }
 
-    private void processArgToBase(JMethod method, Type type, CSVar base, CSCallSite csCallSite) {
+    private void processArgToBase(JMethod method, CSVar base, CSCallSite csCallSite) {
         if (base == null) return;
         PointerAnalysisResult result = solver.getResult();
         for (int index = 0; index < method.getParamCount(); index++) {
             Var arg = csCallSite.getCallSite().getInvokeExp().getArg(index);
             for (Obj obj: result.getPointsToSet(arg)) {
                 if (manager.isTaint(obj)) {
-                    TaintTransfer taintTransfer = new TaintTransfer(method, index, TaintTransfer.BASE, type);
-                    if (config.getTransfers().contains(taintTransfer)) {
+                    Type type = getTransferType(method, index, TaintTransfer.BASE);
+                    if (type != null) {
                         Invoke source = manager.getSourceCall(obj);
                         solver.addTaintEdge(
                                 csManager.getCSVar(csCallSite.getContext(), arg),
@@ -133,15 +156,15 @@ public class TaintAnalysiss {
         }
     }
 
-    private void processArgToResult(JMethod method, Type type, CSVar ret, CSCallSite csCallSite) {
+    private void processArgToResult(JMethod method, CSVar ret, CSCallSite csCallSite) {
         if (ret == null) return;
         PointerAnalysisResult result = solver.getResult();
         for (int index = 0; index < method.getParamCount(); index++) {
             Var arg = csCallSite.getCallSite().getInvokeExp().getArg(index);
             for (Obj obj : result.getPointsToSet(arg)) {
                 if (manager.isTaint(obj)) {
-                    TaintTransfer taintTransfer = new TaintTransfer(method, index, TaintTransfer.RESULT, type);
-                    if (config.getTransfers().contains(taintTransfer)) {
+                    Type type = getTransferType(method, index, TaintTransfer.RESULT);
+                    if (type != null) {
                         Invoke source = manager.getSourceCall(obj);
                         solver.addTaintEdge(
                                 csManager.getCSVar(csCallSite.getContext(), arg),
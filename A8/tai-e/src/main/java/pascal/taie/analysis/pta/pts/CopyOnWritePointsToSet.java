@@ -0,0 +1,106 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set that shares an immutable set of objects with other
+ * points-to sets, and copies it on the first mutation.
+ * Instances are created by {@link PointsToSetInterner}.
+ */
+class CopyOnWritePointsToSet implements PointsToSet {
+
+    private Set<CSObj> set;
+
+    /**
+     * Whether {@link #set} is shared (thus immutable).
+     */
+    private boolean shared;
+
+    CopyOnWritePointsToSet(Set<CSObj> sharedSet) {
+        this.set = sharedSet;
+        this.shared = true;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        if (shared && set.contains(obj)) {
+            return false;
+        }
+        return ownSet().add(obj);
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (shared && set.containsAll(pts.getObjects())) {
+            return false;
+        }
+        return ownSet().addAll(pts.getObjects());
+    }
+
+    private Set<CSObj> ownSet() {
+        if (shared) {
+            Set<CSObj> copy = Sets.newHybridSet();
+            copy.addAll(set);
+            set = copy;
+            shared = false;
+        }
+        return set;
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return set.contains(obj);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return set.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return shared ? set : Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return set.stream();
+    }
+
+    @Override
+    public String toString() {
+        return set.toString();
+    }
+}
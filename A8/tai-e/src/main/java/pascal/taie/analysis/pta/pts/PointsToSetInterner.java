@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash-conses points-to sets: structurally equal points-to sets are
+ * represented by one shared immutable set of objects. Each interned
+ * points-to set still has its own (small) {@link PointsToSet} instance,
+ * which copies the shared set on write, so it is safe to keep mutating
+ * interned points-to sets.
+ */
+public class PointsToSetInterner {
+
+    private final Map<Set<CSObj>, Set<CSObj>> canonicalSets = Maps.newMap();
+
+    private int interned = 0;
+
+    /**
+     * @return a points-to set that is equal to given set and shares
+     * its objects with the other points-to sets interned before.
+     */
+    public PointsToSet intern(PointsToSet pts) {
+        ++interned;
+        Set<CSObj> objs = pts.getObjects();
+        Set<CSObj> canonical = canonicalSets.get(objs);
+        if (canonical == null) {
+            Set<CSObj> copy = Sets.newHybridSet();
+            copy.addAll(objs);
+            canonical = Collections.unmodifiableSet(copy);
+            canonicalSets.put(canonical, canonical);
+        }
+        return new CopyOnWritePointsToSet(canonical);
+    }
+
+    /**
+     * @return the number of points-to sets interned by this interner.
+     */
+    public int getInternedCount() {
+        return interned;
+    }
+
+    /**
+     * @return the number of distinct sets among the interned points-to sets.
+     */
+    public int getDistinctCount() {
+        return canonicalSets.size();
+    }
+
+    /**
+     * @return the fraction of interned points-to sets that were found
+     * to be duplicates, i.e., 1 - distinct/interned.
+     */
+    public double getDedupRatio() {
+        return interned == 0 ? 0 : 1 - (double) canonicalSets.size() / interned;
+    }
+}
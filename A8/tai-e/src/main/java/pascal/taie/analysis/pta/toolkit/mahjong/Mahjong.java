@@ -0,0 +1,263 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.mahjong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Mahjong-style pre-analysis which finds type-consistent objects,
+ * i.e., the allocation-site objects that can be merged without affecting
+ * type-dependent clients (e.g., call graph construction and cast checks).
+ * <p>
+ * Given the result of a context-insensitive pointer analysis, it builds
+ * the field points-to graph (FPG), whose nodes are objects and whose edges
+ * {@code o -f-> o'} mean that field f of o may point to o'. Two objects
+ * are type-consistent if they have the same type and, for every field,
+ * the objects pointed to by that field are pairwise type-consistent
+ * in the same way. This is computed by partition refinement over the FPG,
+ * starting from the partition by types.
+ * <p>
+ * Objects, fields and types are numbered once, and each refinement round
+ * only builds an int array signature per object, which is hashed to find
+ * the objects of the same class.
+ * <p>
+ * Only {@link NewObj}s are merged; the special objects (constants, mock
+ * and already-merged objects) are left as is.
+ */
+public class Mahjong {
+
+    private static final Logger logger = LogManager.getLogger(Mahjong.class);
+
+    /**
+     * ID of the pseudo field that represents the elements of arrays.
+     */
+    private static final int ARRAY_FIELD = 0;
+
+    /**
+     * Merge candidates, ordered by their allocation sites.
+     */
+    private final List<NewObj> objs;
+
+    /**
+     * Map from each merge candidate to its index in {@link #objs}.
+     */
+    private final Map<Obj, Integer> indexes = Maps.newMap();
+
+    /**
+     * IDs of the types of the objects that are not merge candidates.
+     */
+    private final Map<Type, Integer> typeIds = Maps.newMap();
+
+    /**
+     * Field points-to graph. For the i-th object, fields[i] are the IDs
+     * of its fields that point to objects, in ascending order, and
+     * pointees[i][j] are the objects pointed to by field fields[i][j].
+     * Each pointee is given by its index if it is a merge candidate,
+     * otherwise by -1-(ID of its type), as it stays in a class of its own.
+     */
+    private final int[][] fields;
+
+    private final int[][][] pointees;
+
+    public Mahjong(PointerAnalysisResult pta) {
+        objs = pta.getObjects()
+                .stream()
+                .filter(o -> o instanceof NewObj)
+                .map(o -> (NewObj) o)
+                .sorted(Comparator.comparing((NewObj o) -> o.getContainerMethod()
+                                .map(JMethod::getSignature)
+                                .orElse(""))
+                        .thenComparingInt(o -> o.getAllocation().getIndex()))
+                .toList();
+        for (int i = 0; i < objs.size(); ++i) {
+            indexes.put(objs.get(i), i);
+        }
+        // build the FPG
+        Map<JField, Integer> fieldIds = Maps.newMap();
+        List<Map<Integer, Set<Integer>>> fpg = new ArrayList<>(objs.size());
+        for (int i = 0; i < objs.size(); ++i) {
+            fpg.add(Maps.newSmallMap());
+        }
+        for (InstanceField field : pta.getInstanceFields()) {
+            int fieldId = fieldIds.computeIfAbsent(field.getField(),
+                    f -> fieldIds.size() + 1);
+            addFPGEdges(fpg, field.getBase(), fieldId, field);
+        }
+        for (ArrayIndex index : pta.getArrayIndexes()) {
+            addFPGEdges(fpg, index.getArray(), ARRAY_FIELD, index);
+        }
+        fields = new int[objs.size()][];
+        pointees = new int[objs.size()][][];
+        for (int i = 0; i < objs.size(); ++i) {
+            Map<Integer, Set<Integer>> edges = fpg.get(i);
+            fields[i] = edges.keySet()
+                    .stream()
+                    .mapToInt(Integer::intValue)
+                    .sorted()
+                    .toArray();
+            pointees[i] = new int[fields[i].length][];
+            for (int j = 0; j < fields[i].length; ++j) {
+                pointees[i][j] = edges.get(fields[i][j])
+                        .stream()
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+    }
+
+    /**
+     * @return the groups of type-consistent objects which contain
+     * at least two objects. The objects of each group are ordered by
+     * their allocation sites, so the first one can serve as
+     * the representative of the group across runs.
+     */
+    public List<List<Obj>> computeEquivalentObjects() {
+        int n = objs.size();
+        // object index -> ID of the equivalence class it belongs to
+        int[] classes = new int[n];
+        Map<Type, Integer> initialClasses = Maps.newMap();
+        for (int i = 0; i < n; ++i) {
+            classes[i] = initialClasses.computeIfAbsent(
+                    objs.get(i).getType(), t -> initialClasses.size());
+        }
+        int nClasses = initialClasses.size();
+        while (true) {
+            Map<Signature, Integer> signatureIds = Maps.newMap(nClasses);
+            int[] newClasses = new int[n];
+            for (int i = 0; i < n; ++i) {
+                newClasses[i] = signatureIds.computeIfAbsent(
+                        signature(i, classes), s -> signatureIds.size());
+            }
+            classes = newClasses;
+            if (signatureIds.size() == nClasses) {
+                break;
+            }
+            nClasses = signatureIds.size();
+        }
+        // class IDs are numbered by the first objects of the classes,
+        // thus the groups are in the order of their first objects
+        List<List<Obj>> groups = new ArrayList<>(nClasses);
+        for (int i = 0; i < nClasses; ++i) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; ++i) {
+            groups.get(classes[i]).add(objs.get(i));
+        }
+        List<List<Obj>> result = groups.stream()
+                .filter(group -> group.size() > 1)
+                .toList();
+        logger.info("Mahjong: {} objects are merged into {} objects",
+                result.stream().mapToInt(List::size).sum(), result.size());
+        return result;
+    }
+
+    private void addFPGEdges(List<Map<Integer, Set<Integer>>> fpg,
+                             CSObj base, int fieldId, Pointer pointer) {
+        Integer baseIndex = indexes.get(base.getObject());
+        if (baseIndex == null) {
+            return;
+        }
+        Set<Integer> targets = fpg.get(baseIndex)
+                .computeIfAbsent(fieldId, f -> Sets.newHybridSet());
+        for (CSObj csObj : pointer.getPointsToSet()) {
+            Obj obj = csObj.getObject();
+            Integer index = indexes.get(obj);
+            targets.add(index != null ? index : -1 - getTypeId(obj.getType()));
+        }
+    }
+
+    private int getTypeId(Type type) {
+        return typeIds.computeIfAbsent(type, t -> typeIds.size());
+    }
+
+    /**
+     * @return the signature of the i-th object under current partition,
+     * i.e., its current class and, for each field, the sorted distinct
+     * classes of the objects pointed to by the field.
+     */
+    private Signature signature(int i, int[] classes) {
+        int[] objFields = fields[i];
+        int length = 1;
+        for (int[] targets : pointees[i]) {
+            length += 2 + targets.length;
+        }
+        int[] sig = new int[length];
+        int k = 0;
+        sig[k++] = classes[i];
+        for (int j = 0; j < objFields.length; ++j) {
+            sig[k++] = objFields[j];
+            int countIndex = k++;
+            int start = k;
+            for (int target : pointees[i][j]) {
+                sig[k++] = target >= 0 ? classes[target] : target;
+            }
+            Arrays.sort(sig, start, k);
+            int end = start;
+            for (int m = start; m < k; ++m) {
+                if (m == start || sig[m] != sig[end - 1]) {
+                    sig[end++] = sig[m];
+                }
+            }
+            sig[countIndex] = end - start;
+            k = end;
+        }
+        return new Signature(k == length ? sig : Arrays.copyOf(sig, k));
+    }
+
+    /**
+     * Signature of an object in a refinement round.
+     */
+    private record Signature(int[] values) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature that &&
+                    Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.zipper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A Zipper-style pre-analysis which selects the methods that are
+ * critical to the precision of context-sensitive pointer analysis.
+ * <p>
+ * Given the result of a context-insensitive pointer analysis, a method
+ * is considered to cause precision loss if objects flow through it
+ * in one of the following patterns, where IN are the objects pointed
+ * to by its parameters and OUT are the objects pointed to by its
+ * return variables:
+ * <ul>
+ *     <li>direct flow: IN flows to OUT, e.g., identity-like methods;
+ *     <li>wrapped flow: IN is stored into the fields of the receiver
+ *     objects (or objects owned by them), e.g., container "add" methods;
+ *     <li>unwrapped flow: objects loaded from the fields of the receiver
+ *     objects (or objects owned by them) flow to OUT, e.g., container
+ *     "get" methods.
+ * </ul>
+ * The types of the receiver objects of such methods are precision-critical,
+ * and all methods invoked on the objects of these types, and on the objects
+ * owned by them, are selected to be analyzed context-sensitively.
+ */
+public class Zipper {
+
+    private static final Logger logger = LogManager.getLogger(Zipper.class);
+
+    private final PointerAnalysisResultEx pta;
+
+    /**
+     * Map from an object to the objects pointed to by its instance
+     * fields and array indexes, i.e., the objects it owns.
+     */
+    private final MultiMap<Obj, Obj> ownedObjects = Maps.newMultiMap();
+
+    public Zipper(PointerAnalysisResult pta) {
+        this.pta = new PointerAnalysisResultExImpl(pta);
+        buildOwnedObjects(pta);
+    }
+
+    /**
+     * @return the precision-critical methods.
+     */
+    public Set<JMethod> selectPrecisionCriticalMethods() {
+        PointerAnalysisResult base = pta.getBase();
+        Set<Type> criticalTypes = Sets.newSet();
+        base.getCallGraph().reachableMethods()
+                .filter(m -> !m.isStatic() && !m.isAbstract())
+                .filter(this::hasPrecisionLossFlow)
+                .forEach(m -> pta.getReceiverObjectsOf(m)
+                        .forEach(recv -> criticalTypes.add(recv.getType())));
+        Set<JMethod> methods = Sets.newSet();
+        base.getObjects()
+                .stream()
+                .filter(obj -> criticalTypes.contains(obj.getType()))
+                .forEach(obj -> {
+                    methods.addAll(pta.getMethodsInvokedOn(obj));
+                    ownedObjects.get(obj).forEach(owned ->
+                            methods.addAll(pta.getMethodsInvokedOn(owned)));
+                });
+        logger.info("Zipper: {} precision-critical types, {} of {}" +
+                        " reachable methods are precision-critical",
+                criticalTypes.size(), methods.size(),
+                base.getCallGraph().getNumberOfMethods());
+        return methods;
+    }
+
+    private void buildOwnedObjects(PointerAnalysisResult pta) {
+        for (InstanceField field : pta.getInstanceFields()) {
+            Obj owner = field.getBase().getObject();
+            for (CSObj csObj : field.getPointsToSet()) {
+                ownedObjects.put(owner, csObj.getObject());
+            }
+        }
+        for (ArrayIndex index : pta.getArrayIndexes()) {
+            Obj owner = index.getArray().getObject();
+            for (CSObj csObj : index.getPointsToSet()) {
+                ownedObjects.put(owner, csObj.getObject());
+            }
+        }
+    }
+
+    private boolean hasPrecisionLossFlow(JMethod method) {
+        IR ir = method.getIR();
+        Set<Obj> in = pointsTo(ir.getParams());
+        Set<Obj> out = pointsTo(ir.getReturnVars());
+        if (in.isEmpty() && out.isEmpty()) {
+            return false;
+        }
+        if (intersects(in, out)) { // direct flow
+            return true;
+        }
+        Set<Obj> owned = Sets.newHybridSet(pta.getReceiverObjectsOf(method));
+        pta.getReceiverObjectsOf(method)
+                .forEach(recv -> owned.addAll(ownedObjects.get(recv)));
+        for (Stmt stmt : ir) {
+            if (!in.isEmpty()) { // wrapped flow
+                if (stmt instanceof StoreField store && !store.isStatic()) {
+                    Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                    if (pointsTo(base, owned) && pointsTo(store.getRValue(), in)) {
+                        return true;
+                    }
+                } else if (stmt instanceof StoreArray store) {
+                    Var base = store.getArrayAccess().getBase();
+                    if (pointsTo(base, owned) && pointsTo(store.getRValue(), in)) {
+                        return true;
+                    }
+                }
+            }
+            if (!out.isEmpty()) { // unwrapped flow
+                if (stmt instanceof LoadField load && !load.isStatic()) {
+                    Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                    if (pointsTo(base, owned) && pointsTo(load.getLValue(), out)) {
+                        return true;
+                    }
+                } else if (stmt instanceof LoadArray load) {
+                    Var base = load.getArrayAccess().getBase();
+                    if (pointsTo(base, owned) && pointsTo(load.getLValue(), out)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private Set<Obj> pointsTo(Collection<Var> vars) {
+        Set<Obj> objs = Sets.newHybridSet();
+        vars.forEach(v -> objs.addAll(pta.getBase().getPointsToSet(v)));
+        return objs;
+    }
+
+    /**
+     * @return true if given variable may point to any object in objs.
+     */
+    private boolean pointsTo(Var var, Set<Obj> objs) {
+        return intersects(pta.getBase().getPointsToSet(var), objs);
+    }
+
+    private static boolean intersects(Set<Obj> s1, Set<Obj> s2) {
+        Set<Obj> small = s1.size() <= s2.size() ? s1 : s2;
+        Set<Obj> large = small == s1 ? s2 : s1;
+        for (Obj obj : small) {
+            if (large.contains(obj)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts (key, value) pairs by their string keys, with bounded memory.
+ * <p>
+ * Pairs are buffered in memory until their estimated size exceeds
+ * the given limit, then the buffer is sorted and spilled to
+ * a temporary file as a run. Finally, the runs are merged lazily
+ * by {@link #sorted()}. Pairs with equal keys keep their insertion order.
+ * If the pairs never exceed the limit, nothing is written to disk.
+ *
+ * @param <V> type of the values
+ */
+public class ExternalSorter<V> implements Closeable {
+
+    /**
+     * Sorted pair.
+     */
+    public record Entry<V>(String key, V value) {
+    }
+
+    /**
+     * Writes values to the spilled runs and reads them back, and
+     * estimates the memory they occupy.
+     */
+    public interface ValueCodec<V> {
+
+        void write(DataOutputStream out, V value) throws IOException;
+
+        V read(DataInputStream in) throws IOException;
+
+        /**
+         * @return estimated size (in bytes) of given value in memory.
+         */
+        long sizeOf(V value);
+    }
+
+    /**
+     * Codec of string values.
+     */
+    public static final ValueCodec<String> STRINGS = new ValueCodec<>() {
+        @Override
+        public void write(DataOutputStream out, String value) throws IOException {
+            writeString(out, value);
+        }
+
+        @Override
+        public String read(DataInputStream in) throws IOException {
+            return readString(in);
+        }
+
+        @Override
+        public long sizeOf(String value) {
+            return sizeOfString(value);
+        }
+    };
+
+    /**
+     * Codec of int array values, e.g., IDs of the members of a set.
+     */
+    public static final ValueCodec<int[]> INTS = new ValueCodec<>() {
+        @Override
+        public void write(DataOutputStream out, int[] value) throws IOException {
+            out.writeInt(value.length);
+            for (int i : value) {
+                out.writeInt(i);
+            }
+        }
+
+        @Override
+        public int[] read(DataInputStream in) throws IOException {
+            int[] value = new int[in.readInt()];
+            for (int i = 0; i < value.length; ++i) {
+                value[i] = in.readInt();
+            }
+            return value;
+        }
+
+        @Override
+        public long sizeOf(int[] value) {
+            return ARRAY_OVERHEAD + (long) value.length * Integer.BYTES;
+        }
+    };
+
+    private static final Comparator<Entry<?>> BY_KEY =
+            Comparator.comparing(Entry::key);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Estimated size (in bytes) of the headers of an array.
+     */
+    private static final long ARRAY_OVERHEAD = 16;
+
+    /**
+     * Estimated size (in bytes) of a buffered entry besides its key
+     * and value, i.e., the entry and the key object, and the slot
+     * in the buffer.
+     */
+    private static final long ENTRY_OVERHEAD = 56;
+
+    /**
+     * Maximum estimated size (in bytes) of the pairs buffered in memory.
+     */
+    private final long memoryLimit;
+
+    private final ValueCodec<V> codec;
+
+    private final List<Entry<V>> buffer = new ArrayList<>();
+
+    private long buffered;
+
+    private final List<Path> runs = new ArrayList<>();
+
+    private final List<DataInputStream> readers = new ArrayList<>();
+
+    /**
+     * @param memoryLimit maximum size (in bytes) of the pairs
+     *                    buffered in memory
+     * @param codec       codec of the values
+     */
+    public ExternalSorter(long memoryLimit, ValueCodec<V> codec) {
+        this.memoryLimit = memoryLimit;
+        this.codec = codec;
+    }
+
+    public void add(String key, V value) {
+        buffer.add(new Entry<>(key, value));
+        buffered += ENTRY_OVERHEAD + sizeOfString(key) + codec.sizeOf(value);
+        if (buffered > memoryLimit) {
+            spill();
+        }
+    }
+
+    /**
+     * @return the number of runs spilled to disk so far.
+     */
+    public int getNumberOfRuns() {
+        return runs.size();
+    }
+
+    /**
+     * @return iterator of all added pairs sorted by their keys.
+     * The iterator is valid until this sorter is closed.
+     */
+    public Iterator<Entry<V>> sorted() {
+        buffer.sort(BY_KEY);
+        if (runs.isEmpty()) {
+            return buffer.iterator();
+        }
+        List<Iterator<Entry<V>>> sources = new ArrayList<>();
+        try {
+            for (Path run : runs) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(
+                        Files.newInputStream(run), BUFFER_SIZE));
+                readers.add(in);
+                sources.add(new RunIterator<>(in, codec));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // the in-memory buffer was added last, thus merged last among equal keys
+        sources.add(buffer.iterator());
+        return new MergeIterator<>(sources);
+    }
+
+    /**
+     * Deletes the spilled runs.
+     */
+    @Override
+    public void close() {
+        try {
+            for (DataInputStream reader : readers) {
+                reader.close();
+            }
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        readers.clear();
+        runs.clear();
+        buffer.clear();
+        buffered = 0;
+    }
+
+    private void spill() {
+        buffer.sort(BY_KEY);
+        try {
+            Path run = Files.createTempFile("tai-e-sort", ".run");
+            run.toFile().deleteOnExit();
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(run), BUFFER_SIZE))) {
+                for (Entry<V> entry : buffer) {
+                    writeString(out, entry.key());
+                    codec.write(out, entry.value());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+        buffered = 0;
+    }
+
+    /**
+     * Writes a string of arbitrary length, which is not supported by
+     * {@link DataOutputStream#writeUTF(String)}.
+     */
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Estimates the size of a string, assuming that most of its chars
+     * are Latin-1 and thus stored in one byte.
+     */
+    private static long sizeOfString(String s) {
+        return ARRAY_OVERHEAD + s.length();
+    }
+
+    /**
+     * Iterates the pairs of a spilled run.
+     */
+    private static class RunIterator<V> implements Iterator<Entry<V>> {
+
+        private final DataInputStream in;
+
+        private final ValueCodec<V> codec;
+
+        private Entry<V> next;
+
+        private RunIterator(DataInputStream in, ValueCodec<V> codec) {
+            this.in = in;
+            this.codec = codec;
+            advance();
+        }
+
+        private void advance() {
+            try {
+                String key;
+                try {
+                    key = readString(in);
+                } catch (EOFException e) {
+                    next = null;
+                    return;
+                }
+                next = new Entry<>(key, codec.read(in));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<V> result = next;
+            advance();
+            return result;
+        }
+    }
+
+    /**
+     * Merges sorted iterators. Among equal keys, the pairs from
+     * the former iterators come first.
+     */
+    private static class MergeIterator<V> implements Iterator<Entry<V>> {
+
+        private record Head<V>(Entry<V> entry, int source) {
+        }
+
+        private final List<Iterator<Entry<V>>> sources;
+
+        private final PriorityQueue<Head<V>> heads = new PriorityQueue<>(
+                Comparator.comparing((Head<V> h) -> h.entry().key())
+                        .thenComparingInt(Head::source));
+
+        private MergeIterator(List<Iterator<Entry<V>>> sources) {
+            this.sources = sources;
+            for (int i = 0; i < sources.size(); ++i) {
+                pull(i);
+            }
+        }
+
+        private void pull(int source) {
+            Iterator<Entry<V>> it = sources.get(source);
+            if (it.hasNext()) {
+                heads.add(new Head<>(it.next(), source));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Entry<V> next() {
+            Head<V> head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            pull(head.source());
+            return head.entry();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class AnalysisDaemonTest {
+
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("-cp", "a b", "-m", "Main"),
+                AnalysisDaemon.tokenize("  -cp \"a b\"\t-m Main "));
+        assertEquals(List.of("-a", "cspta=cs:1-obj;file:x y.txt"),
+                AnalysisDaemon.tokenize("-a cspta=cs:1-obj;\"file:x y.txt\""));
+        assertEquals(List.of(""), AnalysisDaemon.tokenize("\"\""));
+        assertEquals(List.of(), AnalysisDaemon.tokenize("   "));
+    }
+
+    @Test
+    public void testToMainArgs() {
+        String builder = CachingWorldBuilder.class.getName();
+        assertEquals(List.of("--world-builder", builder, "-pp",
+                        "-p", "plan.yml", "-cp", "dir", "-m", "Main"),
+                List.of(AnalysisDaemon.toMainArgs(
+                        List.of("-cp", "dir", "-m", "Main"))));
+        // given plan file and inline analyses are not mixed with plan.yml
+        assertEquals(List.of("--world-builder", builder, "-pp",
+                        "-p", "other.yml", "-m", "Main"),
+                List.of(AnalysisDaemon.toMainArgs(
+                        List.of("-p", "other.yml", "-m", "Main"))));
+        assertEquals(List.of("--world-builder", builder,
+                        "-pp", "-m", "Main", "-a", "cspta"),
+                List.of(AnalysisDaemon.toMainArgs(
+                        List.of("-pp", "-m", "Main", "-a", "cspta"))));
+    }
+
+    @Test
+    public void testCheckArgs() {
+        AnalysisDaemon.checkArgs(AnalysisDaemon.toMainArgs(
+                List.of("-cp", "dir", "-m", "Main")));
+        AnalysisDaemon.checkArgs(AnalysisDaemon.toMainArgs(
+                List.of("-m", "Main", "-a", "cspta")));
+        // these requests would make Main exit the JVM
+        assertThrows(IllegalArgumentException.class, () ->
+                AnalysisDaemon.checkArgs(AnalysisDaemon.toMainArgs(
+                        List.of("-h"))));
+        assertThrows(IllegalArgumentException.class, () ->
+                AnalysisDaemon.checkArgs(new String[]{"-m", "Main"}));
+        assertThrows(IllegalArgumentException.class, () ->
+                AnalysisDaemon.checkArgs(new String[]{"-m", "Main",
+                        "-a", "cspta", "--world-builder", WorldBuilder.class.getName()}));
+    }
+
+    @Test
+    public void testProtocol() throws IOException {
+        String requests = String.join("\n",
+                "",
+                "-h",
+                "-m Main --world-builder " + WorldBuilder.class.getName(),
+                AnalysisDaemon.SHUTDOWN,
+                "-cp dir -m Main");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new AnalysisDaemon().serve(new ByteArrayInputStream(
+                requests.getBytes(StandardCharsets.UTF_8)), out);
+        List<String> replies = out.toString(StandardCharsets.UTF_8)
+                .lines()
+                .toList();
+        // empty lines are skipped, invalid requests are answered
+        // with errors, and requests after shutdown are not served
+        assertEquals(3, replies.size());
+        assertTrue(replies.get(0).startsWith(AnalysisDaemon.END + " error "));
+        assertTrue(replies.get(0).contains("Help is not supported"));
+        assertTrue(replies.get(1).startsWith(AnalysisDaemon.END + " error "));
+        assertEquals(AnalysisDaemon.END + " ok 0", replies.get(2));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie;
+
+import org.junit.Test;
+import pascal.taie.config.Options;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CachingWorldBuilderTest {
+
+    private static String computeKey(Path classPath, String mainClass) {
+        Options options = Options.parse("-pp",
+                "-cp", classPath.toString(), "-m", mainClass);
+        return CachingWorldBuilder.computeKey(options, List.of());
+    }
+
+    @Test
+    public void testKey() throws IOException {
+        Path dir = Files.createTempDirectory("cp");
+        Path file = dir.resolve("Main.class");
+        Files.writeString(file, "v1");
+        String key = computeKey(dir, "Main");
+        assertEquals(key, computeKey(dir, "Main"));
+        assertNotEquals(key, computeKey(dir, "Other"));
+        // changing a class path entry invalidates the world
+        Files.writeString(file, "v1.1");
+        assertNotEquals(key, computeKey(dir, "Main"));
+        Files.delete(file);
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testReuseAndRebuild() throws IOException {
+        Path dir = Files.createTempDirectory("cp");
+        Path file = dir.resolve("Budget.java");
+        Files.copy(Path.of("src/test/resources/pta/budget/Budget.java"), file);
+        String[] args = {
+                "--world-builder", CachingWorldBuilder.class.getName(),
+                "-pp", "-cp", dir.toString(), "-m", "Budget",
+        };
+        Main.buildWorld(args);
+        World world = World.get();
+        // the same class path reuses the world
+        Main.buildWorld(args);
+        assertSame(world, World.get());
+        // touching a class path entry forces a rebuild
+        Files.setLastModifiedTime(file, FileTime.fromMillis(
+                Files.getLastModifiedTime(file).toMillis() + 1000));
+        Main.buildWorld(args);
+        assertNotSame(world, World.get());
+        assertNotNull(World.get().getClassHierarchy().getClass("Budget"));
+        Files.delete(file);
+        Files.delete(dir);
+    }
+}
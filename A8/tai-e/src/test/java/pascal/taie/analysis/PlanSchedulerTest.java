@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.misc.ParallelClassDumper;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.demand.DemandPTA;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class PlanSchedulerTest {
+
+    /**
+     * Independent program analyses, which run in one wave,
+     * and a call graph builder, which depends on cspta.
+     */
+    private static final String[] ARGS = {
+            "-pp", "--pre-build-ir", "-cp", "src/test/resources/pta/budget", "-m", "Budget",
+            "-a", ParallelClassDumper.ID,
+            "-a", CSPTA.ID + "=cs:1-obj;action:dump",
+            "-a", DemandPTA.ID,
+            "-a", "cg=algorithm:cspta",
+    };
+
+    @Test
+    public void testConcurrentPlan() {
+        String expected = run(1);
+        assertTrue(expected.contains("Pointer analysis statistics"));
+        String given = run(2);
+        assertEquals(expected, given);
+        assertNotNull(World.get().getResult(CSPTA.ID));
+        assertNotNull(World.get().getResult(DemandPTA.ID));
+        assertNotNull(World.get().getResult("cg"));
+    }
+
+    /**
+     * Runs the plan on given number of threads.
+     *
+     * @return the output of the plan.
+     */
+    private static String run(int threads) {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+            PlanScheduler.run(threads, ARGS);
+        } finally {
+            System.setOut(stdout);
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
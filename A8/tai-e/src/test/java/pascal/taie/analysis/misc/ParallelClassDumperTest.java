@@ -0,0 +1,109 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.misc;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.config.Configs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ParallelClassDumperTest {
+
+    private static final String STALE = "stale";
+
+    private static void dump(Path classPath, String options) {
+        Main.main(new String[]{
+                "-pp", "-cp", classPath.toString(), "-m", "Budget",
+                "-a", ParallelClassDumper.ID + "=" + options,
+        });
+    }
+
+    private static Path getDump(String name) {
+        return Configs.getOutputDir().toPath().resolve(name);
+    }
+
+    @Test
+    public void testZip() throws IOException {
+        Path classPath = Path.of("src/test/resources/pta/budget");
+        dump(classPath, "zip:classes.zip");
+        dump(classPath, "skip-up-to-date:false");
+        String expected = Files.readString(getDump("Budget.tir"));
+        try (ZipFile zip = new ZipFile(getDump("classes.zip").toFile())) {
+            assertNotNull(zip.getEntry("Container.tir"));
+            ZipEntry entry = zip.getEntry("Budget.tir");
+            assertNotNull(entry);
+            assertEquals(expected, new String(
+                    zip.getInputStream(entry).readAllBytes(),
+                    StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testSkipUpToDate() throws IOException {
+        Path dir = Files.createTempDirectory("cp");
+        Path source = dir.resolve("Budget.java");
+        Files.copy(Path.of("src/test/resources/pta/budget/Budget.java"), source);
+        Path dump = getDump("Budget.tir");
+        Path marker = getDump(ParallelClassDumper.FORMAT_MARKER);
+        dump(dir, "skip-up-to-date:false");
+        assertEquals(ParallelClassDumper.FORMAT_VERSION, Files.readString(marker));
+        // a dump newer than its source is skipped
+        makeStale(dump, source);
+        dump(dir, "skip-up-to-date:true");
+        assertEquals(STALE, Files.readString(dump));
+        // dumps of another format version are not up to date
+        Files.writeString(marker, "0");
+        dump(dir, "skip-up-to-date:true");
+        assertNotEquals(STALE, Files.readString(dump));
+        assertEquals(ParallelClassDumper.FORMAT_VERSION, Files.readString(marker));
+        // touching the source makes the dump out of date
+        makeStale(dump, source);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(
+                Files.getLastModifiedTime(dump).toMillis() + 1000));
+        dump(dir, "skip-up-to-date:true");
+        assertNotEquals(STALE, Files.readString(dump));
+        Files.delete(source);
+        Files.delete(dir);
+    }
+
+    /**
+     * Replaces {@code dump} by stale content which is newer than {@code source}.
+     */
+    private static void makeStale(Path dump, Path source) throws IOException {
+        Files.writeString(dump, STALE);
+        Files.setLastModifiedTime(dump, FileTime.fromMillis(
+                Files.getLastModifiedTime(source).toMillis() + 1000));
+    }
+}
@@ -70,4 +70,22 @@ public class TaintTest {
         Tests.testCSPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    @Test
+    public void testTransferType() {
+        Tests.testCSPTA(DIR, "TransferType",
+                "taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testArgToResultWithTypeFilter() {
+        Tests.testCSPTA(DIR, "ArgToResult",
+                "type-filter:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testStringAppendWithTypeFilter() {
+        Tests.testCSPTA(DIR, "StringAppend",
+                "type-filter:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
 }
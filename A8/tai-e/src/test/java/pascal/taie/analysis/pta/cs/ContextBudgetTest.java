@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertTrue;
+
+public class ContextBudgetTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/budget";
+
+    private static final String GET = "<Container: java.lang.Object get()>";
+
+    @Test
+    public void testMaxContextsPerMethod() {
+        Map<String, Set<String>> expected = getPointsToSets(
+                runCSPTA("cs:1-obj"));
+        PointerAnalysisResult result = runCSPTA(
+                "cs:1-obj;max-contexts-per-method:1");
+        // get() is called on three containers, and falls back to
+        // the empty context after its second context
+        assertTrue(result.getCSCallGraph()
+                .reachableMethods()
+                .filter(m -> m.getMethod().getSignature().equals(GET))
+                .anyMatch(m -> m.getContext().getLength() == 0));
+        // degraded methods lose precision, but not soundness
+        Map<String, Set<String>> given = getPointsToSets(result);
+        expected.forEach((var, pts) ->
+                assertTrue(var, given.get(var).containsAll(pts)));
+    }
+
+    private static PointerAnalysisResult runCSPTA(String options) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", "Budget",
+                "-a", CSPTA.ID + "=" + options});
+        return World.get().getResult(CSPTA.ID);
+    }
+
+    /**
+     * @return map from the variables of application methods to
+     * the string representations of the objects they point to.
+     */
+    private static Map<String, Set<String>> getPointsToSets(
+            PointerAnalysisResult result) {
+        return result.getCallGraph()
+                .reachableMethods()
+                .filter(m -> m.getDeclaringClass().isApplication())
+                .map(JMethod::getIR)
+                .flatMap(ir -> ir.getVars().stream())
+                .collect(Collectors.toMap(
+                        v -> v.getMethod() + "/" + v.getName(),
+                        v -> result.getPointsToSet(v)
+                                .stream()
+                                .map(Obj::toString)
+                                .collect(Collectors.toSet())));
+    }
+}
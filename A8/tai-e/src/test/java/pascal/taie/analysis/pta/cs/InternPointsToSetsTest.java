@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class InternPointsToSetsTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/budget";
+
+    @Test
+    public void testInternPointsToSets() {
+        Map<String, Set<String>> expected = getPointsToSets(
+                runCSPTA("cs:1-obj"));
+        Map<String, Set<String>> given = getPointsToSets(
+                runCSPTA("cs:1-obj;intern-pts:true"));
+        assertEquals(expected, given);
+    }
+
+    private static PointerAnalysisResult runCSPTA(String options) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", "Budget",
+                "-a", CSPTA.ID + "=" + options});
+        return World.get().getResult(CSPTA.ID);
+    }
+
+    /**
+     * @return map from the string representations of all pointers
+     * to the string representations of the objects they point to.
+     */
+    private static Map<String, Set<String>> getPointsToSets(
+            PointerAnalysisResult result) {
+        return Stream.<Collection<? extends Pointer>>of(
+                        result.getCSVars(), result.getInstanceFields(),
+                        result.getArrayIndexes(), result.getStaticFields())
+                .flatMap(Collection::stream)
+                .collect(Collectors.toMap(Pointer::toString,
+                        p -> p.getPointsToSet()
+                                .objects()
+                                .map(Object::toString)
+                                .collect(Collectors.toSet())));
+    }
+}
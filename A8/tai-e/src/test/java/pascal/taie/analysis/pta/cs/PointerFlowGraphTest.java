@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PointerFlowGraphTest {
+
+    @Test
+    public void testAddEdge() {
+        PointerFlowGraph pfg = new PointerFlowGraph();
+        Pointer a = new TestPointer(), b = new TestPointer();
+        assertTrue(pfg.addEdge(a, b));
+        assertFalse(pfg.addEdge(a, b));
+        assertTrue(pfg.addEdge(b, a));
+        assertEquals(2, pfg.getNumberOfNodes());
+        assertEquals(2, pfg.getNumberOfEdges());
+        assertEquals(1, pfg.getOutDegreeOf(a));
+        assertEquals(0, pfg.getOutDegreeOf(new TestPointer()));
+    }
+
+    @Test
+    public void testHighDegreeNode() {
+        // crosses INDEX_THRESHOLD, so that duplicate detection switches
+        // from linear scan to the hash index of successors
+        int degree = PointerFlowGraph.INDEX_THRESHOLD * 4;
+        PointerFlowGraph pfg = new PointerFlowGraph();
+        Pointer source = new TestPointer();
+        List<Pointer> targets = new ArrayList<>();
+        for (int i = 0; i < degree; ++i) {
+            Pointer target = new TestPointer();
+            targets.add(target);
+            assertTrue(pfg.addEdge(source, target));
+            // re-adding any existing edge must not change the PFG
+            for (int j = 0; j <= i; ++j) {
+                assertFalse(pfg.addEdge(source, targets.get(j)));
+            }
+            assertEquals(i + 1, pfg.getOutDegreeOf(source));
+        }
+        assertEquals(degree, pfg.getNumberOfEdges());
+        List<Pointer> succs = new ArrayList<>();
+        pfg.forEachSuccOf(source, succs::add);
+        assertEquals(targets, succs);
+    }
+
+    @Test
+    public void testManyNodes() {
+        // grows node arrays and the pointer-ID map several times
+        int n = 10_000;
+        PointerFlowGraph pfg = new PointerFlowGraph();
+        List<Pointer> pointers = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            pointers.add(new TestPointer());
+        }
+        for (int i = 1; i < n; ++i) {
+            assertTrue(pfg.addEdge(pointers.get(i - 1), pointers.get(i)));
+        }
+        for (int i = 1; i < n; ++i) {
+            assertFalse(pfg.addEdge(pointers.get(i - 1), pointers.get(i)));
+            List<Pointer> succs = new ArrayList<>();
+            pfg.forEachSuccOf(pointers.get(i - 1), succs::add);
+            assertEquals(List.of(pointers.get(i)), succs);
+        }
+        assertEquals(n, pfg.getNumberOfNodes());
+        assertEquals(n - 1, pfg.getNumberOfEdges());
+    }
+
+    private static class TestPointer implements Pointer {
+
+        @Override
+        public PointsToSet getPointsToSet() {
+            return null;
+        }
+
+        @Override
+        public void setPointsToSet(PointsToSet pointsToSet) {
+        }
+
+        @Override
+        public Type getType() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DemandPointerAnalysisTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/demand";
+
+    private static final int BUDGET = 1_000_000;
+
+    /**
+     * Heap model options of cspta, so that the objects of both analyses
+     * have the same string representations.
+     */
+    private static final AnalysisOptions HEAP_OPTIONS = new AnalysisOptions(Map.of(
+            "merge-string-constants", false,
+            "merge-string-objects", false,
+            "merge-string-builders", false,
+            "merge-exception-objects", true));
+
+    @Test
+    public void testSameAsWholeProgram() {
+        PointerAnalysisResult result = runCSPTA("Flows");
+        List<JMethod> reachable = result.getCallGraph().reachableMethods().toList();
+        DemandPointerAnalysis demand = new DemandPointerAnalysis(
+                new AllocationSiteBasedModel(HEAP_OPTIONS), reachable, BUDGET);
+        getAppVars(reachable).forEach(var ->
+                assertEquals(var.toString(),
+                        toStrings(result.getPointsToSet(var)),
+                        toStrings(demand.pointsTo(var).orElseThrow())));
+    }
+
+    @Test
+    public void testFallback() {
+        PointerAnalysisResult result = runCSPTA("Flows");
+        List<JMethod> reachable = result.getCallGraph().reachableMethods().toList();
+        // each query exceeds the budget of one step
+        DemandPointerAnalysis demand = new DemandPointerAnalysis(
+                new AllocationSiteBasedModel(HEAP_OPTIONS), reachable, 1,
+                () -> result);
+        getAppVars(reachable).forEach(var -> {
+            assertTrue(demand.pointsTo(var).isEmpty());
+            assertEquals(var.toString(),
+                    toStrings(result.getPointsToSet(var)),
+                    toStrings(demand.getPointsToSet(var)));
+        });
+    }
+
+    @Test
+    public void testCatch() {
+        PointerAnalysisResult result = runCSPTA("Exceptions");
+        List<JMethod> reachable = result.getCallGraph().reachableMethods().toList();
+        HeapModel heapModel = new AllocationSiteBasedModel(HEAP_OPTIONS);
+        DemandPointerAnalysis demand = new DemandPointerAnalysis(
+                heapModel, reachable, BUDGET);
+        Var caught = getAppVars(reachable)
+                .stream()
+                .filter(v -> v.getName().equals("caught"))
+                .findFirst()
+                .orElseThrow();
+        Set<Obj> pts = demand.pointsTo(caught).orElseThrow();
+        assertFalse(pts.isEmpty());
+        assertTrue(pts.stream().allMatch(o ->
+                World.get().getTypeSystem().isSubtype(
+                        World.get().getClassHierarchy()
+                                .getClass("MyException").getType(),
+                        o.getType())));
+        assertTrue(toStrings(pts).stream()
+                .anyMatch(s -> s.contains("new MyException")));
+    }
+
+    private static PointerAnalysisResult runCSPTA(String main) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", CSPTA.ID + "=cs:ci"});
+        return World.get().getResult(CSPTA.ID);
+    }
+
+    private static List<Var> getAppVars(Collection<JMethod> methods) {
+        return methods.stream()
+                .filter(m -> m.getDeclaringClass().isApplication())
+                .flatMap(m -> m.getIR().getVars().stream())
+                .toList();
+    }
+
+    private static Set<String> toStrings(Set<Obj> objs) {
+        return objs.stream()
+                .map(Obj::toString)
+                .collect(Collectors.toSet());
+    }
+}
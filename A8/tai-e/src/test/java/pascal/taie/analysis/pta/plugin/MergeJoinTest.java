@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.junit.Test;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.ExternalSorter;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+public class MergeJoinTest {
+
+    /**
+     * @param pairs keys and values in turn
+     */
+    private static Iterator<ExternalSorter.Entry<String>> entries(String... pairs) {
+        List<ExternalSorter.Entry<String>> entries = new ArrayList<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            entries.add(new ExternalSorter.Entry<>(pairs[i], pairs[i + 1]));
+        }
+        return entries.iterator();
+    }
+
+    /**
+     * @return mismatches reported by merge-joining given and expected pairs.
+     */
+    private static List<String> join(Iterator<ExternalSorter.Entry<String>> given,
+                                     Iterator<ExternalSorter.Entry<String>> expected) {
+        List<String> mismatches = new ArrayList<>();
+        ResultProcessor.mergeJoin(given, expected, (key, e, g) ->
+                mismatches.add(key + ": " + e + " / " + g));
+        return mismatches;
+    }
+
+    @Test
+    public void testEqual() {
+        assertEquals(List.of(), join(
+                entries("a", "[o1]", "b", "[]", "c", "[o1, o2]"),
+                entries("a", "[o1]", "b", "[]", "c", "[o1, o2]")));
+        assertEquals(List.of(), join(entries(), entries()));
+    }
+
+    @Test
+    public void testMismatches() {
+        assertEquals(List.of(
+                        "a: null / [o1]",
+                        "b: [o1] / [o2]",
+                        "c: [o3] / null",
+                        "e: null / []"),
+                join(entries("a", "[o1]", "b", "[o2]", "d", "[]", "e", "[]"),
+                        entries("b", "[o1]", "c", "[o3]", "d", "[]")));
+    }
+
+    @Test
+    public void testOneSideEmpty() {
+        assertEquals(List.of("a: null / [o1]", "b: null / []"),
+                join(entries("a", "[o1]", "b", "[]"), entries()));
+        assertEquals(List.of("a: [o1] / null"),
+                join(entries(), entries("a", "[o1]")));
+    }
+
+    @Test
+    public void testDuplicateKeys() {
+        // only the first pair of duplicate keys is compared
+        assertEquals(List.of("b: [o2] / [o3]"),
+                join(entries("a", "[o1]", "a", "[o9]", "b", "[o3]"),
+                        entries("a", "[o1]", "b", "[o2]", "b", "[o3]")));
+    }
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+
+    @Test
+    public void testSectionIterator() throws Exception {
+        BufferedReader reader = reader(String.join("\n",
+                "a -> [o1]",
+                "b -> []",
+                "",
+                ResultProcessor.HEADER + "static fields",
+                "c -> [o2]"));
+        Iterator<ExternalSorter.Entry<String>> section =
+                new ResultProcessor.SectionIterator(reader, "input");
+        assertEquals(new ExternalSorter.Entry<>("a", "[o1]"), section.next());
+        assertEquals(new ExternalSorter.Entry<>("b", "[]"), section.next());
+        // the section ends at the empty line, and the reader is
+        // left at the beginning of the next section
+        assertFalse(section.hasNext());
+        assertEquals(ResultProcessor.HEADER + "static fields", reader.readLine());
+    }
+
+    @Test
+    public void testSectionIteratorAtEndOfFile() {
+        Iterator<ExternalSorter.Entry<String>> section =
+                new ResultProcessor.SectionIterator(reader("a -> [o1]"), "input");
+        assertEquals("a", section.next().key());
+        assertFalse(section.hasNext());
+    }
+
+    @Test
+    public void testUnsortedSection() {
+        Iterator<ExternalSorter.Entry<String>> section =
+                new ResultProcessor.SectionIterator(
+                        reader("b -> []\na -> []\n"), "input");
+        assertThrows(AnalysisException.class, section::next);
+    }
+
+    @Test
+    public void testJoinSection() {
+        BufferedReader reader = reader("a -> [o1]\nb -> [o2]\n\n");
+        assertEquals(List.of("b: [o2] / [o3]"), join(
+                entries("a", "[o1]", "b", "[o3]"),
+                new ResultProcessor.SectionIterator(reader, "input")));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ResultFileTest {
+
+    private static final String A = "[]:NewObj{<A: void m()>[0@L1] A}";
+
+    private static final String B = "[]:NewObj{<A: void m()>[1@L2] B}";
+
+    /**
+     * Text dump of the result written by {@link #writeResult}.
+     */
+    private static final String TEXT = String.join(System.lineSeparator(),
+            ResultProcessor.HEADER + "variables",
+            "[]:<A: void m()>/a -> [" + A + ", " + B + "]",
+            "[]:<A: void m()>/b -> []",
+            "[]:<A: void m()>/c -> [" + A + "]",
+            "",
+            ResultProcessor.HEADER + "static fields",
+            "",
+            "Detected 2 taint flow(s):",
+            "TaintFlow{<A: void m()>[0@L1] -> <A: void m()>[2@L3]/0}",
+            "TaintFlow{<A: void m()>[1@L2] -> <A: void m()>[2@L3]/0}",
+            "",
+            "");
+
+    private static Path tempFile() throws IOException {
+        File file = File.createTempFile("result", ResultProcessor.BINARY_SUFFIX);
+        file.deleteOnExit();
+        return file.toPath();
+    }
+
+    /**
+     * Writes a result, whose members are added in arbitrary order.
+     */
+    private static Path writeResult(String c) throws IOException {
+        Path path = tempFile();
+        try (ResultFile.Writer writer = new ResultFile.Writer(path)) {
+            writer.beginSection("variables");
+            writer.add("[]:<A: void m()>/a", List.of(B, A));
+            writer.add("[]:<A: void m()>/b", List.of());
+            writer.add("[]:<A: void m()>/c", List.of(c));
+            writer.beginSection("static fields");
+            writer.beginSection(ResultProcessor.TAINT_SECTION);
+            writer.add("TaintFlow{<A: void m()>[0@L1] -> <A: void m()>[2@L3]/0}", List.of());
+            writer.add("TaintFlow{<A: void m()>[1@L2] -> <A: void m()>[2@L3]/0}", List.of());
+        }
+        return path;
+    }
+
+    private static String render(Path path) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ResultFile.Reader reader = new ResultFile.Reader(path);
+             PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            ResultFileTool.render(reader, out);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String diff(Path oldPath, Path newPath, boolean differs)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ResultFile.Reader oldReader = new ResultFile.Reader(oldPath);
+             ResultFile.Reader newReader = new ResultFile.Reader(newPath);
+             PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            assertEquals(differs, ResultFileTool.diff(oldReader, newReader, out));
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testRenderAsTextDump() throws IOException {
+        assertEquals(TEXT, render(writeResult(A)));
+    }
+
+    @Test
+    public void testRandomAccess() throws IOException {
+        try (ResultFile.Reader reader = new ResultFile.Reader(writeResult(A))) {
+            ResultFile.Reader.Section section = reader.getSection("variables");
+            assertEquals(3, section.size());
+            assertEquals(1, section.find("[]:<A: void m()>/b"));
+            assertEquals(-1, section.find("[]:<A: void m()>/d"));
+            assertEquals("[]:<A: void m()>/c", section.getKey(2));
+            assertEquals(List.of(A), section.getMembers(2));
+            assertEquals(0, reader.getSection("static fields").size());
+            assertEquals(null, reader.getSection("array indexes"));
+        }
+    }
+
+    @Test
+    public void testDiffEqualFiles() throws IOException {
+        assertEquals("", diff(writeResult(A), writeResult(A), false));
+    }
+
+    @Test
+    public void testDiffChangedFiles() throws IOException {
+        assertEquals(String.join(System.lineSeparator(),
+                        "@@ variables",
+                        "- []:<A: void m()>/c -> [" + A + "]",
+                        "+ []:<A: void m()>/c -> [" + B + "]",
+                        ""),
+                diff(writeResult(A), writeResult(B), true));
+    }
+
+    @Test
+    public void testUnsortedKeys() throws IOException {
+        try (ResultFile.Writer writer = new ResultFile.Writer(tempFile())) {
+            writer.beginSection("variables");
+            writer.add("b", List.of());
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.add("a", List.of()));
+        }
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        byte[] bytes = Files.readAllBytes(writeResult(A));
+        Path truncated = tempFile();
+        for (int size = 0; size < bytes.length; ++size) {
+            Files.write(truncated, Arrays.copyOf(bytes, size));
+            IOException e = assertThrows(IOException.class,
+                    () -> new ResultFile.Reader(truncated).close());
+            assertTrue(e.getMessage().contains(truncated.toString()));
+        }
+    }
+
+    @Test
+    public void testCorruptedOffset() throws IOException {
+        Path path = writeResult(A);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[8] = 0x7F; // footer offset far beyond the end of file
+        Files.write(path, bytes);
+        IOException e = assertThrows(IOException.class,
+                () -> new ResultFile.Reader(path).close());
+        assertTrue(e.getMessage().contains("truncated or corrupted"));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.language.type.NullType;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PointsToSetInternerTest {
+
+    private final CSManager csManager = new MapBasedCSManager();
+
+    private final CSObj o1 = makeObj("o1");
+
+    private final CSObj o2 = makeObj("o2");
+
+    private final CSObj o3 = makeObj("o3");
+
+    @Test
+    public void testIntern() {
+        PointsToSetInterner interner = new PointsToSetInterner();
+        PointsToSet pts1 = interner.intern(make(o1, o2));
+        PointsToSet pts2 = interner.intern(make(o2, o1));
+        PointsToSet pts3 = interner.intern(make(o3));
+        assertSame(pts1.getObjects(), pts2.getObjects());
+        assertEquals(Set.of(o3), pts3.getObjects());
+        assertEquals(3, interner.getInternedCount());
+        assertEquals(2, interner.getDistinctCount());
+        assertEquals(1.0 / 3, interner.getDedupRatio(), 1e-9);
+    }
+
+    @Test
+    public void testMutationIsNotShared() {
+        PointsToSetInterner interner = new PointsToSetInterner();
+        PointsToSet pts1 = interner.intern(make(o1, o2));
+        PointsToSet pts2 = interner.intern(make(o1, o2));
+        // adding objects that are already in the set keeps it shared
+        assertFalse(pts1.addObject(o1));
+        assertFalse(pts1.addAll(make(o2)));
+        assertSame(pts1.getObjects(), pts2.getObjects());
+        // real growth copies the shared set first
+        assertTrue(pts1.addObject(o3));
+        assertTrue(pts1.contains(o3));
+        assertEquals(3, pts1.size());
+        assertFalse(pts2.contains(o3));
+        assertEquals(Set.of(o1, o2), pts2.getObjects());
+        // and so does growth of the other set
+        assertTrue(pts2.addAll(make(o3)));
+        assertEquals(Set.of(o1, o2, o3), pts2.getObjects());
+        assertTrue(pts1.addObject(makeObj("o4")));
+        assertEquals(3, pts2.size());
+        // sets interned later are not affected by earlier mutations
+        PointsToSet pts3 = interner.intern(make(o1, o2));
+        assertEquals(Set.of(o1, o2), pts3.getObjects());
+    }
+
+    private CSObj makeObj(String name) {
+        return csManager.getCSObj(ListContext.make(),
+                new MockObj(name, name, NullType.NULL));
+    }
+
+    private static PointsToSet make(CSObj... objs) {
+        PointsToSet pts = PointsToSetFactory.make();
+        for (CSObj obj : objs) {
+            pts.addObject(obj);
+        }
+        return pts;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.toolkit.mahjong;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.MergedObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MahjongTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/mahjong";
+
+    @Test
+    public void testEquivalentObjects() {
+        PointerAnalysisResult result = runCSPTA("cs:ci");
+        List<List<Obj>> groups = new Mahjong(result).computeEquivalentObjects();
+        // a1 and a2 are merged as their fields point to B objects,
+        // and the B objects are merged, but a3 (whose field points to
+        // a C object) and the C object are not
+        assertEquals(2, groups.size());
+        Set<Obj> a1 = result.getPointsToSet(getVar("a1"));
+        Set<Obj> a2 = result.getPointsToSet(getVar("a2"));
+        Set<Obj> a3 = result.getPointsToSet(getVar("a3"));
+        Set<Obj> b1 = result.getPointsToSet(getVar("b1"));
+        Set<Obj> b2 = result.getPointsToSet(getVar("b2"));
+        assertTrue(groups.stream().anyMatch(g ->
+                g.containsAll(a1) && g.containsAll(a2) && g.size() == 2));
+        assertTrue(groups.stream().anyMatch(g ->
+                g.containsAll(b1) && g.containsAll(b2) && g.size() == 2));
+        assertFalse(groups.stream().anyMatch(g -> g.containsAll(a3)));
+        // groups and their members follow allocation order, so the
+        // representative of each group is the object allocated first
+        assertTrue(a1.contains(groups.get(0).get(0)));
+        assertTrue(b1.contains(groups.get(1).get(0)));
+    }
+
+    @Test
+    public void testSoundness() {
+        PointerAnalysisResult result = runCSPTA("cs:ci");
+        Set<String> expectedEdges = getCallEdges(result);
+        Map<String, Set<Obj>> expected = getPointsToSets(result);
+        result = runCSPTA("cs:ci;heap-model:mahjong");
+        assertEquals(expectedEdges, getCallEdges(result));
+        Map<String, Set<Obj>> given = getPointsToSets(result);
+        expected.forEach((var, pts) -> {
+            // merged objects represent all merged allocation sites
+            Set<String> objs = given.get(var)
+                    .stream()
+                    .flatMap(MahjongTest::getRepresentedObjs)
+                    .map(Obj::toString)
+                    .collect(Collectors.toSet());
+            assertTrue(var, objs.containsAll(toStrings(pts)));
+            // and the types are preserved
+            assertEquals(var, getTypes(pts), getTypes(given.get(var)));
+        });
+    }
+
+    private static PointerAnalysisResult runCSPTA(String options) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", "Merge",
+                "-a", CSPTA.ID + "=" + options});
+        return World.get().getResult(CSPTA.ID);
+    }
+
+    private static Var getVar(String name) {
+        return World.get()
+                .getMainMethod()
+                .getIR()
+                .getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Set<String> getCallEdges(PointerAnalysisResult result) {
+        return result.getCallGraph()
+                .edges()
+                .map(e -> e.getCallSite() + " -> " + e.getCallee())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return map from the variables of application methods to
+     * the objects they point to.
+     */
+    private static Map<String, Set<Obj>> getPointsToSets(
+            PointerAnalysisResult result) {
+        return result.getCallGraph()
+                .reachableMethods()
+                .filter(m -> m.getDeclaringClass().isApplication())
+                .map(JMethod::getIR)
+                .flatMap(ir -> ir.getVars().stream())
+                .collect(Collectors.toMap(
+                        v -> v.getMethod() + "/" + v.getName(),
+                        result::getPointsToSet));
+    }
+
+    private static Stream<Obj> getRepresentedObjs(Obj obj) {
+        return obj instanceof MergedObj merged ?
+                merged.getAllocation().stream() : Stream.of(obj);
+    }
+
+    private static Set<String> toStrings(Set<Obj> objs) {
+        return objs.stream()
+                .map(Obj::toString)
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> getTypes(Set<Obj> objs) {
+        return objs.stream()
+                .map(o -> o.getType().getName())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.toolkit.zipper;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ZipperTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/zipper";
+
+    private static final String PUT = "<Container: void put(java.lang.Object)>";
+
+    private static final String GET = "<Container: java.lang.Object get()>";
+
+    private static final String INC = "<Counter: void inc()>";
+
+    @Test
+    public void testSelectedMethods() {
+        PointerAnalysisResult ciResult = runCSPTA("ci");
+        Set<String> selected = new Zipper(ciResult)
+                .selectPrecisionCriticalMethods()
+                .stream()
+                .map(JMethod::getSignature)
+                .collect(Collectors.toSet());
+        // put() wraps its argument into the container, and get()
+        // unwraps it, thus both must be analyzed context-sensitively
+        assertTrue(selected.contains(PUT));
+        assertTrue(selected.contains(GET));
+        // no objects flow through inc()
+        assertFalse(selected.contains(INC));
+    }
+
+    @Test
+    public void testContexts() {
+        PointerAnalysisResult result = runCSPTA("zipper-1-obj");
+        assertEquals(2, countContexts(result, GET));
+        assertEquals(1, countContexts(result, INC));
+    }
+
+    @Test
+    public void testPointsToSets() {
+        PointerAnalysisResult ciResult = runCSPTA("ci");
+        Set<Obj> o1 = ciResult.getPointsToSet(getVar("o1"));
+        Set<Obj> o2 = ciResult.getPointsToSet(getVar("o2"));
+        assertEquals(1, o1.size());
+        assertEquals(1, o2.size());
+        // both containers are merged by context-insensitive analysis
+        assertTrue(ciResult.getPointsToSet(getVar("r1")).containsAll(o2));
+        PointerAnalysisResult result = runCSPTA("zipper-1-obj");
+        assertEquals(result.getPointsToSet(getVar("o1")),
+                result.getPointsToSet(getVar("r1")));
+        assertEquals(result.getPointsToSet(getVar("o2")),
+                result.getPointsToSet(getVar("r2")));
+    }
+
+    private static PointerAnalysisResult runCSPTA(String cs) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", "Wrappers",
+                "-a", CSPTA.ID + "=cs:" + cs});
+        return World.get().getResult(CSPTA.ID);
+    }
+
+    private static Var getVar(String name) {
+        return World.get()
+                .getMainMethod()
+                .getIR()
+                .getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static long countContexts(PointerAnalysisResult result, String method) {
+        return result.getCSCallGraph()
+                .reachableMethods()
+                .filter(m -> m.getMethod().getSignature().equals(method))
+                .count();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExternalSorterTest {
+
+    /**
+     * @return pairs with random keys, including duplicate keys,
+     * where each value is the insertion index.
+     */
+    private static List<ExternalSorter.Entry<String>> randomPairs(int n) {
+        Random random = new Random(0);
+        List<ExternalSorter.Entry<String>> pairs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            pairs.add(new ExternalSorter.Entry<>(
+                    "key" + random.nextInt(n / 2), Integer.toString(i)));
+        }
+        return pairs;
+    }
+
+    /**
+     * Sorts the pairs by given sorter, and checks that the result equals
+     * the stable in-memory sort.
+     */
+    private static void checkSorted(List<ExternalSorter.Entry<String>> pairs,
+                                    ExternalSorter<String> sorter) {
+        pairs.forEach(p -> sorter.add(p.key(), p.value()));
+        List<ExternalSorter.Entry<String>> expected = new ArrayList<>(pairs);
+        expected.sort(Comparator.comparing(ExternalSorter.Entry::key));
+        List<ExternalSorter.Entry<String>> actual = new ArrayList<>();
+        sorter.sorted().forEachRemaining(actual::add);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testInMemory() {
+        try (ExternalSorter<String> sorter = new ExternalSorter<>(
+                Long.MAX_VALUE, ExternalSorter.STRINGS)) {
+            checkSorted(randomPairs(1000), sorter);
+            assertEquals(0, sorter.getNumberOfRuns());
+        }
+    }
+
+    @Test
+    public void testSpillAndMerge() {
+        // the limit holds a few pairs, thus the pairs are spilled to many runs
+        try (ExternalSorter<String> sorter = new ExternalSorter<>(
+                1024, ExternalSorter.STRINGS)) {
+            checkSorted(randomPairs(1000), sorter);
+            assertTrue(sorter.getNumberOfRuns() > 10);
+        }
+    }
+
+    @Test
+    public void testSpillEveryPair() {
+        try (ExternalSorter<String> sorter = new ExternalSorter<>(
+                1, ExternalSorter.STRINGS)) {
+            checkSorted(randomPairs(100), sorter);
+            assertEquals(100, sorter.getNumberOfRuns());
+        }
+    }
+
+    @Test
+    public void testIntValues() {
+        try (ExternalSorter<int[]> sorter = new ExternalSorter<>(
+                256, ExternalSorter.INTS)) {
+            for (int i = 99; i >= 0; --i) {
+                sorter.add(String.format("%03d", i), new int[]{ i, i + 1 });
+            }
+            sorter.add("empty", new int[0]);
+            assertTrue(sorter.getNumberOfRuns() > 1);
+            var it = sorter.sorted();
+            for (int i = 0; i < 100; ++i) {
+                ExternalSorter.Entry<int[]> entry = it.next();
+                assertEquals(String.format("%03d", i), entry.key());
+                assertArrayEquals(new int[]{ i, i + 1 }, entry.value());
+            }
+            assertArrayEquals(new int[0], it.next().value());
+            assertFalse(it.hasNext());
+        }
+    }
+
+    @Test
+    public void testClose() {
+        ExternalSorter<String> sorter = new ExternalSorter<>(1, ExternalSorter.STRINGS);
+        sorter.add("b", "1");
+        sorter.add("a", "2");
+        sorter.sorted();
+        sorter.close();
+        assertEquals(0, sorter.getNumberOfRuns());
+        assertFalse(sorter.sorted().hasNext());
+    }
+}
@@ -0,0 +1,30 @@
+class Budget {
+
+    public static void main(String[] args) {
+        Container c1 = new Container();
+        Container c2 = new Container();
+        Container c3 = new Container();
+        Object o1 = new Object();
+        Object o2 = new Object();
+        Object o3 = new Object();
+        c1.put(o1);
+        c2.put(o2);
+        c3.put(o3);
+        Object r1 = c1.get();
+        Object r2 = c2.get();
+        Object r3 = c3.get();
+    }
+}
+
+class Container {
+
+    private Object elem;
+
+    void put(Object e) {
+        this.elem = e;
+    }
+
+    Object get() {
+        return this.elem;
+    }
+}
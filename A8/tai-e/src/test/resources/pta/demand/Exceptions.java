@@ -0,0 +1,17 @@
+class Exceptions {
+
+    public static void main(String[] args) {
+        try {
+            thrower();
+        } catch (MyException e) {
+            Object caught = e;
+        }
+    }
+
+    static void thrower() throws MyException {
+        throw new MyException();
+    }
+}
+
+class MyException extends Exception {
+}
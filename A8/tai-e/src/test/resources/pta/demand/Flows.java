@@ -0,0 +1,52 @@
+class Flows {
+
+    public static void main(String[] args) {
+        Box b1 = new Box();
+        Box b2 = new SubBox();
+        Object o1 = new Object();
+        Object o2 = new Object();
+        b1.f = o1;
+        b2.f = o2;
+        Object x = b1.get();
+        Object y = b2.get(); // dispatched to SubBox.get()
+        Object[] arr = new Object[2];
+        arr[0] = x;
+        Object z = arr[1];
+        Holder.s = y;
+        Object w = Holder.s;
+        Object v = id(z);
+        Box b3 = b2.copy();
+        Object u = b3.get();
+    }
+
+    static Object id(Object o) {
+        return o;
+    }
+}
+
+class Box {
+
+    Object f;
+
+    Object get() {
+        return this.f;
+    }
+
+    Box copy() {
+        Box b = new Box();
+        b.f = this.f;
+        return b;
+    }
+}
+
+class SubBox extends Box {
+
+    Object get() {
+        return new Object();
+    }
+}
+
+class Holder {
+
+    static Object s;
+}
@@ -0,0 +1,34 @@
+class Merge {
+
+    public static void main(String[] args) {
+        A a1 = new A();
+        A a2 = new A();
+        A a3 = new A();
+        a1.f = new B();
+        a2.f = new B();
+        a3.f = new C();
+        B b1 = a1.f;
+        B b2 = a2.f;
+        B b3 = a3.f;
+        b1.foo();
+        b2.foo();
+        b3.foo();
+    }
+}
+
+class A {
+
+    B f;
+}
+
+class B {
+
+    void foo() {
+    }
+}
+
+class C extends B {
+
+    void foo() {
+    }
+}
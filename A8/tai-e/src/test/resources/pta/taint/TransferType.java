@@ -0,0 +1,10 @@
+class TransferType {
+
+    public static void main(String[] args) {
+        String taint = SourceSink.source();
+        StringBuffer sb = new StringBuffer();
+        sb.append(taint);
+        CharSequence cs = sb.subSequence(0, 3);
+        SourceSink.sink(cs.toString()); // taint
+    }
+}
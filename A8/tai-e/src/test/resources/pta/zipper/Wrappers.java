@@ -0,0 +1,39 @@
+class Wrappers {
+
+    public static void main(String[] args) {
+        Container c1 = new Container();
+        Container c2 = new Container();
+        Object o1 = new Object();
+        Object o2 = new Object();
+        c1.put(o1);
+        c2.put(o2);
+        Object r1 = c1.get();
+        Object r2 = c2.get();
+        Counter n1 = new Counter();
+        Counter n2 = new Counter();
+        n1.inc();
+        n2.inc();
+    }
+}
+
+class Container {
+
+    private Object elem;
+
+    void put(Object e) {
+        this.elem = e;
+    }
+
+    Object get() {
+        return this.elem;
+    }
+}
+
+class Counter {
+
+    private int count;
+
+    void inc() {
+        count = count + 1;
+    }
+}
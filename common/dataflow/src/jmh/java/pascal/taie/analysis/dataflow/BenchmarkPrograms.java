@@ -0,0 +1,166 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Programs for the data-flow benchmarks, i.e., the test programs and
+ * synthetic programs with large control-flow graphs.
+ */
+final class BenchmarkPrograms {
+
+    /**
+     * Program consisting of deeply nested loops.
+     */
+    static final String DEEP_LOOPS = "DeepLoops";
+
+    /**
+     * Program consisting of a huge switch statement.
+     */
+    static final String HUGE_SWITCH = "HugeSwitch";
+
+    /**
+     * Nesting depth of each loop nest in {@link #DEEP_LOOPS}.
+     */
+    private static final int LOOP_DEPTH = 20;
+
+    /**
+     * Number of loop nests in {@link #DEEP_LOOPS}.
+     */
+    private static final int LOOP_NESTS = 50;
+
+    /**
+     * Number of cases in {@link #HUGE_SWITCH}.
+     */
+    private static final int SWITCH_CASES = 2000;
+
+    private BenchmarkPrograms() {
+    }
+
+    /**
+     * @return the class path of given program. The synthetic programs
+     * are generated on demand, and the others are found in testClassPath.
+     */
+    static String getClassPath(String main, String testClassPath) {
+        return main.equals(DEEP_LOOPS) || main.equals(HUGE_SWITCH) ?
+                generate(main) : testClassPath;
+    }
+
+    /**
+     * @return IRs of all non-abstract methods of the application classes
+     * in the current world.
+     */
+    static List<IR> getApplicationIRs() {
+        return World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract())
+                .map(JMethod::getIR)
+                .toList();
+    }
+
+    /**
+     * Generates the source of given synthetic program in a new
+     * temporary directory.
+     *
+     * @return the directory, which can be used as class path.
+     */
+    private static String generate(String main) {
+        String source = switch (main) {
+            case DEEP_LOOPS -> generateDeepLoops();
+            case HUGE_SWITCH -> generateHugeSwitch();
+            default -> throw new IllegalArgumentException(
+                    "Unknown synthetic program: " + main);
+        };
+        try {
+            Path dir = Files.createTempDirectory("tai-e-synthetic");
+            Files.writeString(dir.resolve(main + ".java"), source);
+            return dir.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String generateDeepLoops() {
+        StringBuilder src = new StringBuilder();
+        src.append("class ").append(DEEP_LOOPS).append(" {\n\n");
+        src.append("    public static void main(String[] args) {\n");
+        for (int n = 0; n < LOOP_NESTS; ++n) {
+            src.append("        nest").append(n).append("(args.length);\n");
+        }
+        src.append("    }\n");
+        for (int n = 0; n < LOOP_NESTS; ++n) {
+            src.append("\n    static int nest").append(n).append("(int p) {\n");
+            src.append("        int x = 0, y = 1, z = ").append(n).append(";\n");
+            for (int d = 0; d < LOOP_DEPTH; ++d) {
+                indent(src, d + 2).append("for (int i").append(d)
+                        .append(" = 0; i").append(d).append(" < p; ++i")
+                        .append(d).append(") {\n");
+                indent(src, d + 3).append("x = y + i").append(d).append(";\n");
+                indent(src, d + 3).append("if (x > z) { y = x - z; } else { z = 3; }\n");
+            }
+            for (int d = LOOP_DEPTH - 1; d >= 0; --d) {
+                indent(src, d + 2).append("}\n");
+            }
+            src.append("        return x + y + z;\n");
+            src.append("    }\n");
+        }
+        return src.append("}\n").toString();
+    }
+
+    private static String generateHugeSwitch() {
+        StringBuilder src = new StringBuilder();
+        src.append("class ").append(HUGE_SWITCH).append(" {\n\n");
+        src.append("    public static void main(String[] args) {\n");
+        src.append("        dispatch(args.length);\n");
+        src.append("    }\n\n");
+        src.append("    static int dispatch(int p) {\n");
+        src.append("        int x = 0, y = 1;\n");
+        src.append("        switch (p) {\n");
+        for (int c = 0; c < SWITCH_CASES; ++c) {
+            src.append("            case ").append(c).append(":\n");
+            src.append("                x = ").append(c).append(" * y;\n");
+            src.append("                y = x + p;\n");
+            src.append("                break;\n");
+        }
+        src.append("            default:\n");
+        src.append("                x = y;\n");
+        src.append("        }\n");
+        src.append("        return x + y;\n");
+        src.append("    }\n");
+        return src.append("}\n").toString();
+    }
+
+    private static StringBuilder indent(StringBuilder src, int level) {
+        return src.append("    ".repeat(level));
+    }
+}
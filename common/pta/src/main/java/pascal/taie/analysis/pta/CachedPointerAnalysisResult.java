@@ -0,0 +1,164 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pointer analysis result whose context-insensitive projections of
+ * points-to sets can be invalidated while the solver is still running.
+ * <p>
+ * {@link PointerAnalysisResultImpl} already memoizes the projections
+ * of variables and fields, but never discards them, so a result queried
+ * during solving (e.g., by plugins) would keep returning stale sets.
+ * This class keeps its own projections and lets the solver call
+ * {@link #onPointsToSetChanged(Pointer)} whenever the points-to set of
+ * a pointer grows; only the projections that depend on the pointer
+ * are discarded.
+ */
+public class CachedPointerAnalysisResult extends PointerAnalysisResultImpl {
+
+    private final CSManager csManager;
+
+    private final Map<Var, Set<Obj>> varPointsTo = Maps.newMap();
+
+    /**
+     * Cache of {@link #getPointsToSet(Var, JField)}, keyed by field first,
+     * so that the entries of a field can be discarded together.
+     */
+    private final TwoKeyMap<JField, Var, Set<Obj>> fieldPointsTo = Maps.newTwoKeyMap();
+
+    /**
+     * Index of {@link #fieldPointsTo} by base variable, so that the entries
+     * of a variable can be discarded without scanning all cached fields.
+     */
+    private final MultiMap<Var, JField> fieldsOfBase = Maps.newMultiMap();
+
+    private final Map<JField, Set<Obj>> staticFieldPointsTo = Maps.newMap();
+
+    public CachedPointerAnalysisResult(
+            CSManager csManager, CallGraph<CSCallSite, CSMethod> csCallGraph) {
+        super(csManager, csCallGraph);
+        this.csManager = csManager;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        Set<Obj> result = varPointsTo.get(var);
+        if (result == null) {
+            Set<Obj> objs = Sets.newHybridSet();
+            csManager.getCSVarsOf(var).forEach(csVar ->
+                    addObjects(objs, csVar.getPointsToSet()));
+            result = freeze(objs);
+            varPointsTo.put(var, result);
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        if (field.isStatic()) {
+            return getPointsToSet(field);
+        }
+        Set<Obj> result = fieldPointsTo.get(field, base);
+        if (result == null) {
+            Set<Obj> objs = Sets.newHybridSet();
+            for (CSVar csBase : csManager.getCSVarsOf(base)) {
+                for (CSObj csObj : csBase.getPointsToSet()) {
+                    addObjects(objs, csManager.getInstanceField(csObj, field)
+                            .getPointsToSet());
+                }
+            }
+            result = freeze(objs);
+            fieldPointsTo.put(field, base, result);
+            fieldsOfBase.put(base, field);
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        Set<Obj> result = staticFieldPointsTo.get(field);
+        if (result == null) {
+            Set<Obj> objs = Sets.newHybridSet();
+            addObjects(objs, csManager.getStaticField(field).getPointsToSet());
+            result = freeze(objs);
+            staticFieldPointsTo.put(field, result);
+        }
+        return result;
+    }
+
+    /**
+     * Discards the cached projections that depend on given pointer.
+     * This should be called when the points-to set of the pointer changes.
+     */
+    public void onPointsToSetChanged(Pointer pointer) {
+        if (pointer instanceof CSVar csVar) {
+            Var var = csVar.getVar();
+            varPointsTo.remove(var);
+            if (fieldsOfBase.containsKey(var)) {
+                for (JField field : fieldsOfBase.get(var)) {
+                    fieldPointsTo.remove(field, var);
+                }
+                fieldsOfBase.removeAll(var);
+            }
+        } else if (pointer instanceof InstanceField instanceField) {
+            JField field = instanceField.getField();
+            Map<Var, Set<Obj>> entries = fieldPointsTo.get(field);
+            if (entries != null) {
+                entries.keySet().forEach(base -> fieldsOfBase.remove(base, field));
+                fieldPointsTo.removeAll(field);
+            }
+        } else if (pointer instanceof StaticField staticField) {
+            staticFieldPointsTo.remove(staticField.getField());
+        }
+    }
+
+    private static void addObjects(Set<Obj> objs, PointsToSet pts) {
+        pts.forEach(csObj -> objs.add(csObj.getObject()));
+    }
+
+    private static Set<Obj> freeze(Set<Obj> objs) {
+        return objs.isEmpty() ? Set.of() : Collections.unmodifiableSet(objs);
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.AnalysisOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Registry of counters and phase timers of an analysis run.
+ * <p>
+ * Metrics are enabled by option "metrics", which specifies the path
+ * of the JSON file to dump them to. When the option is absent,
+ * all counters and timers are shared no-op instances, which neither
+ * count nor read the clock, and nothing is dumped.
+ * <p>
+ * Metrics may be shared by the threads that run an analysis in parallel
+ * (e.g., one method per thread), thus counters and timers are thread-safe.
+ * Timers measure inclusive time, i.e., the time of a phase also counts
+ * in the phases that enclose it, and the times of threads that run
+ * the same phase concurrently add up.
+ */
+public class Metrics {
+
+    private static final Logger logger = LogManager.getLogger(Metrics.class);
+
+    private final String analysis;
+
+    /**
+     * Path of the JSON output file, null if metrics are disabled.
+     */
+    private final String file;
+
+    private final Map<String, Counter> counters =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final Map<String, PhaseTimer> timers =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private Metrics(String analysis, String file) {
+        this.analysis = analysis;
+        this.file = file;
+    }
+
+    /**
+     * Creates metrics for given analysis, which are enabled if
+     * option "metrics" is given in the options.
+     */
+    public static Metrics of(String analysis, AnalysisOptions options) {
+        return new Metrics(analysis, options.getString("metrics"));
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * @return the counter of given name. Solvers should obtain the counters
+     * once and keep them, instead of looking them up in hot paths.
+     */
+    public Counter counter(String name) {
+        return isEnabled() ?
+                counters.computeIfAbsent(name, n -> new Counter(true)) :
+                Counter.DISABLED;
+    }
+
+    /**
+     * @return the phase timer of given name. Solvers should obtain the timers
+     * once and keep them, instead of looking them up in hot paths.
+     */
+    public PhaseTimer timer(String name) {
+        return isEnabled() ?
+                timers.computeIfAbsent(name, n -> new PhaseTimer(true)) :
+                PhaseTimer.DISABLED;
+    }
+
+    /**
+     * Dumps the metrics to the output file if they are enabled.
+     */
+    public void dump() {
+        if (isEnabled()) {
+            try {
+                Files.writeString(Path.of(file), toJson());
+            } catch (IOException e) {
+                throw new AnalysisException(
+                        "Failed to dump metrics to " + file, e);
+            }
+            logger.info("Dumped metrics of {} to {}", analysis, file);
+        }
+    }
+
+    /**
+     * Dumps the metrics when the JVM exits. This is for the analyses that
+     * are run many times (e.g., once per method) without a finishing point.
+     */
+    public void dumpOnExit() {
+        if (isEnabled()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::dump));
+        }
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"analysis\": ").append(quote(analysis));
+        json.append(",\n  \"counters\": {");
+        appendEntries(json, counters, counter ->
+                Long.toString(counter.get()));
+        json.append("},\n  \"timers\": {");
+        appendEntries(json, timers, timer ->
+                String.format(Locale.ROOT, "{\"count\": %d, \"millis\": %.3f}",
+                        timer.getCount(), timer.getElapsedNanos() / 1e6));
+        json.append("}\n}\n");
+        return json.toString();
+    }
+
+    private static <T> void appendEntries(
+            StringBuilder json, Map<String, T> entries,
+            Function<T, String> toJson) {
+        synchronized (entries) {
+            appendEntries0(json, entries, toJson);
+        }
+    }
+
+    private static <T> void appendEntries0(
+            StringBuilder json, Map<String, T> entries,
+            Function<T, String> toJson) {
+        Iterator<Map.Entry<String, T>> iter = entries.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, T> e = iter.next();
+            json.append("\n    ").append(quote(e.getKey())).append(": ")
+                    .append(toJson.apply(e.getValue()));
+            json.append(iter.hasNext() ? "," : "\n  ");
+        }
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Monotonic counter of events.
+     */
+    public static class Counter {
+
+        /**
+         * The counter handed out by disabled metrics.
+         */
+        private static final Counter DISABLED = new Counter(false);
+
+        /**
+         * The count, null if this counter is disabled.
+         */
+        private final LongAdder value;
+
+        private Counter(boolean enabled) {
+            this.value = enabled ? new LongAdder() : null;
+        }
+
+        public void increase() {
+            if (value != null) {
+                value.increment();
+            }
+        }
+
+        public void add(long n) {
+            if (value != null) {
+                value.add(n);
+            }
+        }
+
+        public long get() {
+            return value != null ? value.sum() : 0;
+        }
+    }
+
+    /**
+     * Accumulates the time spent in a phase. Nested (reentrant) calls
+     * of {@link #start()}/{@link #stop()} are counted only once, so the
+     * time of recursive phases is not counted twice. Nesting is tracked
+     * per thread, and the time of all threads is summed up.
+     * <p>
+     * {@link #start()} returns the timer itself, so that a phase can be
+     * timed by a try-with-resources statement, which stops the timer
+     * even if the phase throws:
+     * <pre>
+     * try (var ignored = timer.start()) {
+     *     ...
+     * }
+     * </pre>
+     */
+    public static class PhaseTimer implements AutoCloseable {
+
+        /**
+         * The timer handed out by disabled metrics.
+         */
+        private static final PhaseTimer DISABLED = new PhaseTimer(false);
+
+        private final boolean enabled;
+
+        /**
+         * The phase being timed by each thread.
+         */
+        private final ThreadLocal<Phase> phase = ThreadLocal.withInitial(Phase::new);
+
+        private final LongAdder elapsed = new LongAdder();
+
+        private final LongAdder count = new LongAdder();
+
+        private PhaseTimer(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * @return this timer, to be closed when the phase finishes.
+         */
+        public PhaseTimer start() {
+            if (enabled) {
+                Phase p = phase.get();
+                if (p.depth++ == 0) {
+                    p.start = System.nanoTime();
+                }
+            }
+            return this;
+        }
+
+        public void stop() {
+            if (enabled) {
+                Phase p = phase.get();
+                if (--p.depth == 0) {
+                    elapsed.add(System.nanoTime() - p.start);
+                    count.increment();
+                }
+            }
+        }
+
+        /**
+         * Equivalent to {@link #stop()}.
+         */
+        @Override
+        public void close() {
+            stop();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getElapsedNanos() {
+            return elapsed.sum();
+        }
+
+        /**
+         * State of the phase timed by a thread.
+         */
+        private static class Phase {
+
+            private int depth;
+
+            private long start;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import org.junit.Test;
+import pascal.taie.config.AnalysisOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+
+    private static Metrics enabledMetrics() throws IOException {
+        File file = File.createTempFile("metrics", ".json");
+        file.deleteOnExit();
+        return Metrics.of("test", new AnalysisOptions(
+                Map.of("metrics", file.getPath())));
+    }
+
+    @Test
+    public void testTimerStopsOnException() throws IOException {
+        Metrics.PhaseTimer timer = enabledMetrics().timer("phase");
+        assertThrows(IllegalStateException.class, () -> {
+            try (var ignored = timer.start()) {
+                throw new IllegalStateException();
+            }
+        });
+        assertEquals(1, timer.getCount());
+        // the timer is not left running, thus the next phase is counted
+        try (var ignored = timer.start()) {
+            assertEquals(1, timer.getCount());
+        }
+        assertEquals(2, timer.getCount());
+    }
+
+    @Test
+    public void testNestedTimer() throws IOException {
+        Metrics.PhaseTimer timer = enabledMetrics().timer("phase");
+        try (var outer = timer.start()) {
+            try (var inner = timer.start()) {
+                assertEquals(0, timer.getCount());
+            }
+            assertEquals(0, timer.getCount());
+        }
+        assertEquals(1, timer.getCount());
+    }
+
+    @Test
+    public void testDisabled() {
+        Metrics metrics = Metrics.of("test", new AnalysisOptions(Map.of()));
+        assertFalse(metrics.isEnabled());
+        Metrics.PhaseTimer timer = metrics.timer("phase");
+        try (var ignored = timer.start()) {
+            metrics.counter("events").increase();
+        }
+        assertEquals(0, timer.getCount());
+        assertEquals(0, metrics.counter("events").get());
+        // disabled metrics hand out shared no-op instances
+        Metrics other = Metrics.of("other", new AnalysisOptions(Map.of()));
+        assertSame(timer, other.timer("other-phase"));
+        assertSame(metrics.counter("events"), other.counter("other-events"));
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        Metrics metrics = enabledMetrics();
+        Metrics.Counter counter = metrics.counter("events");
+        Metrics.PhaseTimer timer = metrics.timer("phase");
+        int nThreads = 4, nPhases = 10_000;
+        Thread[] threads = new Thread[nThreads];
+        for (int i = 0; i < nThreads; ++i) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < nPhases; ++j) {
+                    try (var outer = timer.start()) {
+                        try (var inner = timer.start()) {
+                            counter.increase();
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(nThreads * nPhases, counter.get());
+        // nesting is tracked per thread, so each outer phase counts once
+        assertEquals(nThreads * nPhases, timer.getCount());
+    }
+
+    @Test
+    public void testToJson() throws IOException {
+        Metrics metrics = enabledMetrics();
+        assertTrue(metrics.isEnabled());
+        metrics.counter("events").add(3);
+        String json = metrics.toJson();
+        assertTrue(json.contains("\"analysis\": \"test\""));
+        assertTrue(json.contains("\"events\": 3"));
+    }
+}